@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+# Measures what the bundled frontend saves: page load over one connection and
+# task-create latency with and without the CORS preflight a separate origin needs.
+#
+#   mvn -Pfrontend package -DskipTests
+#   java -jar target/todo-0.0.1-SNAPSHOT.jar &
+#   scripts/frontend-latency.sh [runs]
+#
+# HTTP2=1 talks h2c (prior knowledge) instead of HTTP/1.1 keep-alive. curl 7.88
+# fails to reuse a prior-knowledge connection for the next URL (error 16), so h2c
+# samples need a newer curl.
+# Requests of one sample share a curl process, so the connection is reused the
+# way a browser would, and their times are summed. The "cross-origin" create is
+# the preflight a browser sends from http://localhost:3000 plus the POST.
+set -euo pipefail
+
+RUNS=${1:-50}
+BASE=${BASE:-http://localhost:8080}
+ORIGIN=${ORIGIN:-http://localhost:3000}
+PROTO=(--http1.1)
+[ "${HTTP2:-0}" = 1 ] && PROTO=(--http2-prior-knowledge)
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+JAR="$WORK/cookies"
+EMAIL="bench-$$@example.com"
+
+ms() { awk '{s += $1} END {printf "%.2f", s * 1000 / NR}'; }
+
+# Page load: the shell plus every file of the entry point, compressed as a browser would ask
+if manifest=$(curl -sf "$BASE/asset-manifest.json"); then
+  urls=("$BASE/")
+  for f in $(grep -o '"static/[^"]*\.\(js\|css\)"' <<<"$manifest" | tr -d '"' | sort -u); do
+    urls+=("$BASE/$f")
+  done
+  for i in $(seq "$RUNS"); do
+    curl -s "${PROTO[@]}" -H 'Accept-Encoding: br, gzip' -o /dev/null \
+        -w '%{time_total} %{size_download}\n' "${urls[@]}" \
+      | awk '{t += $1; b += $2} END {print t, b}'
+  done >"$WORK/page"
+  printf 'page load   %3d files  %8s ms  %8d bytes\n' "${#urls[@]}" \
+      "$(awk '{print $1}' "$WORK/page" | ms)" "$(awk 'NR == 1 {print $2}' "$WORK/page")"
+else
+  echo "page load   skipped: no asset-manifest.json, the jar was built without -Pfrontend" >&2
+fi
+
+curl -sf "${PROTO[@]}" -o /dev/null -H 'Content-Type: application/json' \
+    -d "{\"email\":\"$EMAIL\",\"password\":\"bench\",\"firstName\":\"Bench\",\"lastName\":\"Mark-$$\",\"dateOfBirth\":\"1990-01-01\"}" \
+    "$BASE/api/auth/signup"
+curl -sf "${PROTO[@]}" -o /dev/null -c "$JAR" -H 'Content-Type: application/json' \
+    -d "{\"email\":\"$EMAIL\",\"password\":\"bench\"}" "$BASE/api/auth/login"
+
+body='{"title":"latency probe","priority":2}'
+for i in $(seq "$RUNS"); do
+  curl -s "${PROTO[@]}" -b "$JAR" -o /dev/null -w '%{time_total}\n' \
+      -X OPTIONS -H "Origin: $ORIGIN" -H 'Access-Control-Request-Method: POST' \
+      -H 'Access-Control-Request-Headers: content-type' "$BASE/api/tasks" \
+      --next "${PROTO[@]}" -b "$JAR" -o /dev/null -w '%{time_total}\n' \
+      -H "Origin: $ORIGIN" -H 'Content-Type: application/json' -d "$body" "$BASE/api/tasks" \
+    | awk '{s += $1} END {print s}'
+done >"$WORK/cross"
+for i in $(seq "$RUNS"); do
+  curl -s "${PROTO[@]}" -b "$JAR" -o /dev/null -w '%{time_total}\n' \
+      -H 'Content-Type: application/json' -d "$body" "$BASE/api/tasks"
+done >"$WORK/same"
+printf 'create      cross-origin %8s ms   same-origin %8s ms\n' "$(ms <"$WORK/cross")" "$(ms <"$WORK/same")"
@@ -0,0 +1,63 @@
+#!/usr/bin/env bash
+# Load test for the flight recorder overhead: GET /api/tasks throughput with no
+# recording, then while /actuator/jfr records (application events included),
+# and the difference between the two.
+#
+#   mvn package -DskipTests
+#   java -jar target/todo-0.0.1-SNAPSHOT.jar --management.endpoints.web.exposure.include=health,jfr &
+#   scripts/jfr-overhead.sh [requests-per-worker] [workers]
+#
+# SETTINGS=profile records with the JDK's profiling settings instead of "default".
+# Each worker is one curl process on one keep-alive connection. Rounds alternate
+# between plain and recording so drift (JIT, GC, disk) does not favour either side.
+set -euo pipefail
+
+REQUESTS=${1:-2000}
+WORKERS=${2:-8}
+ROUNDS=${ROUNDS:-3}
+SETTINGS=${SETTINGS:-default}
+BASE=${BASE:-http://localhost:8080}
+WORK=$(mktemp -d)
+trap 'curl -s -o /dev/null -X DELETE "$BASE/actuator/jfr" || true; rm -rf "$WORK"' EXIT
+JAR="$WORK/cookies"
+EMAIL="jfr-$$@example.com"
+
+curl -sf -o /dev/null -H 'Content-Type: application/json' \
+    -d "{\"email\":\"$EMAIL\",\"password\":\"bench\",\"firstName\":\"Jfr\",\"lastName\":\"Bench-$$\",\"dateOfBirth\":\"1990-01-01\"}" \
+    "$BASE/api/auth/signup"
+curl -sf -o /dev/null -c "$JAR" -H 'Content-Type: application/json' \
+    -d "{\"email\":\"$EMAIL\",\"password\":\"bench\"}" "$BASE/api/auth/login"
+for i in $(seq 100); do
+  curl -sf -o /dev/null -b "$JAR" -H 'Content-Type: application/json' \
+      -d "{\"title\":\"load $i\",\"priority\":$((i % 4))}" "$BASE/api/tasks"
+done
+
+# Prints requests per second; shed (non-200) responses are counted separately
+load() {
+  local start end
+  start=$(date +%s.%N)
+  for w in $(seq "$WORKERS"); do
+    curl -s -b "$JAR" -o /dev/null -w '%{http_code}\n' "$BASE/api/tasks?r=[1-$REQUESTS]" >"$WORK/codes.$w" &
+  done
+  wait
+  end=$(date +%s.%N)
+  local failed
+  failed=$(cat "$WORK"/codes.* | grep -vc '^200$' || true)
+  [ "$failed" -eq 0 ] || echo "  $failed non-200 responses" >&2
+  awk -v n=$((REQUESTS * WORKERS)) -v s="$start" -v e="$end" 'BEGIN {printf "%.1f\n", n / (e - s)}'
+}
+
+load >/dev/null # warm-up
+for r in $(seq "$ROUNDS"); do
+  load >>"$WORK/plain"
+  curl -sf -o /dev/null -X POST -H 'Content-Type: application/json' \
+      -d "{\"seconds\":600,\"settings\":\"$SETTINGS\"}" "$BASE/actuator/jfr"
+  load >>"$WORK/recording"
+  curl -sf -o /dev/null -X DELETE "$BASE/actuator/jfr"
+done
+
+mean() { awk '{s += $1} END {printf "%.1f", s / NR}' "$1"; }
+plain=$(mean "$WORK/plain")
+recording=$(mean "$WORK/recording")
+printf 'no recording  %10s req/s\nrecording     %10s req/s  (%s)\n' "$plain" "$recording" "$SETTINGS"
+awk -v p="$plain" -v r="$recording" 'BEGIN {printf "overhead      %10.2f %%\n", (p - r) * 100 / p}'
@@ -0,0 +1,63 @@
+#!/usr/bin/env bash
+# Compares cold start time and resident memory of the packaged app modes.
+#
+#   mvn -Paot,cds package -DskipTests   # builds target/*.jar and target/cds/
+#   mvn -Pnative native:compile          # optional, builds target/todo
+#   scripts/startup-benchmark.sh [runs]
+#
+# Each mode is started RUNS times against a throwaway H2 file; the script
+# waits for the actuator health endpoint, then records the time reported by
+# Spring ("Started TodoApplication in X seconds") and VmRSS of the process.
+# A start that is not healthy within TIMEOUT seconds (default 120), or a process
+# that exits early, aborts the script with the tail of its log.
+# Uses $JAVA_HOME/bin/java when JAVA_HOME is set.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+TIMEOUT=${TIMEOUT:-120}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+JAR=$(ls target/todo-*.jar | grep -v -- '-app.jar' | head -n 1)
+CDS_JAR=$(ls target/cds/todo-*-app.jar 2>/dev/null | head -n 1 || true)
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+run_mode() {
+  local name=$1; shift
+  local total_ms=0 total_rss=0
+  for i in $(seq "$RUNS"); do
+    rm -rf "$WORK/data"
+    (cd "$WORK" && exec "$@" --server.port="$PORT" \
+        --spring.datasource.url="jdbc:h2:file:$WORK/data/tododb" \
+        --spring.jpa.show-sql=false >"$WORK/out.log" 2>&1) &
+    local pid=$!
+    local deadline=$((SECONDS + TIMEOUT))
+    until curl -sf "http://localhost:$PORT/actuator/health" >/dev/null; do
+      if ! kill -0 "$pid" 2>/dev/null || [ "$SECONDS" -ge "$deadline" ]; then
+        kill "$pid" 2>/dev/null || true
+        echo "$name: not healthy within ${TIMEOUT}s (run $i), last log lines:" >&2
+        tail -n 20 "$WORK/out.log" >&2
+        exit 1
+      fi
+      sleep 0.05
+    done
+    local secs rss
+    secs=$(grep -o 'Started TodoApplication in [0-9.]*' "$WORK/out.log" | awk '{print $4}')
+    rss=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+    kill "$pid"; wait "$pid" 2>/dev/null || true
+    total_ms=$((total_ms + $(awk -v s="$secs" 'BEGIN {printf "%d", s * 1000}')))
+    total_rss=$((total_rss + rss))
+  done
+  printf '%-10s start %6d ms   rss %7d KB\n' "$name" $((total_ms / RUNS)) $((total_rss / RUNS))
+}
+
+run_mode jar "$JAVA" -jar "$PWD/$JAR"
+run_mode aot "$JAVA" -Dspring.aot.enabled=true -jar "$PWD/$JAR"
+if [ -n "$CDS_JAR" ] && [ -f target/cds/application.jsa ]; then
+  run_mode cds "$JAVA" -XX:SharedArchiveFile="$PWD/target/cds/application.jsa" \
+      -Dspring.aot.enabled=true -jar "$PWD/$CDS_JAR"
+fi
+if [ -x target/todo ]; then
+  run_mode native "$PWD/target/todo"
+fi
@@ -0,0 +1,118 @@
+package com.example.todo.bench;
+
+import com.example.todo.dto.TaskResponse;
+import com.example.todo.dto.TaskResponseSerializer;
+import com.example.todo.model.Task;
+import com.example.todo.model.User;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization cost of the GET /api/tasks payload: the old reflective path over
+ * Task entities (with the nested User), the same with Blackbird, the response
+ * records through ObjectMapper, and the streaming JsonGenerator loop the
+ * controller uses now. Output goes to a discarding stream so only encoding is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskSerializationBenchmark {
+
+    @Param({"1000", "10000"})
+    int size;
+
+    private List<Task> entities;
+    private List<TaskResponse> responses;
+    private ObjectMapper reflective;
+    private ObjectMapper blackbird;
+    private final OutputStream sink = new Sink();
+
+    @Setup
+    public void setUp() {
+        User user = new User("secret", "1990-01-01", "bench@example.com", "Bench", "User", "bench");
+        user.setId(1L);
+        entities = new ArrayList<>(size);
+        responses = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Task task = new Task((long) i, "Task number " + i + " with a realistic title", i % 3 == 0);
+            task.setPriority(i);
+            task.setRank("0|" + Integer.toString(i, 36));
+            task.setDate(LocalDate.of(2025, 1, 1).plusDays(i % 365));
+            if (i % 3 == 0) task.setCompletedAt(LocalDateTime.of(2025, 1, 2, 9, 30));
+            task.setUser(user);
+            entities.add(task);
+            responses.add(TaskResponse.from(task));
+        }
+        reflective = mapper(false);
+        blackbird = mapper(true);
+    }
+
+    private static ObjectMapper mapper(boolean withBlackbird) {
+        JsonMapper.Builder builder = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (withBlackbird) builder.addModule(new BlackbirdModule());
+        return builder.build();
+    }
+
+    @Benchmark
+    public void reflectiveEntities() throws IOException {
+        reflective.writeValue(sink, entities);
+    }
+
+    @Benchmark
+    public void blackbirdEntities() throws IOException {
+        blackbird.writeValue(sink, entities);
+    }
+
+    @Benchmark
+    public void responseRecords() throws IOException {
+        reflective.writeValue(sink, responses);
+    }
+
+    @Benchmark
+    public void streamingGenerator() throws IOException {
+        try (JsonGenerator json = reflective.getFactory().createGenerator(sink)) {
+            json.writeStartArray();
+            for (TaskResponse task : responses) TaskResponseSerializer.write(json, task);
+            json.writeEndArray();
+        }
+    }
+
+    // Discards everything; close() is a no-op so the stream can be reused
+    private static final class Sink extends OutputStream {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
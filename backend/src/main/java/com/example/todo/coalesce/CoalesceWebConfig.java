@@ -0,0 +1,25 @@
+package com.example.todo.coalesce;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class CoalesceWebConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<UserMutationTracker> tracker;
+
+    public CoalesceWebConfig(ObjectProvider<UserMutationTracker> tracker) {
+        this.tracker = tracker;
+    }
+
+    // Sliced tests (e.g. @WebMvcTest) have no tracker and no coalesced reads
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        UserMutationTracker mutationTracker = tracker.getIfAvailable();
+        if (mutationTracker != null) {
+            registry.addInterceptor(new MutationTrackingInterceptor(mutationTracker)).addPathPatterns("/api/tasks/**");
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.todo.coalesce;
+
+import com.example.todo.model.User;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Marks every non-GET task request of a logged-in user as a mutation for the
+ * whole request, i.e. until after its transaction has committed.
+ */
+public class MutationTrackingInterceptor implements HandlerInterceptor {
+
+    private static final String USER_ATTRIBUTE = MutationTrackingInterceptor.class.getName() + ".user";
+
+    private final UserMutationTracker tracker;
+
+    public MutationTrackingInterceptor(UserMutationTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if ("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)) return true;
+        HttpSession session = request.getSession(false);
+        Object attribute = session != null ? session.getAttribute("user") : null;
+        if (!(attribute instanceof User user) || user.getId() == null) return true;
+        tracker.begin(user.getId());
+        request.setAttribute(USER_ATTRIBUTE, user.getId());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(USER_ATTRIBUTE) instanceof Long userId) {
+            request.removeAttribute(USER_ATTRIBUTE);
+            tracker.end(userId);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.todo.coalesce;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks task mutations per user so coalesced reads stay read-your-writes.
+ * While a mutation runs, reads for that user bypass coalescing; when it ends
+ * the user's generation moves on, so later reads never join a flight that
+ * started before the mutation committed.
+ * <p>
+ * Generations come from one counter. A user idle for longer than the expiry is
+ * dropped; users without state report the highest generation dropped so far, so a
+ * user's generation never goes back to a value an earlier flight may still use.
+ */
+@Component
+public class UserMutationTracker {
+
+    private final Map<Long, State> users = new ConcurrentHashMap<>();
+    private final AtomicLong generations = new AtomicLong();
+    private final AtomicLong evictedGeneration = new AtomicLong();
+    private final AtomicLong nextSweep = new AtomicLong();
+    private final long idleExpiryMillis;
+    private final Clock clock;
+
+    private static final class State {
+        final AtomicInteger active = new AtomicInteger();
+        volatile long generation;
+        volatile long idleSince;
+
+        State(long generation) {
+            this.generation = generation;
+        }
+    }
+
+    @Autowired
+    public UserMutationTracker(@Value("${todo.coalesce.idle-user-expiry:PT1M}") Duration idleExpiry) {
+        this(idleExpiry, Clock.systemUTC());
+    }
+
+    UserMutationTracker(Duration idleExpiry, Clock clock) {
+        this.idleExpiryMillis = idleExpiry.toMillis();
+        this.clock = clock;
+    }
+
+    public void begin(Long userId) {
+        users.compute(userId, (id, state) -> {
+            if (state == null) state = new State(evictedGeneration.get());
+            state.active.incrementAndGet();
+            return state;
+        });
+    }
+
+    public void end(Long userId) {
+        State state = users.get(userId);
+        if (state == null) return;
+        // Bump first: whoever sees no active mutation also sees the new generation
+        state.generation = generations.incrementAndGet();
+        state.idleSince = clock.millis();
+        state.active.decrementAndGet();
+        sweep(state.idleSince);
+    }
+
+    public boolean isMutating(Long userId) {
+        State state = users.get(userId);
+        return state != null && state.active.get() > 0;
+    }
+
+    public long generation(Long userId) {
+        State state = users.get(userId);
+        return state != null ? state.generation : evictedGeneration.get();
+    }
+
+    // Drops idle users, at most once per expiry period; begin() for the same user waits on the map entry
+    private void sweep(long now) {
+        long due = nextSweep.get();
+        if (now < due || !nextSweep.compareAndSet(due, now + idleExpiryMillis)) return;
+        for (Long userId : users.keySet()) {
+            users.computeIfPresent(userId, (id, state) -> {
+                if (state.active.get() > 0 || now - state.idleSince < idleExpiryMillis) return state;
+                evictedGeneration.accumulateAndGet(state.generation, Math::max);
+                return null;
+            });
+        }
+    }
+
+    int trackedUsers() {
+        return users.size();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.todo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnResource;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import java.time.Duration;
+
+/**
+ * Serves the React build when it is bundled into the jar (mvn -Pfrontend package),
+ * so the UI and the API share one origin and mutations need no CORS preflight.
+ * Files under /static/ carry a content hash in their name and are cached for good;
+ * index.html and the other root files fall to Boot's default handler and are revalidated.
+ * todo.frontend.location points at the build (default classpath:/static/, where the
+ * frontend profile puts it).
+ */
+@Configuration
+@ConditionalOnResource(resources = "${todo.frontend.location:classpath:/static/}index.html")
+public class FrontendConfig implements WebMvcConfigurer {
+
+    static final Duration HASHED_ASSET_MAX_AGE = Duration.ofDays(365);
+
+    private final String location;
+
+    public FrontendConfig(@Value("${todo.frontend.location:classpath:/static/}") String location) {
+        this.location = location.endsWith("/") ? location : location + "/";
+    }
+
+    // .br/.gz siblings are written by the frontend build (npm run build:bundle)
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/static/**")
+                .addResourceLocations(location + "static/")
+                .setCacheControl(CacheControl.maxAge(HASHED_ASSET_MAX_AGE).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new PathResourceResolver());
+    }
+
+    // Client-side routes (/login, /signup, ...) get the app shell; React Router takes it from there
+    @Override
+    public void addViewControllers(ViewControllerRegistry registry) {
+        registry.addViewController("/{path:[^.]*}").setViewName("forward:/index.html");
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.todo.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // Replaces reflective getter/setter calls with generated lambdas for the types that
+    // still go through bean serialization (request bodies, stats, search hits).
+    // Spring Boot registers every Module bean with its ObjectMapper.
+    @Bean
+    @ConditionalOnProperty(name = "todo.jackson.blackbird", havingValue = "true", matchIfMissing = true)
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
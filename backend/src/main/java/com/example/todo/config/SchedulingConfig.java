@@ -0,0 +1,12 @@
+package com.example.todo.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// todo.scheduling.enabled=false stops every @Scheduled job, e.g. in tests that mock repositories
+@Configuration
+@ConditionalOnProperty(name = "todo.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,20 @@
+package com.example.todo.config;
+
+import com.example.todo.service.suggestion.KeywordTaskSuggestionService;
+import com.example.todo.service.suggestion.TaskSuggestionService;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+
+// An auto-configuration (see META-INF/spring/...AutoConfiguration.imports) rather than a
+// scanned @Configuration, so @ConditionalOnMissingBean is evaluated after the application's beans
+@AutoConfiguration
+public class SuggestionAutoConfiguration {
+
+    // Fallback model; any other TaskSuggestionService bean takes precedence
+    @Bean
+    @ConditionalOnMissingBean(TaskSuggestionService.class)
+    public TaskSuggestionService taskSuggestionService() {
+        return new KeywordTaskSuggestionService();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.todo.config;
+
+import com.example.todo.model.Task;
+import com.example.todo.model.User;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reachability hints for the native-image build.
+ * Task and User are bound by Jackson straight from request bodies, so their
+ * constructors, fields and accessors must stay reflectively accessible.
+ */
+public class TodoRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> type : new Class<?>[] { Task.class, User.class }) {
+            hints.reflection().registerType(type,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS,
+                    MemberCategory.DECLARED_FIELDS);
+        }
+    }
+}
@@ -1,10 +1,9 @@
 package com.example.todo.controller;
 
+import com.example.todo.dto.UserResponse;
 import com.example.todo.model.User;
 import com.example.todo.service.UserService;
 
-import java.util.Map;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -40,12 +39,7 @@ public class AuthController {
         if (foundUser != null && foundUser.getPassword().equals(user.getPassword())) {
             session.setAttribute("user", foundUser);
             // Return user info (not password)
-            return ResponseEntity.ok(Map.of(
-                "id", foundUser.getId(),
-                "firstName", foundUser.getFirstName(),
-                "lastName", foundUser.getLastName(),
-                "email", foundUser.getEmail()
-            ));
+            return ResponseEntity.ok(UserResponse.from(foundUser));
         } else {
             return ResponseEntity.status(401).body("Invalid credentials");
         }
@@ -58,12 +52,7 @@ public class AuthController {
         if (user == null) {
             return ResponseEntity.status(401).body("Not logged in");
         }
-        return ResponseEntity.ok(Map.of(
-            "id", user.getId(),
-            "firstName", user.getFirstName(),
-            "lastName", user.getLastName(),
-            "email", user.getEmail()
-        ));
+        return ResponseEntity.ok(UserResponse.from(user));
     }
 
     @PostMapping("/logout")
@@ -0,0 +1,59 @@
+package com.example.todo.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Response body that is held in memory up to a limit. A write that fails before then
+ * leaves the response uncommitted, so it can still become an error status. Past the
+ * limit the buffer is sent and the rest streamed; a failure from there on has to
+ * abort the response (see {@link TaskController#getAllTasks}).
+ */
+class BufferedResponseBody extends OutputStream {
+
+    private final HttpServletResponse response;
+    private final int limit;
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+    private OutputStream out;
+
+    BufferedResponseBody(HttpServletResponse response, int limit) {
+        this.response = response;
+        this.limit = limit;
+    }
+
+    /** True once the response is committed and the body is being streamed. */
+    boolean isStreaming() {
+        return out != null;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (out == null && buffer.size() + length > limit) {
+            out = response.getOutputStream();
+            buffer.writeTo(out);
+            buffer = null;
+        }
+        if (out != null) out.write(bytes, offset, length);
+        else buffer.write(bytes, offset, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out != null) out.flush();
+    }
+
+    /** Sends a body that stayed within the limit, with its length. */
+    void finish() throws IOException {
+        if (out != null) return;
+        response.setContentLength(buffer.size());
+        buffer.writeTo(response.getOutputStream());
+    }
+}
@@ -1,79 +1,379 @@
 package com.example.todo.controller;
 
+import com.example.todo.coalesce.SingleFlight;
+import com.example.todo.coalesce.UserMutationTracker;
+import com.example.todo.dto.SyncMutation;
+import com.example.todo.dto.SyncResult;
+import com.example.todo.dto.TaskResponse;
+import com.example.todo.dto.TaskResponseSerializer;
 import com.example.todo.model.Task;
 import com.example.todo.model.User;
-import com.example.todo.repository.TaskRepository;
+import com.example.todo.profiling.CacheLookupEvent;
+import com.example.todo.profiling.SerializationEvent;
+import com.example.todo.service.Recurrence;
+import com.example.todo.service.TaskService;
+import com.example.todo.service.activity.ActivityEntry;
+import com.example.todo.service.activity.ActivityJournal;
+import com.example.todo.service.dedup.DuplicateIndex;
+import com.example.todo.service.dedup.DuplicatePair;
+import com.example.todo.service.search.TaskSearchHit;
+import com.example.todo.service.search.TaskSearchIndex;
+import com.example.todo.service.stats.TaskStats;
+import com.example.todo.service.suggestion.TaskSuggestionQueue;
+import com.example.todo.service.sync.SyncService;
+import com.example.todo.service.tree.TaskProgress;
+import com.example.todo.service.tree.TaskTreeService;
+import com.example.todo.service.tree.TaskTreeWriter;
+import com.example.todo.service.writebehind.PendingUpdate;
+import com.example.todo.service.writebehind.WriteBehindQueue;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/tasks")
-@CrossOrigin(origins = "http://localhost:3000")
+@CrossOrigin(origins = "http://localhost:3000", exposedHeaders = "X-Duplicate-Of")
 public class TaskController {
 
-    private final TaskRepository repository;
+    private final TaskService taskService;
+    private final TaskSuggestionQueue suggestionQueue;
+    private final DuplicateIndex duplicateIndex;
+    private final WriteBehindQueue writeBehind;
+    private final TaskSearchIndex searchIndex;
+    private final SyncService syncService;
+    private final ActivityJournal activityJournal;
+    private final TaskTreeService taskTree;
+    private final JsonFactory jsonFactory;
+    private final UserMutationTracker mutations;
+    private final boolean coalesceListReads;
+    private final int listBufferBytes;
+    private final SingleFlight<ListKey, byte[]> listReads = new SingleFlight<>();
 
-    public TaskController(TaskRepository repository) {
-        this.repository = repository;
+    // A user's list as of a mutation generation; reads only share a flight within one generation
+    private record ListKey(Long userId, long generation) {}
+
+    public TaskController(TaskService taskService, TaskSuggestionQueue suggestionQueue,
+                          DuplicateIndex duplicateIndex, WriteBehindQueue writeBehind,
+                          TaskSearchIndex searchIndex,
+                          SyncService syncService, ActivityJournal activityJournal,
+                          TaskTreeService taskTree, ObjectMapper objectMapper, UserMutationTracker mutations,
+                          @Value("${todo.coalesce.list-reads:true}") boolean coalesceListReads,
+                          @Value("${todo.coalesce.list-buffer-bytes:1048576}") int listBufferBytes) {
+        this.taskService = taskService;
+        this.suggestionQueue = suggestionQueue;
+        this.duplicateIndex = duplicateIndex;
+        this.writeBehind = writeBehind;
+        this.searchIndex = searchIndex;
+        this.syncService = syncService;
+        this.activityJournal = activityJournal;
+        this.taskTree = taskTree;
+        this.jsonFactory = objectMapper.getFactory();
+        this.mutations = mutations;
+        this.coalesceListReads = coalesceListReads;
+        this.listBufferBytes = listBufferBytes;
     }
 
-    // GET all tasks
+    // GET all tasks. Concurrent reads for the same user (e.g. several tabs) share one query and
+    // one serialized body; while a mutation for the user is in progress the list is instead
+    // read row by row from the database cursor, buffered up to listBufferBytes and streamed
+    // to the response body past that.
     @GetMapping
-    public List<Task> getAllTasks(HttpSession session) {
+    public void getAllTasks(HttpSession session, HttpServletResponse response) throws IOException {
+        User user = (User) session.getAttribute("user");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (user == null || !coalesceListReads || mutations.isMutating(user.getId())) {
+            // A failure once the body is streaming propagates after the response is committed,
+            // so the container drops the connection rather than ending a truncated 200
+            BufferedResponseBody body = new BufferedResponseBody(response, listBufferBytes);
+            writeTaskList(user, body);
+            body.finish();
+            return;
+        }
+        boolean[] loaded = {false};
+        byte[] body = listReads.execute(new ListKey(user.getId(), mutations.generation(user.getId())), () -> {
+            loaded[0] = true;
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+            try {
+                writeTaskList(user, buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return buffer.toByteArray();
+        });
+        // A read that joined another one's flight is a hit
+        CacheLookupEvent.emit("task-list", !loaded[0]);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private void writeTaskList(User user, OutputStream out) throws IOException {
+        SerializationEvent event = new SerializationEvent("task-list");
+        event.begin();
+        // Not auto-closed: a list cut short by a failure must not be ended with a valid ']'
+        try (JsonGenerator json = jsonFactory.createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)) {
+            json.writeStartArray();
+            if (user != null) {
+                Map<Long, PendingUpdate> pending = writeBehind.isEnabled() ? writeBehind.pendingFor(user.getId()) : Map.of();
+                taskService.forEachByUser(user, task -> {
+                    PendingUpdate update = pending.get(task.id());
+                    try {
+                        TaskResponseSerializer.write(json, update == null ? task
+                                : task.withPending(update.getTitle(), update.getCompleted(), update.getPriority()));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    event.countTask();
+                });
+            }
+            json.writeEndArray();
+        }
+        event.commit();
+    }
+
+    // GET counts for the current user (total, completed, overdue, due today, per date)
+    @GetMapping("/stats")
+    public ResponseEntity<TaskStats> getStats(HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) return ResponseEntity.status(401).build();
+        return ResponseEntity.ok(taskService.stats(user));
+    }
+
+    // GET full-text search over the current user's tasks, archived ones included
+    @GetMapping("/search")
+    public List<TaskSearchHit> search(@RequestParam String q, @RequestParam(defaultValue = "20") int limit,
+                                      HttpSession session) {
         User user = (User) session.getAttribute("user");
         if (user == null) return List.of();
-        return repository.findByUserId(user.getId());
+        return searchIndex.search(user.getId(), q, Math.max(1, Math.min(limit, 100)));
+    }
+
+    // GET a task's change history, newest first, from the activity journal (also for soft-deleted tasks)
+    @GetMapping("/{id}/history")
+    public ResponseEntity<List<ActivityEntry>> history(@PathVariable Long id, @RequestParam(defaultValue = "50") int limit,
+                                                       HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) return ResponseEntity.status(401).build();
+        boolean owned = taskService.findById(id)
+                .filter(t -> t.getUser() != null && t.getUser().getId().equals(user.getId())).isPresent();
+        if (!owned) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(activityJournal.history(id, Math.max(1, Math.min(limit, 500))));
     }
 
-    // POST a new task
+    // GET a task with its subtasks nested as "children", at most depth levels down, streamed from one range scan
+    @GetMapping("/{id}/tree")
+    public void getTree(@PathVariable Long id, @RequestParam(required = false) Integer depth, HttpSession session,
+                        HttpServletResponse response) throws IOException {
+        User user = (User) session.getAttribute("user");
+        if (user == null) {
+            response.setStatus(401);
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        SerializationEvent event = new SerializationEvent("task-tree");
+        event.begin();
+        try (JsonGenerator json = jsonFactory.createGenerator(response.getOutputStream())) {
+            TaskTreeWriter tree = new TaskTreeWriter(json);
+            if (!taskTree.forEachInSubtree(id, user, depth, tree.andThen(task -> event.countTask()))) {
+                response.setStatus(404);
+                return;
+            }
+            tree.finish();
+        }
+        event.commit();
+    }
+
+    // GET the completion roll-up of a task's subtasks at any depth
+    @GetMapping("/{id}/progress")
+    public ResponseEntity<TaskProgress> getProgress(@PathVariable Long id, HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) return ResponseEntity.status(401).build();
+        return taskTree.progress(id, user).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // GET near-duplicate pairs among the current user's tasks
+    @GetMapping("/duplicates")
+    public List<DuplicatePair> getDuplicates(HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) return List.of();
+        return duplicateIndex.duplicates(user.getId());
+    }
+
+    // POST a new task; X-Duplicate-Of lists existing near-identical tasks as a warning
     @PostMapping
-    public Task createTask(@RequestBody Task task, HttpSession session) {
+    public ResponseEntity<TaskResponse> createTask(@RequestBody Task task, HttpSession session) {
         User user = (User) session.getAttribute("user");
         if (user == null) throw new RuntimeException("Not logged in");
-        task.setUser(user);
-        return repository.save(task);
+        if (!Recurrence.isValid(task.getRecurrence())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid recurrence rule");
+        }
+        List<Long> similar = duplicateIndex.findSimilar(user.getId(), task.getTitle(), null);
+        Task savedTask = taskService.create(task, user);
+        // Suggestions are applied asynchronously after the transaction has committed
+        suggestionQueue.enqueue(savedTask);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!similar.isEmpty()) {
+            response.header("X-Duplicate-Of", similar.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        }
+        return response.body(TaskResponse.from(savedTask));
     }
 
-    // DELETE a task by ID
+    // POST a new subtask under an existing task
+    @PostMapping("/{id}/subtasks")
+    public ResponseEntity<TaskResponse> createSubtask(@PathVariable Long id, @RequestBody Task task, HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) return ResponseEntity.status(401).build();
+        if (!Recurrence.isValid(task.getRecurrence())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid recurrence rule");
+        }
+        Optional<Task> created;
+        try {
+            created = taskTree.createSubtask(id, task, user);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        created.ifPresent(suggestionQueue::enqueue);
+        return created.map(savedTask -> ResponseEntity.ok(TaskResponse.from(savedTask)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // POST a batch of queued offline mutations, applied in order in one transaction.
+    // Keys that were applied before are answered from their receipts; 409 while a retry races the original.
+    @PostMapping("/sync")
+    public ResponseEntity<List<SyncResult>> sync(@RequestBody List<SyncMutation> mutations, HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) return ResponseEntity.status(401).build();
+        if (mutations.size() > syncService.maxBatchSize()) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "At most " + syncService.maxBatchSize() + " mutations per batch");
+        }
+        for (SyncMutation mutation : mutations) {
+            String key = mutation.idempotencyKey();
+            if (mutation.op() == null || key == null || key.isBlank() || key.length() > 64 || mutation.queuedAt() == null
+                    || (mutation.clientId() != null && mutation.clientId().length() > 64)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Each mutation needs an op, an idempotency key and queuedAt");
+            }
+        }
+        SyncService.SyncBatch batch;
+        try {
+            batch = syncService.apply(user, mutations);
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        batch.created().forEach(suggestionQueue::enqueue);
+        return ResponseEntity.ok(batch.results());
+    }
+
+    // DELETE a task by ID (soft delete, can be undone with /restore)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTask(@PathVariable Long id) {
-        if (repository.existsById(id)) {
-            repository.deleteById(id);
+        if (taskService.delete(id)) {
             return ResponseEntity.noContent().build(); // 204 No Content
         }
         return ResponseEntity.notFound().build(); // 404 Not Found
     }
 
-    // PUT (update) a task by ID
+    // Undo a delete
+    @PostMapping("/{id}/restore")
+    public ResponseEntity<Void> restoreTask(@PathVariable Long id) {
+        if (taskService.restore(id)) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    // DELETE all completed tasks of the current user in one statement
+    @DeleteMapping("/completed")
+    public ResponseEntity<?> clearCompleted(HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) return ResponseEntity.status(401).body("Not logged in");
+        TaskService.ClearResult result = taskService.clearCompleted(user);
+        return ResponseEntity.ok(Map.of(
+            "deleted", result.deleted(),
+            "deletedAt", result.deletedAt().toString()
+        ));
+    }
+
+    // Undo a clear-completed, identified by the deletedAt it returned
+    @PostMapping("/completed/restore")
+    public ResponseEntity<?> undoClearCompleted(@RequestParam LocalDateTime deletedAt, HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) return ResponseEntity.status(401).body("Not logged in");
+        int restored = taskService.undoClearCompleted(user, deletedAt);
+        return ResponseEntity.ok(Map.of("restored", restored));
+    }
+
+    // PUT (update) a task by ID; 202 Accepted when queued in write-behind mode
     @PutMapping("/{id}")
-    public ResponseEntity<Task> updateTask(@PathVariable Long id, @RequestBody Task updatedTask) {
-        Optional<Task> optionalTask = repository.findById(id);
+    public ResponseEntity<TaskResponse> updateTask(@PathVariable Long id, @RequestBody Task updatedTask, HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (writeBehind.isEnabled() && user != null) {
+            writeBehind.submit(new PendingUpdate(id, user.getId(), updatedTask.getTitle(), updatedTask.isCompleted(), null));
+            updatedTask.setId(id);
+            updatedTask.setUser(user);
+            return ResponseEntity.accepted().body(TaskResponse.from(updatedTask));
+        }
+        return taskService.update(id, updatedTask)
+                .map(savedTask -> ResponseEntity.ok(TaskResponse.from(savedTask)))
+                .orElseGet(() -> ResponseEntity.notFound().build()); // 404 Not Found
+    }
+
+    // Move a task right after another one (to the top when "after" is omitted); updates one row
+    @PostMapping("/{id}/move")
+    public ResponseEntity<TaskResponse> moveTask(@PathVariable Long id, @RequestParam(required = false) Long after,
+                                         HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) return ResponseEntity.status(401).build();
+        return taskService.move(id, after, user)
+                .map(task -> ResponseEntity.ok(TaskResponse.from(task)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
 
-        if (optionalTask.isPresent()) {
-            Task existingTask = optionalTask.get();
-            existingTask.setTitle(updatedTask.getTitle());
-            existingTask.setCompleted(updatedTask.isCompleted());
-            Task savedTask = repository.save(existingTask);
-            return ResponseEntity.ok(savedTask);
-        } else {
-            return ResponseEntity.notFound().build(); // 404 Not Found
+    // Move a task and its subtasks under another task (to the top level when "parent" is omitted)
+    @PostMapping("/{id}/reparent")
+    public ResponseEntity<TaskResponse> reparentTask(@PathVariable Long id, @RequestParam(required = false) Long parent,
+                                                     HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) return ResponseEntity.status(401).build();
+        try {
+            return taskTree.reparent(id, parent, user)
+                    .map(task -> ResponseEntity.ok(TaskResponse.from(task)))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
     }
 
-    // After login, store user info
+    // Reorder runs as a single transaction (or is queued in write-behind mode)
     @PostMapping("/reorder")
-    public ResponseEntity<?> reorderTasks(@RequestBody List<Task> tasks) {
-        for (Task t : tasks) {
-            Task existing = repository.findById(t.getId()).orElse(null);
-            if (existing != null) {
-                existing.setPriority(t.getPriority());
-                repository.save(existing);
-            }
+    public ResponseEntity<?> reorderTasks(@RequestBody List<Task> tasks, HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (writeBehind.isEnabled() && user != null) {
+            writeBehind.submitAll(tasks.stream()
+                    .map(t -> new PendingUpdate(t.getId(), user.getId(), null, null, t.getPriority()))
+                    .toList());
+            return ResponseEntity.accepted().build();
         }
+        taskService.reorder(tasks);
         return ResponseEntity.ok().build();
     }
 }
@@ -0,0 +1,19 @@
+package com.example.todo.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * One client-side change in a POST /api/tasks/sync batch. The idempotency key is
+ * generated by the client once per change and reused on every retry. A task the
+ * client created offline is addressed by its client id until the server id is known.
+ * Updates change title and completed, as PUT does; fields left null keep their value.
+ * queuedAt is when the change was made on the client; receipts only live for
+ * todo.sync.receipt-retention, so older changes are rejected rather than applied twice.
+ */
+public record SyncMutation(String idempotencyKey, Op op, String clientId, Long id,
+                           String title, Boolean completed, Integer priority, LocalDate date,
+                           Instant queuedAt) {
+
+    public enum Op { CREATE, UPDATE, DELETE }
+}
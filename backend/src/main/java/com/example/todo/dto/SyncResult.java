@@ -0,0 +1,12 @@
+package com.example.todo.dto;
+
+/**
+ * Outcome of one {@link SyncMutation}, in request order. The task is its state after the
+ * whole batch (null once deleted), so the client can replace its optimistic copy.
+ * A retried mutation gets the status recorded when it was first applied. EXPIRED means the
+ * mutation was queued longer ago than receipts are kept, so it was not applied.
+ */
+public record SyncResult(String idempotencyKey, String clientId, Status status, TaskResponse task) {
+
+    public enum Status { APPLIED, NOT_FOUND, INVALID, EXPIRED }
+}
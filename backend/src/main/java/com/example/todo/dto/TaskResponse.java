@@ -0,0 +1,34 @@
+package com.example.todo.dto;
+
+import com.example.todo.model.Task;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Task as returned by the API. Carries the owner's id instead of the User
+ * entity, and is written by {@link TaskResponseSerializer} without reflection.
+ * The list query selects straight into this record, so list reads never
+ * build managed entities.
+ */
+@JsonSerialize(using = TaskResponseSerializer.class)
+public record TaskResponse(Long id, String title, boolean completed, int priority, LocalDate date, String rank,
+                           String recurrence, LocalDateTime remindAt, LocalDateTime completedAt,
+                           String category, Integer suggestedPriority, Long duplicateOfId, Long parentId,
+                           Long userId) {
+
+    public static TaskResponse from(Task task) {
+        return new TaskResponse(task.getId(), task.getTitle(), task.isCompleted(), task.getPriority(), task.getDate(),
+                task.getRank(), task.getRecurrence(), task.getRemindAt(), task.getCompletedAt(), task.getCategory(),
+                task.getSuggestedPriority(), task.getDuplicateOfId(), task.getParentId(),
+                task.getUser() != null ? task.getUser().getId() : null);
+    }
+
+    // Copy with not-yet-flushed write-behind fields applied; null arguments keep the current value
+    public TaskResponse withPending(String title, Boolean completed, Integer priority) {
+        return new TaskResponse(id, title != null ? title : this.title, completed != null ? completed : this.completed,
+                priority != null ? priority : this.priority, date, rank, recurrence, remindAt, completedAt,
+                category, suggestedPriority, duplicateOfId, parentId, userId);
+    }
+}
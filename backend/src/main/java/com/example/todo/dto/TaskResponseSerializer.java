@@ -0,0 +1,98 @@
+package com.example.todo.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Hand-written serializer for the task hot path. Field names are pre-encoded,
+ * and dates use the same ISO formats as the default Jackson configuration, so
+ * the output is identical to what the reflective serializer produced.
+ */
+public class TaskResponseSerializer extends StdSerializer<TaskResponse> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString TITLE = new SerializedString("title");
+    private static final SerializedString COMPLETED = new SerializedString("completed");
+    private static final SerializedString PRIORITY = new SerializedString("priority");
+    private static final SerializedString DATE = new SerializedString("date");
+    private static final SerializedString RANK = new SerializedString("rank");
+    private static final SerializedString RECURRENCE = new SerializedString("recurrence");
+    private static final SerializedString REMIND_AT = new SerializedString("remindAt");
+    private static final SerializedString COMPLETED_AT = new SerializedString("completedAt");
+    private static final SerializedString CATEGORY = new SerializedString("category");
+    private static final SerializedString SUGGESTED_PRIORITY = new SerializedString("suggestedPriority");
+    private static final SerializedString DUPLICATE_OF_ID = new SerializedString("duplicateOfId");
+    private static final SerializedString PARENT_ID = new SerializedString("parentId");
+    private static final SerializedString USER_ID = new SerializedString("userId");
+
+    public TaskResponseSerializer() {
+        super(TaskResponse.class);
+    }
+
+    @Override
+    public void serialize(TaskResponse task, JsonGenerator json, SerializerProvider provider) throws IOException {
+        write(json, task);
+    }
+
+    /** Writes one task object; used directly by the streaming list endpoint. */
+    public static void write(JsonGenerator json, TaskResponse task) throws IOException {
+        json.writeStartObject();
+        writeFields(json, task);
+        json.writeEndObject();
+    }
+
+    /** Writes the task's fields into an object the caller has opened, e.g. one that also holds children. */
+    public static void writeFields(JsonGenerator json, TaskResponse task) throws IOException {
+        json.writeFieldName(ID);
+        writeNumber(json, task.id());
+        json.writeFieldName(TITLE);
+        json.writeString(task.title());
+        json.writeFieldName(COMPLETED);
+        json.writeBoolean(task.completed());
+        json.writeFieldName(PRIORITY);
+        json.writeNumber(task.priority());
+        json.writeFieldName(DATE);
+        writeDate(json, task.date());
+        json.writeFieldName(RANK);
+        json.writeString(task.rank());
+        json.writeFieldName(RECURRENCE);
+        json.writeString(task.recurrence());
+        json.writeFieldName(REMIND_AT);
+        writeDateTime(json, task.remindAt());
+        json.writeFieldName(COMPLETED_AT);
+        writeDateTime(json, task.completedAt());
+        json.writeFieldName(CATEGORY);
+        json.writeString(task.category());
+        json.writeFieldName(SUGGESTED_PRIORITY);
+        if (task.suggestedPriority() == null) json.writeNull();
+        else json.writeNumber(task.suggestedPriority());
+        json.writeFieldName(DUPLICATE_OF_ID);
+        writeNumber(json, task.duplicateOfId());
+        json.writeFieldName(PARENT_ID);
+        writeNumber(json, task.parentId());
+        json.writeFieldName(USER_ID);
+        writeNumber(json, task.userId());
+    }
+
+    private static void writeNumber(JsonGenerator json, Long value) throws IOException {
+        if (value == null) json.writeNull();
+        else json.writeNumber(value);
+    }
+
+    private static void writeDate(JsonGenerator json, LocalDate value) throws IOException {
+        if (value == null) json.writeNull();
+        else json.writeString(value.toString());
+    }
+
+    private static void writeDateTime(JsonGenerator json, LocalDateTime value) throws IOException {
+        if (value == null) json.writeNull();
+        else json.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+    }
+}
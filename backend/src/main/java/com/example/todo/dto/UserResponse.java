@@ -0,0 +1,13 @@
+package com.example.todo.dto;
+
+import com.example.todo.model.User;
+
+/**
+ * Public view of a user; never includes the password or date of birth.
+ */
+public record UserResponse(Long id, String firstName, String lastName, String email) {
+
+    public static UserResponse from(User user) {
+        return new UserResponse(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail());
+    }
+}
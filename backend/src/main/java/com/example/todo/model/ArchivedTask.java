@@ -0,0 +1,72 @@
+package com.example.todo.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+
+/**
+ * Cold copy of a task moved out of the hot task table by the purger.
+ * Keeps the original id so archived rows can be traced back.
+ */
+@Entity
+@Table(name = "task_archive", indexes = @Index(name = "idx_task_archive_user", columnList = "user_id"))
+public class ArchivedTask {
+    @Id
+    private Long id;
+    private String title;
+    private boolean completed;
+    private int priority;
+    private LocalDate date;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    public ArchivedTask() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
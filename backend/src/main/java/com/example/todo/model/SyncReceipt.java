@@ -0,0 +1,83 @@
+package com.example.todo.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+
+/**
+ * Records that a client mutation sent to /api/tasks/sync was applied, keyed by the
+ * client's idempotency key, so a batch that is retried after a lost response is not
+ * applied twice. Creates also keep the client id, which later batches may use to
+ * refer to the task before the client has learned its server id.
+ */
+@Entity
+@Table(name = "sync_receipt",
+        uniqueConstraints = @UniqueConstraint(name = "uk_sync_receipt_key", columnNames = {"user_id", "idempotency_key"}),
+        indexes = {
+                @Index(name = "idx_sync_receipt_client", columnList = "user_id, client_id"),
+                @Index(name = "idx_sync_receipt_applied", columnList = "user_id, applied_at")
+        })
+public class SyncReceipt {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "idempotency_key", nullable = false, length = 64)
+    private String idempotencyKey;
+
+    @Column(name = "client_id", length = 64)
+    private String clientId;
+
+    @Column(name = "task_id")
+    private Long taskId;
+
+    @Column(nullable = false, length = 16)
+    private String status;
+
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+
+    public SyncReceipt() {
+    }
+
+    public SyncReceipt(Long userId, String idempotencyKey, String clientId, Long taskId, String status,
+                       LocalDateTime appliedAt) {
+        this.userId = userId;
+        this.idempotencyKey = idempotencyKey;
+        this.clientId = clientId;
+        this.taskId = taskId;
+        this.status = status;
+        this.appliedAt = appliedAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getAppliedAt() {
+        return appliedAt;
+    }
+}
@@ -1,10 +1,19 @@
 package com.example.todo.model;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_task_reminder_pending", columnList = "reminder_sent, completed, deleted_at, remind_at"),
+        @Index(name = "idx_task_user_deleted", columnList = "user_id, deleted_at, sort_rank"),
+        @Index(name = "idx_task_deleted_at", columnList = "deleted_at"),
+        @Index(name = "idx_task_completed_at", columnList = "completed_at"),
+        @Index(name = "idx_task_user_tree_path", columnList = "user_id, tree_path")
+})
 public class Task {
     @Id
     @GeneratedValue
@@ -13,6 +22,58 @@ public class Task {
     private boolean completed;
     private int priority;
     private LocalDate date; 
+
+    // LexoRank ordering key; a move rewrites only this column of one row.
+    // This and the other server-managed fields below are ignored in request bodies.
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "sort_rank")
+    private String rank;
+
+    // DAILY, WEEKLY, MONTHLY or a Spring cron expression; null for one-off tasks
+    private String recurrence;
+
+    @Column(name = "remind_at")
+    private LocalDateTime remindAt;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "reminder_sent")
+    private boolean reminderSent;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    // Soft delete marker; null while the task is live
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    // Filled in asynchronously by TaskSuggestionQueue after creation; ignored in request bodies
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String category;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "suggested_priority")
+    private Integer suggestedPriority;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "duplicate_of_id")
+    private Long duplicateOfId;
+
+    // Subtask hierarchy. tree_path is the materialized path of ancestor ids plus this id (see TaskPath),
+    // so a subtree is one prefix range of idx_task_user_tree_path; null on tasks created before subtasks
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "parent_id")
+    private Long parentId;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "tree_path", length = 512)
+    private String path;
+
+    // Defaulted so ddl-auto can add the column to a table that already has rows
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int depth;
     
     public LocalDate getDate() {
         return date;
@@ -75,6 +136,102 @@ public class Task {
         this.priority = priority;
     }
 
+    public String getRank() {
+        return rank;
+    }
+
+    public void setRank(String rank) {
+        this.rank = rank;
+    }
+
+    public String getRecurrence() {
+        return recurrence;
+    }
+
+    public void setRecurrence(String recurrence) {
+        this.recurrence = recurrence;
+    }
+
+    public LocalDateTime getRemindAt() {
+        return remindAt;
+    }
+
+    public void setRemindAt(LocalDateTime remindAt) {
+        this.remindAt = remindAt;
+    }
+
+    public boolean isReminderSent() {
+        return reminderSent;
+    }
+
+    public void setReminderSent(boolean reminderSent) {
+        this.reminderSent = reminderSent;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public Integer getSuggestedPriority() {
+        return suggestedPriority;
+    }
+
+    public void setSuggestedPriority(Integer suggestedPriority) {
+        this.suggestedPriority = suggestedPriority;
+    }
+
+    public Long getDuplicateOfId() {
+        return duplicateOfId;
+    }
+
+    public void setDuplicateOfId(Long duplicateOfId) {
+        this.duplicateOfId = duplicateOfId;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Long parentId) {
+        this.parentId = parentId;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
 
    
 }
\ No newline at end of file
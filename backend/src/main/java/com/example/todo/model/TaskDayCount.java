@@ -0,0 +1,80 @@
+package com.example.todo.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+import jakarta.persistence.*;
+
+/**
+ * Materialized per-user, per-date counters of live tasks, kept in step with the
+ * task table by TaskCounters. Undated tasks are counted under {@link #UNDATED}
+ * so the key never contains a null.
+ */
+@Entity
+@Table(name = "task_day_count")
+@IdClass(TaskDayCount.Key.class)
+public class TaskDayCount {
+
+    public static final LocalDate UNDATED = LocalDate.of(9999, 12, 31);
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "task_date")
+    private LocalDate day;
+
+    private long total;
+    private long completed;
+
+    public TaskDayCount() {
+    }
+
+    public TaskDayCount(Long userId, LocalDate day, long total, long completed) {
+        this.userId = userId;
+        this.day = day;
+        this.total = total;
+        this.completed = completed;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public static class Key implements Serializable {
+        private Long userId;
+        private LocalDate day;
+
+        public Key() {
+        }
+
+        public Key(Long userId, LocalDate day) {
+            this.userId = userId;
+            this.day = day;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && Objects.equals(userId, k.userId) && Objects.equals(day, k.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, day);
+        }
+    }
+}
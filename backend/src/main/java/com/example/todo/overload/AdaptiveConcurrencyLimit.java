@@ -0,0 +1,110 @@
+package com.example.todo.overload;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency-based concurrency limit (gradient with an AIMD backoff), in the spirit of
+ * TCP Vegas: completed requests are sampled in windows, and the window's average
+ * latency is compared with a slow-moving long-term average. While latency stays
+ * within the tolerance the limit grows by about its square root per window; once
+ * requests start to queue (latency above tolerance) it shrinks in proportion to the
+ * slowdown, and a window containing failed requests cuts it multiplicatively.
+ * A window in which less than half the limit was used says nothing about capacity
+ * and leaves the limit alone.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double LONG_RTT_SMOOTHING = 0.01;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int windowSize;
+    private final double tolerance;
+    private final double smoothing;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<RequestPriority, AtomicLong> shed = new EnumMap<>(RequestPriority.class);
+    private volatile double limit;
+
+    // Sampling window and long-term latency, guarded by this
+    private long windowRttSum;
+    private int windowCount;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, int windowSize,
+                                    double tolerance, double smoothing) {
+        if (minLimit < 1 || minLimit > maxLimit) throw new IllegalArgumentException("Invalid limit bounds");
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowSize = Math.max(1, windowSize);
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        for (RequestPriority priority : RequestPriority.values()) shed.put(priority, new AtomicLong());
+    }
+
+    /** Takes a slot if the priority's share of the limit is not used up; never waits. */
+    public boolean tryAcquire(RequestPriority priority) {
+        int allowed = Math.max(1, (int) (limit * priority.share()));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                shed.get(priority).incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    /** Frees the slot and samples the request; dropped marks a failure (e.g. a pool timeout). */
+    public void release(long rttNanos, boolean dropped) {
+        int before = inFlight.getAndDecrement();
+        sample(rttNanos, before, dropped);
+    }
+
+    private synchronized void sample(long rttNanos, int inFlightBefore, boolean dropped) {
+        windowRttSum += rttNanos;
+        windowCount++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightBefore);
+        windowDropped |= dropped;
+        if (windowCount < windowSize) return;
+
+        double shortRtt = (double) windowRttSum / windowCount;
+        double current = limit;
+        double next = current;
+        if (windowDropped) {
+            next = current * BACKOFF_RATIO;
+        } else {
+            longRtt = longRtt == 0 ? shortRtt : longRtt * (1 - LONG_RTT_SMOOTHING) + shortRtt * LONG_RTT_SMOOTHING;
+            // Let the baseline catch up quickly once a latency spike is over
+            if (longRtt > shortRtt * 2) longRtt = shortRtt * 2;
+            if (windowMaxInFlight * 2 >= current) {
+                double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+                double target = current * gradient + Math.sqrt(current);
+                next = current * (1 - smoothing) + target * smoothing;
+            }
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+        windowRttSum = 0;
+        windowCount = 0;
+        windowMaxInFlight = 0;
+        windowDropped = false;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getShedCount(RequestPriority priority) {
+        return shed.get(priority).get();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.todo.overload;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wiring for API load shedding. The limit is exported as todo.overload.limit,
+ * todo.overload.in-flight and todo.overload.shed (tagged by priority) under
+ * /actuator/metrics.
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.overload.enabled", havingValue = "true", matchIfMissing = true)
+public class OverloadConfig {
+
+    @Bean
+    AdaptiveConcurrencyLimit adaptiveConcurrencyLimit(@Value("${todo.overload.initial-limit:20}") int initialLimit,
+                                                      @Value("${todo.overload.min-limit:4}") int minLimit,
+                                                      @Value("${todo.overload.max-limit:200}") int maxLimit,
+                                                      @Value("${todo.overload.window-size:20}") int windowSize,
+                                                      @Value("${todo.overload.tolerance:1.5}") double tolerance,
+                                                      @Value("${todo.overload.smoothing:0.2}") double smoothing) {
+        return new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, windowSize, tolerance, smoothing);
+    }
+
+    // Ahead of the security filter chain
+    @Bean
+    FilterRegistrationBean<LoadSheddingFilter> loadSheddingFilter(AdaptiveConcurrencyLimit limit) {
+        FilterRegistrationBean<LoadSheddingFilter> registration = new FilterRegistrationBean<>(new LoadSheddingFilter(limit));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 10);
+        return registration;
+    }
+
+    @Bean
+    MeterBinder overloadMetrics(AdaptiveConcurrencyLimit limit) {
+        return registry -> {
+            Gauge.builder("todo.overload.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                    .description("Current adaptive concurrency limit for /api requests")
+                    .register(registry);
+            Gauge.builder("todo.overload.in-flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .register(registry);
+            for (RequestPriority priority : RequestPriority.values()) {
+                FunctionCounter.builder("todo.overload.shed", limit, l -> l.getShedCount(priority))
+                        .description("Requests rejected with 503 by the concurrency limit")
+                        .tag("priority", priority.name().toLowerCase())
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.todo.overload;
+
+/**
+ * Admission classes for API requests. Each class may only fill its share of the
+ * concurrency limit, so as the limit shrinks bulk work is shed first and logins
+ * and logouts last.
+ */
+public enum RequestPriority {
+    AUTH(1.0),
+    READ(0.9),
+    WRITE(0.75),
+    BULK(0.5);
+
+    private final double share;
+
+    RequestPriority(double share) {
+        this.share = share;
+    }
+
+    public double share() {
+        return share;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.todo.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.todo.CacheLookup")
+@Label("Cache Lookup")
+@Description("A lookup in an in-process cache, or a read that joined a shared in-flight load")
+@Category({"Todo", "Cache"})
+@StackTrace(false)
+public class CacheLookupEvent extends Event {
+
+    @Label("Cache")
+    private String cache;
+
+    @Label("Hit")
+    private boolean hit;
+
+    public static void emit(String cache, boolean hit) {
+        CacheLookupEvent event = new CacheLookupEvent();
+        if (!event.shouldCommit()) return;
+        event.cache = cache;
+        event.hit = hit;
+        event.commit();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.todo.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for bounded, on-demand Java Flight Recorder recordings.
+ * POST /actuator/jfr with {"seconds": 60, "settings": "profile"} starts one (at most one at a time,
+ * capped by the configured duration and size), DELETE /actuator/jfr stops it early,
+ * GET /actuator/jfr shows its state and GET /actuator/jfr/recording.jfr downloads the
+ * finished file. Recordings include the application's com.example.todo.* events.
+ */
+@WebEndpoint(id = "jfr")
+public class JfrEndpoint {
+
+    static final String FILE_NAME = "recording.jfr";
+    private static final String OCTET_STREAM = "application/octet-stream";
+    private static final int CONFLICT = 409;
+
+    private final Path dir;
+    private final Duration maxDuration;
+    private final long maxSizeBytes;
+    private Recording recording; // guarded by this
+
+    public JfrEndpoint(Path dir, Duration maxDuration, long maxSizeBytes) {
+        this.dir = dir;
+        this.maxDuration = maxDuration;
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", recording != null ? recording.getState().name() : "NONE");
+        if (recording != null) {
+            status.put("startTime", recording.getStartTime());
+            status.put("duration", recording.getDuration());
+            status.put("settings", recording.getName());
+        }
+        Path file = file();
+        status.put("file", Files.exists(file) && !isRunning() ? FILE_NAME : null);
+        return status;
+    }
+
+    /** 409 while another recording runs, 400 for unknown settings ("default" and "profile" ship with the JDK). */
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> start(@Nullable Long seconds, @Nullable String settings) {
+        if (isRunning()) return new WebEndpointResponse<>(status(), CONFLICT);
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings != null ? settings : "default");
+        } catch (IOException | ParseException e) {
+            return new WebEndpointResponse<>(Map.of("error", "Unknown settings: " + settings),
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        Duration duration = seconds == null || seconds <= 0 ? maxDuration
+                : Duration.ofSeconds(Math.min(seconds, maxDuration.toSeconds()));
+        if (recording != null) recording.close();
+        try {
+            Files.createDirectories(dir);
+            Files.deleteIfExists(file());
+            recording = new Recording(configuration);
+            recording.setName(configuration.getName());
+            recording.setDuration(duration);
+            recording.setMaxSize(maxSizeBytes);
+            recording.setToDisk(true);
+            // Written when the recording stops, also when it runs out of time on its own
+            recording.setDestination(file());
+            recording.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new WebEndpointResponse<>(status(), WebEndpointResponse.STATUS_OK);
+    }
+
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        if (isRunning()) recording.stop();
+        return status();
+    }
+
+    @ReadOperation(produces = OCTET_STREAM)
+    public synchronized WebEndpointResponse<Resource> download(@Selector String name) {
+        Path file = file();
+        if (!FILE_NAME.equals(name) || !Files.exists(file)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (isRunning()) return new WebEndpointResponse<>(CONFLICT);
+        return new WebEndpointResponse<>(new FileSystemResource(file), WebEndpointResponse.STATUS_OK);
+    }
+
+    private boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    private Path file() {
+        return dir.resolve(FILE_NAME);
+    }
+}
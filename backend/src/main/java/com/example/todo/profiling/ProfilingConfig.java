@@ -0,0 +1,43 @@
+package com.example.todo.profiling;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Wiring for the custom JFR events and the on-demand recording endpoint.
+ * Request events come from {@link ProfilingWebConfig} and SQL events from
+ * {@link SqlEventDataSource}; cache and serialization events are emitted where
+ * the work happens.
+ */
+@Configuration
+public class ProfilingConfig {
+
+    // Routing DataSources are left alone; the shards they route to are wrapped by ShardingConfig
+    @Bean
+    static BeanPostProcessor sqlEventDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof AbstractRoutingDataSource)
+                        && !(bean instanceof SqlEventDataSource)) {
+                    return new SqlEventDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    JfrEndpoint jfrEndpoint(@Value("${todo.profiling.dir:./data/jfr}") Path dir,
+                            @Value("${todo.profiling.max-duration:PT10M}") Duration maxDuration,
+                            @Value("${todo.profiling.max-size-bytes:104857600}") long maxSizeBytes) {
+        return new JfrEndpoint(dir, maxDuration, maxSizeBytes);
+    }
+}
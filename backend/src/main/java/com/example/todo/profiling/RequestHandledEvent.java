@@ -0,0 +1,43 @@
+package com.example.todo.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.todo.RequestHandled")
+@Label("Request Handled")
+@Description("An /api request, from handler lookup until the response is complete")
+@Category({"Todo", "HTTP"})
+@StackTrace(false)
+public class RequestHandledEvent extends Event {
+
+    @Label("Method")
+    private String method;
+
+    @Label("Route")
+    private String route;
+
+    @Label("Handler")
+    private String handler;
+
+    @Label("Status")
+    private int status;
+
+    @Label("Failed")
+    private boolean failed;
+
+    /** Ends the event and commits it if a recording wants it. */
+    public void complete(String method, String route, String handler, int status, boolean failed) {
+        end();
+        if (!shouldCommit()) return;
+        this.method = method;
+        this.route = route;
+        this.handler = handler;
+        this.status = status;
+        this.failed = failed;
+        commit();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.todo.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.todo.Serialization")
+@Label("Serialization")
+@Description("Writing a task payload as JSON; streamed payloads include reading the rows from the cursor")
+@Category({"Todo", "HTTP"})
+@StackTrace(false)
+public class SerializationEvent extends Event {
+
+    @Label("Payload")
+    private String payload;
+
+    @Label("Tasks")
+    private int tasks;
+
+    public SerializationEvent(String payload) {
+        this.payload = payload;
+    }
+
+    public void countTask() {
+        tasks++;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.todo.profiling;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource wrapper that emits a {@link SqlExecutedEvent} per executed statement.
+ * A query's event stays open until its result set is closed, so streamed results
+ * are timed and counted up to the last row read. Connections are handed out
+ * unwrapped while no recording has the event enabled.
+ */
+public class SqlEventDataSource extends DelegatingDataSource {
+
+    public SqlEventDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return instrument(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return instrument(super.getConnection(username, password));
+    }
+
+    private static Connection instrument(Connection connection) {
+        if (!new SqlExecutedEvent().isEnabled()) return connection;
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof Statement statement && method.getReturnType().isInstance(statement)) {
+                String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                return proxy(method.getReturnType(), statement, new StatementHandler(statement, sql));
+            }
+            return result;
+        });
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final String preparedSql;
+        private SqlExecutedEvent event;
+        private String sql;
+        private long rows;
+
+        StatementHandler(Statement statement, String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch", "execute" -> {
+                    return execute(method, args);
+                }
+                case "getResultSet" -> {
+                    Object result = SqlEventDataSource.invoke(statement, method, args);
+                    return result instanceof ResultSet resultSet && event != null ? track(resultSet) : result;
+                }
+                case "close" -> {
+                    finish(event, false);
+                    return SqlEventDataSource.invoke(statement, method, args);
+                }
+                default -> {
+                    return SqlEventDataSource.invoke(statement, method, args);
+                }
+            }
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            finish(event, false);
+            event = new SqlExecutedEvent();
+            event.begin();
+            sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            rows = 0;
+            Object result;
+            try {
+                result = SqlEventDataSource.invoke(statement, method, args);
+            } catch (Throwable e) {
+                finish(event, true);
+                throw e;
+            }
+            if (result instanceof ResultSet resultSet) return track(resultSet);
+            if (result instanceof Boolean hasResultSet) {
+                if (!hasResultSet) {
+                    rows = Math.max(statement.getUpdateCount(), 0);
+                    finish(event, false);
+                }
+            } else {
+                if (result instanceof Number count) rows = count.longValue();
+                else if (result instanceof int[] counts) for (int count : counts) rows += Math.max(count, 0);
+                else if (result instanceof long[] counts) for (long count : counts) rows += Math.max(count, 0);
+                finish(event, false);
+            }
+            return result;
+        }
+
+        private ResultSet track(ResultSet resultSet) {
+            SqlExecutedEvent owner = event;
+            return proxy(ResultSet.class, resultSet, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "next" -> {
+                        Object result = SqlEventDataSource.invoke(resultSet, method, args);
+                        if (Boolean.TRUE.equals(result) && owner == event) rows++;
+                        return result;
+                    }
+                    case "close" -> {
+                        try {
+                            return SqlEventDataSource.invoke(resultSet, method, args);
+                        } finally {
+                            finish(owner, false);
+                        }
+                    }
+                    default -> {
+                        return SqlEventDataSource.invoke(resultSet, method, args);
+                    }
+                }
+            });
+        }
+
+        private void finish(SqlExecutedEvent finished, boolean failed) {
+            if (finished == null || finished != event) return;
+            event = null;
+            finished.complete(sql, failed ? 0 : rows, failed);
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(SqlEventDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> target.toString();
+                    default -> handler.invoke(proxy, method, args);
+                }));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
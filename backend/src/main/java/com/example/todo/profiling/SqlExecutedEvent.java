@@ -0,0 +1,34 @@
+package com.example.todo.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.example.todo.SqlExecuted")
+@Label("SQL Executed")
+@Description("A JDBC statement, from execution until its result set is closed; rows are those read or changed")
+@Category({"Todo", "Database"})
+@StackTrace(false)
+public class SqlExecutedEvent extends Event {
+
+    @Label("SQL")
+    private String sql;
+
+    @Label("Rows")
+    private long rows;
+
+    @Label("Failed")
+    private boolean failed;
+
+    public void complete(String sql, long rows, boolean failed) {
+        end();
+        if (!shouldCommit()) return;
+        this.sql = sql;
+        this.rows = rows;
+        this.failed = failed;
+        commit();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.todo.repository;
+
+import com.example.todo.model.ArchivedTask;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ArchivedTaskRepository extends JpaRepository<ArchivedTask, Long> {
+    // Keyset-paged scan of archived (not deleted) tasks: rows of [id, userId, title, completed, date]
+    @Query("select a.id, a.userId, a.title, a.completed, a.date from ArchivedTask a "
+            + "where a.deletedAt is null and a.id > :afterId order by a.id")
+    List<Object[]> findIndexRowsAfter(@Param("afterId") Long afterId, Pageable page);
+}
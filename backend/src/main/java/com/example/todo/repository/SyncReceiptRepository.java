@@ -0,0 +1,25 @@
+package com.example.todo.repository;
+
+import com.example.todo.model.SyncReceipt;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface SyncReceiptRepository extends JpaRepository<SyncReceipt, Long> {
+
+    @Query("select r from SyncReceipt r where r.userId = :userId and r.idempotencyKey in :keys")
+    List<SyncReceipt> findByKeys(@Param("userId") Long userId, @Param("keys") Collection<String> keys);
+
+    // Creates from earlier batches, for mutations that refer to a task by its client id
+    @Query("select r from SyncReceipt r where r.userId = :userId and r.clientId in :clientIds and r.taskId is not null")
+    List<SyncReceipt> findByClientIds(@Param("userId") Long userId, @Param("clientIds") Collection<String> clientIds);
+
+    @Modifying
+    @Query("delete from SyncReceipt r where r.userId = :userId and r.appliedAt < :before")
+    int deleteAppliedBefore(@Param("userId") Long userId, @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,51 @@
+package com.example.todo.repository;
+
+import com.example.todo.model.TaskDayCount;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface TaskDayCountRepository extends JpaRepository<TaskDayCount, TaskDayCount.Key> {
+
+    // Upsert in one statement so concurrent writers only contend on the counter row
+    @Modifying
+    @Query(nativeQuery = true, value = "merge into task_day_count c "
+            + "using (select cast(:userId as bigint) as user_id, cast(:day as date) as task_date) s "
+            + "on c.user_id = s.user_id and c.task_date = s.task_date "
+            + "when matched then update set total = c.total + :total, completed = c.completed + :completed "
+            + "when not matched then insert (user_id, task_date, total, completed) "
+            + "values (s.user_id, s.task_date, :total, :completed)")
+    int increment(@Param("userId") Long userId, @Param("day") LocalDate day,
+                  @Param("total") long total, @Param("completed") long completed);
+
+    // Inserts a zero row for the date if there is none; either way the row stays locked until commit
+    @Modifying
+    @Query(nativeQuery = true, value = "merge into task_day_count c "
+            + "using (select cast(:userId as bigint) as user_id, cast(:day as date) as task_date) s "
+            + "on c.user_id = s.user_id and c.task_date = s.task_date "
+            + "when matched then update set total = c.total "
+            + "when not matched then insert (user_id, task_date, total, completed) "
+            + "values (s.user_id, s.task_date, 0, 0)")
+    int lockDay(@Param("userId") Long userId, @Param("day") LocalDate day);
+
+    @Query("select c from TaskDayCount c where c.userId = :userId order by c.day")
+    List<TaskDayCount> findByUserId(@Param("userId") Long userId);
+
+    // Reconciliation holds these row locks so concurrent increments wait until it commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from TaskDayCount c where c.userId = :userId")
+    List<TaskDayCount> lockByUserId(@Param("userId") Long userId);
+
+    @Query("select distinct c.userId from TaskDayCount c")
+    List<Long> findUserIds();
+
+    @Modifying
+    @Query("delete from TaskDayCount c where c.userId = :userId and c.total = 0")
+    int deleteEmpty(@Param("userId") Long userId);
+}
@@ -1,11 +1,193 @@
 package com.example.todo.repository;
 
 
+import com.example.todo.dto.TaskResponse;
 import com.example.todo.model.Task;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface TaskRepository extends JpaRepository<Task, Long> {
-    List<Task> findByUserId(Long userId);
-}
\ No newline at end of file
+    // No deleted task of the subtree (:pattern) has a path that is a proper prefix of t's
+    String NO_DELETED_ANCESTOR = "not exists (select a.id from Task a where a.user.id = :userId "
+            + "and a.deletedAt is not null and a.path like :pattern and a.id <> t.id and t.path like concat(a.path, '%'))";
+
+    // Live (not soft-deleted) tasks in list order; served by idx_task_user_deleted
+    @Query("select t from Task t where t.user.id = :userId and t.deletedAt is null "
+            + "order by t.rank, t.priority, t.id")
+    List<Task> findActiveByUserId(@Param("userId") Long userId);
+
+    // Same rows, selected straight into response records and streamed from the cursor
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "256"))
+    @Query("select new com.example.todo.dto.TaskResponse(t.id, t.title, t.completed, t.priority, t.date, t.rank, "
+            + "t.recurrence, t.remindAt, t.completedAt, t.category, t.suggestedPriority, t.duplicateOfId, t.parentId, t.user.id) "
+            + "from Task t where t.user.id = :userId and t.deletedAt is null order by t.rank, t.priority, t.id")
+    Stream<TaskResponse> streamActiveByUserId(@Param("userId") Long userId);
+
+    // A task's live subtree, depth-first (path order), down to an absolute depth; one range scan of idx_task_user_tree_path.
+    // Rows below a deleted task of the subtree are left out with it (they come back when it is restored).
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "256"))
+    @Query("select new com.example.todo.dto.TaskResponse(t.id, t.title, t.completed, t.priority, t.date, t.rank, "
+            + "t.recurrence, t.remindAt, t.completedAt, t.category, t.suggestedPriority, t.duplicateOfId, t.parentId, "
+            + "t.user.id) from Task t where t.user.id = :userId and t.path like :pattern and t.depth <= :maxDepth "
+            + "and t.deletedAt is null and " + NO_DELETED_ANCESTOR + " order by t.path")
+    Stream<TaskResponse> streamSubtree(@Param("userId") Long userId, @Param("pattern") String pattern,
+                                       @Param("maxDepth") int maxDepth);
+
+    // Completion roll-up of a subtree, the task itself included: a single row of [count, completedCount]
+    @Query("select count(t), coalesce(sum(case when t.completed = true then 1 else 0 end), 0) from Task t "
+            + "where t.user.id = :userId and t.path like :pattern and t.deletedAt is null and " + NO_DELETED_ANCESTOR)
+    List<Object[]> countSubtree(@Param("userId") Long userId, @Param("pattern") String pattern);
+
+    @Query("select t.id from Task t where t.user.id = :userId and t.path like :pattern")
+    List<Long> findSubtreeIds(@Param("userId") Long userId, @Param("pattern") String pattern);
+
+    @Query("select coalesce(max(t.depth), 0) from Task t where t.user.id = :userId and t.path like :pattern")
+    int maxSubtreeDepth(@Param("userId") Long userId, @Param("pattern") String pattern);
+
+    // Re-roots a whole subtree by rewriting its path prefix; the moved task's parent_id is set separately
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Task t set t.path = concat(:newPrefix, substring(t.path, :oldPrefixLength + 1)), "
+            + "t.depth = t.depth + :depthShift where t.user.id = :userId and t.path like :pattern")
+    int movePaths(@Param("userId") Long userId, @Param("pattern") String pattern, @Param("newPrefix") String newPrefix,
+                  @Param("oldPrefixLength") int oldPrefixLength, @Param("depthShift") int depthShift);
+
+    @Modifying
+    @Query("update Task t set t.parentId = :parentId where t.id = :id")
+    int setParent(@Param("id") Long id, @Param("parentId") Long parentId);
+
+    @Modifying
+    @Query("update Task t set t.parentId = :newParentId where t.parentId = :parentId")
+    int setParentOfChildren(@Param("parentId") Long parentId, @Param("newParentId") Long newParentId);
+
+    // Locks the rows in id order, so two callers locking overlapping sets cannot deadlock on them
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from Task t where t.id in :ids order by t.id")
+    List<Task> lockAll(@Param("ids") Collection<Long> ids);
+
+    // Of the given tasks, those with subtasks, deepest first: rows of [id, userId, parentId, path]
+    @Query("select t.id, t.user.id, t.parentId, t.path from Task t where t.id in :ids and t.path is not null "
+            + "and exists (select c.id from Task c where c.user.id = t.user.id and c.path like concat(t.path, '%') "
+            + "and c.id <> t.id) order by t.depth desc")
+    List<Object[]> findParentsAmong(@Param("ids") List<Long> ids);
+
+    @Query("select count(t) from Task t where t.user.id = :userId and t.deletedAt is null and t.rank is null")
+    long countUnranked(@Param("userId") Long userId);
+
+    // Smallest ranks above the given one (all ranks when rank is null), skipping one task
+    @Query("select t.rank from Task t where t.user.id = :userId and t.deletedAt is null and t.id <> :excludeId "
+            + "and t.rank is not null and (:rank is null or t.rank > :rank) order by t.rank")
+    List<String> findRanksAfter(@Param("userId") Long userId, @Param("rank") String rank,
+                                @Param("excludeId") Long excludeId, Pageable page);
+
+    @Query("select t.rank from Task t where t.user.id = :userId and t.deletedAt is null "
+            + "and t.rank is not null order by t.rank desc")
+    List<String> findLastRanks(@Param("userId") Long userId, Pageable page);
+
+    // Keyset-paged scan used to rebuild in-memory indexes: rows of [id, userId, title]
+    @Query("select t.id, t.user.id, t.title from Task t where t.deletedAt is null and t.id > :afterId order by t.id")
+    List<Object[]> findActiveTitlesAfter(@Param("afterId") Long afterId, Pageable page);
+
+    // Rows of [id, userId, title] for those of the given tasks that are live
+    @Query("select t.id, t.user.id, t.title from Task t where t.id in :ids and t.deletedAt is null")
+    List<Object[]> findActiveTitles(@Param("ids") Collection<Long> ids);
+
+    // Same scan for the search index: rows of [id, userId, title, completed, date]
+    @Query("select t.id, t.user.id, t.title, t.completed, t.date from Task t "
+            + "where t.deletedAt is null and t.id > :afterId order by t.id")
+    List<Object[]> findIndexRowsAfter(@Param("afterId") Long afterId, Pageable page);
+
+    // Range scan on idx_task_reminder_pending; rows stay locked until the caller's transaction ends.
+    // Timeout -2 asks for SKIP LOCKED so other nodes claim the next batch instead of waiting.
+    // Deleted and completed tasks are not reminded (a restored or reopened one still is, if due), and
+    // since completed and deleted_at lead the index they are outside the scanned range, however old.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select t from Task t where t.reminderSent = false and t.remindAt <= :now "
+            + "and t.deletedAt is null and t.completed = false order by t.remindAt")
+    List<Task> claimDueReminders(@Param("now") LocalDateTime now, Pageable page);
+
+    @Modifying
+    @Query("update Task t set t.deletedAt = :now where t.id = :id and t.deletedAt is null")
+    int softDelete(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update Task t set t.deletedAt = null where t.id = :id and t.deletedAt is not null")
+    int restore(@Param("id") Long id);
+
+    @Query("select t.id from Task t where t.user.id = :userId and t.completed = true and t.deletedAt is null")
+    List<Long> findCompletedIds(@Param("userId") Long userId);
+
+    @Query("select t.id from Task t where t.user.id = :userId and t.deletedAt = :deletedAt")
+    List<Long> findIdsByDeletedAt(@Param("userId") Long userId, @Param("deletedAt") LocalDateTime deletedAt);
+
+    @Modifying
+    @Query("update Task t set t.deletedAt = :now "
+            + "where t.user.id = :userId and t.completed = true and t.deletedAt is null")
+    int softDeleteCompleted(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update Task t set t.deletedAt = null where t.user.id = :userId and t.deletedAt = :deletedAt")
+    int restoreDeletedAt(@Param("userId") Long userId, @Param("deletedAt") LocalDateTime deletedAt);
+
+    // Stats deltas for bulk statements: rows of [userId, date, count, completedCount]
+    @Query("select t.user.id, t.date, count(t), sum(case when t.completed = true then 1 else 0 end) "
+            + "from Task t where t.user.id = :userId and t.completed = true and t.deletedAt is null "
+            + "group by t.user.id, t.date")
+    List<Object[]> countCompletedByDate(@Param("userId") Long userId);
+
+    @Query("select t.user.id, t.date, count(t), sum(case when t.completed = true then 1 else 0 end) "
+            + "from Task t where t.user.id = :userId and t.deletedAt = :deletedAt group by t.user.id, t.date")
+    List<Object[]> countDeletedAtByDate(@Param("userId") Long userId, @Param("deletedAt") LocalDateTime deletedAt);
+
+    @Query("select t.user.id, t.date, count(t), sum(case when t.completed = true then 1 else 0 end) "
+            + "from Task t where t.id in :ids and t.deletedAt is null and t.user is not null "
+            + "group by t.user.id, t.date")
+    List<Object[]> countLiveByDate(@Param("ids") List<Long> ids);
+
+    @Query("select t.user.id, t.date, count(t), sum(case when t.completed = true then 1 else 0 end) "
+            + "from Task t where t.user.id = :userId and t.deletedAt is null group by t.user.id, t.date")
+    List<Object[]> countLiveByDateForUser(@Param("userId") Long userId);
+
+    @Query("select distinct t.user.id from Task t where t.deletedAt is null and t.user is not null")
+    List<Long> findActiveUserIds();
+
+    @Query("select t.id from Task t where t.deletedAt < :deletedBefore "
+            + "or (t.completed = true and t.completedAt < :completedBefore)")
+    List<Long> findPurgeCandidates(@Param("deletedBefore") LocalDateTime deletedBefore,
+                                   @Param("completedBefore") LocalDateTime completedBefore,
+                                   Pageable page);
+
+    @Modifying
+    @Query("insert into ArchivedTask (id, title, completed, priority, date, userId, completedAt, deletedAt, archivedAt) "
+            + "select t.id, t.title, t.completed, t.priority, t.date, t.user.id, t.completedAt, t.deletedAt, "
+            + "local datetime from Task t where t.id in :ids")
+    int copyToArchive(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query("delete from Task t where t.id in :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
+
+    @Query("select t.id from Task t where t.user.id = :userId and t.id <> :taskId "
+            + "and t.deletedAt is null and lower(trim(t.title)) = :normalizedTitle order by t.id")
+    List<Long> findSameTitleIds(@Param("userId") Long userId, @Param("taskId") Long taskId,
+                                @Param("normalizedTitle") String normalizedTitle, Pageable page);
+
+    @Modifying
+    @Query("update Task t set t.category = :category, t.suggestedPriority = :suggestedPriority, "
+            + "t.duplicateOfId = :duplicateOfId where t.id = :id")
+    int applySuggestion(@Param("id") Long id, @Param("category") String category,
+                        @Param("suggestedPriority") Integer suggestedPriority,
+                        @Param("duplicateOfId") Long duplicateOfId);
+}
@@ -0,0 +1,88 @@
+package com.example.todo.service;
+
+/**
+ * Lexicographic ordering keys (base 36, LexoRank style).
+ * A key can always be generated strictly between two others, so moving a task
+ * only rewrites that task's key. Keys never end in '0', which keeps room below them.
+ */
+public final class LexoRank {
+
+    private static final String DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+    private static final int APPEND_WIDTH = 4;
+    private static final long APPEND_CAPACITY = (long) BASE * BASE * BASE * BASE;
+
+    private LexoRank() {}
+
+    /**
+     * Returns a key strictly between lo and hi.
+     * A null lo means "before everything", a null hi means "after everything".
+     */
+    public static String between(String lo, String hi) {
+        if (lo != null && hi != null && lo.compareTo(hi) >= 0) {
+            throw new IllegalArgumentException("lo must sort before hi: " + lo + " / " + hi);
+        }
+        String low = lo == null ? "" : lo;
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; ; i++) {
+            int l = i < low.length() ? digit(low.charAt(i)) : 0;
+            int h = hi != null && i < hi.length() ? digit(hi.charAt(i)) : BASE;
+            if (h - l > 1) {
+                key.append(DIGITS.charAt((l + h) / 2));
+                return key.toString();
+            }
+            key.append(DIGITS.charAt(l));
+            // Once this prefix sorts below hi, hi no longer constrains the remaining digits
+            if (l < h) hi = null;
+        }
+    }
+
+    /**
+     * Returns a key after lo for appending at the end: lo's first APPEND_WIDTH digits
+     * plus one. Unlike between(lo, null) this never lengthens keys, so a long run of
+     * appends stays at APPEND_WIDTH digits (about 840k of them from the middle key).
+     * A null lo means "the first key".
+     */
+    public static String after(String lo) {
+        if (lo == null) return between(null, null);
+        long value = 0;
+        for (int i = 0; i < APPEND_WIDTH; i++) value = value * BASE + (i < lo.length() ? digit(lo.charAt(i)) : 0);
+        // Every key of this width is taken: fall back to a longer key and let the rebalancer re-spread
+        if (value + 1 >= APPEND_CAPACITY) return between(lo, null);
+        return encode(value + 1, APPEND_WIDTH);
+    }
+
+    /** Evenly spaced keys for count items, as short as possible. */
+    public static String[] spread(int count) {
+        int width = 1;
+        long capacity = BASE;
+        while (capacity <= count) {
+            width++;
+            capacity *= BASE;
+        }
+        long step = capacity / (count + 1);
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = encode(step * (i + 1), width);
+        }
+        return keys;
+    }
+
+    private static String encode(long value, int width) {
+        char[] chars = new char[width];
+        for (int i = width - 1; i >= 0; i--) {
+            chars[i] = DIGITS.charAt((int) (value % BASE));
+            value /= BASE;
+        }
+        // Trailing zeros carry no ordering information and would leave no room below
+        int end = width;
+        while (end > 1 && chars[end - 1] == '0') end--;
+        return new String(chars, 0, end);
+    }
+
+    private static int digit(char c) {
+        int d = DIGITS.indexOf(c);
+        if (d < 0) throw new IllegalArgumentException("Invalid rank character: " + c);
+        return d;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.todo.service;
+
+/**
+ * Published by {@link TaskService} whenever a create or a move gives a task a new rank,
+ * so {@link RankRebalancer} can queue users whose keys have grown too long.
+ */
+public record RankAssignedEvent(Long userId, String rank) {
+}
@@ -0,0 +1,65 @@
+package com.example.todo.service;
+
+import com.example.todo.shard.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Background rebalancing of LexoRank keys.
+ * Repeated moves into the same gap make keys longer; once a key assigned by a
+ * create or a move passes maxLength the user is queued and their ranks are
+ * re-spread on the next run.
+ */
+@Component
+public class RankRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(RankRebalancer.class);
+
+    private final TaskService taskService;
+    private final ShardRouter shardRouter;
+    private final int maxLength;
+    private final Set<Long> pendingUsers = ConcurrentHashMap.newKeySet();
+
+    public RankRebalancer(TaskService taskService,
+                          ShardRouter shardRouter,
+                          @Value("${todo.ranks.max-length:12}") int maxLength) {
+        this.taskService = taskService;
+        this.shardRouter = shardRouter;
+        this.maxLength = maxLength;
+    }
+
+    // After commit, so the run that re-spreads the user's ranks sees the new key
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRankAssigned(RankAssignedEvent event) {
+        if (event.rank() != null && event.rank().length() > maxLength) pendingUsers.add(event.userId());
+    }
+
+    @Scheduled(fixedDelayString = "${todo.ranks.rebalance-interval-ms:10000}")
+    public void rebalance() {
+        Iterator<Long> users = pendingUsers.iterator();
+        while (users.hasNext()) {
+            Long userId = users.next();
+            users.remove();
+            try {
+                shardRouter.onUserShard(userId, () -> {
+                    taskService.rebalanceRanks(userId);
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                log.warn("Rank rebalance failed for user {}", userId, e);
+            }
+        }
+    }
+
+    boolean isPending(Long userId) {
+        return pendingUsers.contains(userId);
+    }
+}
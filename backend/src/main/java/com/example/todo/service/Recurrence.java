@@ -0,0 +1,32 @@
+package com.example.todo.service;
+
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resolves the next occurrence of a recurring task.
+ * Accepts the shorthands DAILY, WEEKLY and MONTHLY, or any Spring cron expression.
+ */
+public final class Recurrence {
+
+    private Recurrence() {}
+
+    public static boolean isValid(String rule) {
+        if (rule == null) return true;
+        return switch (rule.toUpperCase()) {
+            case "DAILY", "WEEKLY", "MONTHLY" -> true;
+            default -> CronExpression.isValidExpression(rule);
+        };
+    }
+
+    /** Null when a cron rule has no occurrence after the given time. */
+    public static LocalDateTime next(String rule, LocalDateTime from) {
+        return switch (rule.toUpperCase()) {
+            case "DAILY" -> from.plusDays(1);
+            case "WEEKLY" -> from.plusWeeks(1);
+            case "MONTHLY" -> from.plusMonths(1);
+            default -> CronExpression.parse(rule).next(from);
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.todo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs fired reminders until a delivery channel exists, so claimed reminders leave a trace.
+ */
+@Component
+public class ReminderLogger {
+
+    private static final Logger log = LoggerFactory.getLogger(ReminderLogger.class);
+
+    @EventListener
+    public void onDue(TaskDueEvent event) {
+        log.info("Reminder due for task {} of user {} at {}", event.taskId(), event.userId(), event.remindAt());
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.todo.service;
+
+import com.example.todo.model.Task;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.shard.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Fires due reminders by polling the (reminder_sent, completed, deleted_at, remind_at) index.
+ * Each batch is claimed with row locks (SKIP LOCKED where the database supports it)
+ * and marked sent in the same transaction, so several nodes can poll safely.
+ * A tick handles at most maxBatches * batchSize reminders regardless of table size.
+ */
+@Component
+@ConditionalOnProperty(name = "todo.reminders.enabled", havingValue = "true", matchIfMissing = true)
+public class ReminderScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReminderScheduler.class);
+
+    private final TaskRepository repository;
+    private final ApplicationEventPublisher publisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final Clock clock;
+    private final int batchSize;
+    private final int maxBatches;
+
+    @Autowired
+    public ReminderScheduler(TaskRepository repository,
+                             ApplicationEventPublisher publisher,
+                             PlatformTransactionManager transactionManager,
+                             ShardRouter shardRouter,
+                             @Value("${todo.reminders.batch-size:100}") int batchSize,
+                             @Value("${todo.reminders.max-batches-per-tick:10}") int maxBatches) {
+        this(repository, publisher, new TransactionTemplate(transactionManager), shardRouter,
+                Clock.systemDefaultZone(), batchSize, maxBatches);
+    }
+
+    ReminderScheduler(TaskRepository repository, ApplicationEventPublisher publisher,
+                      TransactionTemplate transactionTemplate, ShardRouter shardRouter, Clock clock,
+                      int batchSize, int maxBatches) {
+        this.repository = repository;
+        this.publisher = publisher;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    @Scheduled(fixedDelayString = "${todo.reminders.poll-interval-ms:15000}")
+    public void tick() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        shardRouter.forEachShard(() -> {
+            for (int i = 0; i < maxBatches; i++) {
+                Integer fired = transactionTemplate.execute(status -> fireBatch(now));
+                if (fired == null || fired < batchSize) return;
+            }
+        });
+    }
+
+    private int fireBatch(LocalDateTime now) {
+        List<Task> due = repository.claimDueReminders(now, PageRequest.of(0, batchSize));
+        for (Task task : due) {
+            task.setReminderSent(true);
+            Long userId = task.getUser() != null ? task.getUser().getId() : null;
+            publisher.publishEvent(new TaskDueEvent(task.getId(), userId, task.getTitle(), task.getRemindAt()));
+        }
+        if (!due.isEmpty()) log.debug("Fired {} task reminders", due.size());
+        return due.size();
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.todo.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by {@link ReminderScheduler} when a task's reminder comes due.
+ * Delivery (push, e-mail) is not implemented yet; {@link ReminderLogger} only logs it.
+ */
+public record TaskDueEvent(Long taskId, Long userId, String title, LocalDateTime remindAt) {
+}
@@ -0,0 +1,121 @@
+package com.example.todo.service;
+
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.service.stats.TaskCounters;
+import com.example.todo.service.tree.TaskPath;
+import com.example.todo.shard.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves long-deleted and long-completed tasks into task_archive so the hot
+ * task table and its indexes stay small. Each batch is copied and deleted in
+ * its own short transaction, and a run stops after maxBatches. Subtasks of an
+ * archived task that stay behind move up to its parent (or to the top level).
+ */
+@Component
+@ConditionalOnProperty(name = "todo.purge.enabled", havingValue = "true", matchIfMissing = true)
+public class TaskPurger {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskPurger.class);
+
+    private final TaskRepository repository;
+    private final TaskCounters counters;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final Clock clock;
+    private final Duration deletedRetention;
+    private final Duration completedRetention;
+    private final int batchSize;
+    private final int maxBatches;
+
+    @Autowired
+    public TaskPurger(TaskRepository repository,
+                      TaskCounters counters,
+                      ApplicationEventPublisher events,
+                      PlatformTransactionManager transactionManager,
+                      ShardRouter shardRouter,
+                      @Value("${todo.purge.deleted-retention:P7D}") Duration deletedRetention,
+                      @Value("${todo.purge.completed-retention:P30D}") Duration completedRetention,
+                      @Value("${todo.purge.batch-size:500}") int batchSize,
+                      @Value("${todo.purge.max-batches:20}") int maxBatches) {
+        this(repository, counters, events, new TransactionTemplate(transactionManager), shardRouter,
+                Clock.systemDefaultZone(), deletedRetention, completedRetention, batchSize, maxBatches);
+    }
+
+    TaskPurger(TaskRepository repository, TaskCounters counters, ApplicationEventPublisher events,
+               TransactionTemplate transactionTemplate, ShardRouter shardRouter, Clock clock,
+               Duration deletedRetention, Duration completedRetention, int batchSize, int maxBatches) {
+        this.repository = repository;
+        this.counters = counters;
+        this.events = events;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.clock = clock;
+        this.deletedRetention = deletedRetention;
+        this.completedRetention = completedRetention;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    @Scheduled(fixedDelayString = "${todo.purge.interval-ms:3600000}", initialDelayString = "${todo.purge.initial-delay-ms:60000}")
+    public int purge() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime deletedBefore = now.minus(deletedRetention);
+        LocalDateTime completedBefore = now.minus(completedRetention);
+        int[] total = {0};
+        shardRouter.forEachShard(() -> {
+            for (int i = 0; i < maxBatches; i++) {
+                Integer moved = transactionTemplate.execute(status -> archiveBatch(deletedBefore, completedBefore));
+                if (moved == null || moved == 0) break;
+                total[0] += moved;
+                if (moved < batchSize) break;
+            }
+        });
+        if (total[0] > 0) log.info("Archived {} tasks", total[0]);
+        return total[0];
+    }
+
+    private int archiveBatch(LocalDateTime deletedBefore, LocalDateTime completedBefore) {
+        List<Long> ids = repository.findPurgeCandidates(deletedBefore, completedBefore, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) return 0;
+        // Old completed tasks are archived while still live, so they leave the counters here
+        counters.apply(repository.countLiveByDate(ids), -1);
+        repository.copyToArchive(ids);
+        List<Object[]> parents = repository.findParentsAmong(ids);
+        int deleted = repository.deleteByIds(ids);
+        List<Long> changed = new ArrayList<>(ids);
+        // Deepest first, so a subtask archived with its parent has handed its children up before the parent does
+        for (Object[] row : parents) {
+            changed.addAll(liftChildren((Long) row[0], (Long) row[1], (Long) row[2], (String) row[3]));
+        }
+        events.publishEvent(new TasksChangedEvent(changed));
+        return deleted;
+    }
+
+    // Re-roots what is left of a deleted task's subtree one level up; returns the moved ids
+    private List<Long> liftChildren(Long id, Long userId, Long parentId, String path) {
+        String pattern = TaskPath.subtreePattern(path);
+        List<Long> moved = repository.findSubtreeIds(userId, pattern);
+        if (moved.isEmpty()) return moved;
+        repository.movePaths(userId, pattern, TaskPath.parentPrefix(path), path.length(), -1);
+        repository.setParentOfChildren(id, parentId);
+        return moved;
+    }
+}
@@ -0,0 +1,331 @@
+package com.example.todo.service;
+
+import com.example.todo.dto.TaskResponse;
+import com.example.todo.model.Task;
+import com.example.todo.model.User;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.service.activity.TaskActivity;
+import com.example.todo.service.stats.TaskCounters;
+import com.example.todo.service.stats.TaskStats;
+import com.example.todo.service.tree.TaskPath;
+import com.example.todo.service.writebehind.PendingUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Owns the transaction boundaries for task operations.
+ * Reads run in read-only transactions (manual flush, no dirty checking),
+ * multi-row mutations such as reorder run in a single transaction.
+ * Every mutation also updates the per-user counters in the same transaction
+ * and publishes a {@link TasksChangedEvent} for after-commit listeners, plus one
+ * {@link TaskActivity} per changed task for the activity journal.
+ */
+@Service
+@Transactional(readOnly = true)
+public class TaskService {
+
+    private final TaskRepository repository;
+    private final TaskCounters counters;
+    private final ApplicationEventPublisher events;
+
+    public TaskService(TaskRepository repository, TaskCounters counters, ApplicationEventPublisher events) {
+        this.repository = repository;
+        this.counters = counters;
+        this.events = events;
+    }
+
+    public List<Task> findByUser(User user) {
+        return repository.findActiveByUserId(user.getId());
+    }
+
+    // Hands each row to the consumer as it is read from the cursor; nothing is collected
+    public void forEachByUser(User user, Consumer<TaskResponse> consumer) {
+        try (Stream<TaskResponse> rows = repository.streamActiveByUserId(user.getId())) {
+            rows.forEach(consumer);
+        }
+    }
+
+    public Optional<Task> findById(Long id) {
+        return repository.findById(id);
+    }
+
+    // Served from the counters table; no task rows are read
+    public TaskStats stats(User user) {
+        return counters.stats(user.getId(), LocalDate.now());
+    }
+
+    // New tasks are ranked after the user's current last task
+    @Transactional
+    public Task create(Task task, User user) {
+        task.setUser(user);
+        List<String> last = repository.findLastRanks(user.getId(), PageRequest.of(0, 1));
+        task.setRank(LexoRank.after(last.isEmpty() ? null : last.get(0)));
+        Task saved = repository.save(task);
+        events.publishEvent(new RankAssignedEvent(user.getId(), saved.getRank()));
+        placeBeside(saved, null);
+        counters.created(saved);
+        activity(saved, TaskActivity.Action.CREATED, saved.getTitle());
+        events.publishEvent(new TasksChangedEvent(List.of(saved.getId())));
+        return saved;
+    }
+
+    // Only title and completed are updatable through this path.
+    // Completing a recurring task materializes its next occurrence.
+    @Transactional
+    public Optional<Task> update(Long id, Task updatedTask) {
+        return repository.findById(id).map(existingTask -> {
+            boolean wasCompleted = existingTask.isCompleted();
+            String oldTitle = existingTask.getTitle();
+            boolean completing = applyTitleAndCompleted(existingTask, updatedTask.getTitle(), updatedTask.isCompleted());
+            Task savedTask = repository.save(existingTask);
+            if (wasCompleted != existingTask.isCompleted()) counters.completionChanged(existingTask);
+            titleAndCompletedActivity(existingTask, oldTitle, wasCompleted);
+            List<Long> changed = new ArrayList<>(List.of(id));
+            Task occurrence = completing ? nextOccurrence(existingTask, LocalDateTime.now()) : null;
+            if (occurrence != null) {
+                Task next = repository.save(occurrence);
+                placeBeside(next, existingTask);
+                counters.created(next);
+                activity(next, TaskActivity.Action.CREATED, next.getTitle());
+                changed.add(next.getId());
+            }
+            events.publishEvent(new TasksChangedEvent(changed));
+            return savedTask;
+        });
+    }
+
+    /**
+     * Group commit for the write-behind queue: applies coalesced updates for many
+     * tasks in one transaction. Updates for missing tasks or tasks owned by another
+     * user are skipped.
+     */
+    @Transactional
+    public void applyPending(Collection<PendingUpdate> updates) {
+        List<Long> ids = updates.stream().map(PendingUpdate::getTaskId).toList();
+        Map<Long, Task> tasks = new HashMap<>();
+        for (Task task : repository.findAllById(ids)) tasks.put(task.getId(), task);
+        Set<Long> reprioritized = new HashSet<>();
+        List<Long> changed = new ArrayList<>();
+        for (PendingUpdate update : updates) {
+            Task task = tasks.get(update.getTaskId());
+            if (task == null || task.getUser() == null || !task.getUser().getId().equals(update.getUserId())) continue;
+            String title = update.getTitle() != null ? update.getTitle() : task.getTitle();
+            boolean completed = update.getCompleted() != null ? update.getCompleted() : task.isCompleted();
+            boolean wasCompleted = task.isCompleted();
+            String oldTitle = task.getTitle();
+            boolean completing = applyTitleAndCompleted(task, title, completed);
+            if (wasCompleted != completed) counters.completionChanged(task);
+            titleAndCompletedActivity(task, oldTitle, wasCompleted);
+            changed.add(task.getId());
+            Task occurrence = completing ? nextOccurrence(task, LocalDateTime.now()) : null;
+            if (occurrence != null) {
+                Task next = repository.save(occurrence);
+                placeBeside(next, task);
+                counters.created(next);
+                activity(next, TaskActivity.Action.CREATED, next.getTitle());
+                changed.add(next.getId());
+            }
+            if (update.getPriority() != null) {
+                if (update.getPriority() != task.getPriority()) {
+                    activity(task, TaskActivity.Action.REPRIORITIZED, String.valueOf(update.getPriority()));
+                }
+                task.setPriority(update.getPriority());
+                reprioritized.add(update.getUserId());
+            }
+        }
+        // Queued /reorder calls: re-spread ranks in the new priority order, as reorder() does
+        for (Long userId : reprioritized) {
+            List<Task> ordered = new ArrayList<>(repository.findActiveByUserId(userId));
+            ordered.sort(Comparator.comparingInt(Task::getPriority));
+            assignRanks(ordered);
+        }
+        if (!changed.isEmpty()) events.publishEvent(new TasksChangedEvent(changed));
+    }
+
+    // Puts a saved task at the root, or next to the sibling under the same parent (see TaskPath)
+    private static void placeBeside(Task task, Task sibling) {
+        Long parentId = sibling != null && sibling.getPath() != null ? sibling.getParentId() : null;
+        String path = task.getId() == null ? null
+                : parentId == null ? TaskPath.root(task.getId()) : TaskPath.sibling(sibling.getPath(), task.getId());
+        task.setParentId(parentId);
+        task.setPath(path);
+        task.setDepth(path == null ? 0 : TaskPath.depth(path));
+    }
+
+    private void titleAndCompletedActivity(Task task, String oldTitle, boolean wasCompleted) {
+        if (!Objects.equals(oldTitle, task.getTitle())) activity(task, TaskActivity.Action.RENAMED, task.getTitle());
+        if (wasCompleted != task.isCompleted()) {
+            activity(task, task.isCompleted() ? TaskActivity.Action.COMPLETED : TaskActivity.Action.REOPENED, null);
+        }
+    }
+
+    // Tasks without an id (not saved yet) have nothing to be journaled under
+    private void activity(Task task, TaskActivity.Action action, String detail) {
+        if (task.getId() == null) return;
+        Long userId = task.getUser() != null ? task.getUser().getId() : null;
+        events.publishEvent(new TaskActivity(task.getId(), userId, action, detail));
+    }
+
+    // Returns true when this call completes a previously open task
+    private static boolean applyTitleAndCompleted(Task task, String title, boolean completed) {
+        boolean completing = !task.isCompleted() && completed;
+        task.setTitle(title);
+        task.setCompleted(completed);
+        task.setCompletedAt(completed ? (completing ? LocalDateTime.now() : task.getCompletedAt()) : null);
+        return completing;
+    }
+
+    // Soft delete; the row stays restorable until TaskPurger archives it
+    @Transactional
+    public boolean delete(Long id) {
+        if (repository.softDelete(id, LocalDateTime.now()) == 0) return false;
+        repository.findById(id).ifPresent(task -> {
+            counters.removed(task);
+            activity(task, TaskActivity.Action.DELETED, null);
+        });
+        events.publishEvent(new TasksChangedEvent(List.of(id)));
+        return true;
+    }
+
+    @Transactional
+    public boolean restore(Long id) {
+        if (repository.restore(id) == 0) return false;
+        repository.findById(id).ifPresent(task -> {
+            counters.created(task);
+            activity(task, TaskActivity.Action.RESTORED, null);
+        });
+        events.publishEvent(new TasksChangedEvent(List.of(id)));
+        return true;
+    }
+
+    /**
+     * Soft-deletes all of the user's completed tasks with one statement.
+     * The returned timestamp identifies the batch for {@link #undoClearCompleted}.
+     */
+    @Transactional
+    public ClearResult clearCompleted(User user) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        counters.apply(repository.countCompletedByDate(user.getId()), -1);
+        List<Long> ids = repository.findCompletedIds(user.getId());
+        for (Long id : ids) events.publishEvent(new TaskActivity(id, user.getId(), TaskActivity.Action.DELETED, null));
+        events.publishEvent(new TasksChangedEvent(ids));
+        return new ClearResult(repository.softDeleteCompleted(user.getId(), now), now);
+    }
+
+    @Transactional
+    public int undoClearCompleted(User user, LocalDateTime deletedAt) {
+        counters.apply(repository.countDeletedAtByDate(user.getId(), deletedAt), 1);
+        List<Long> ids = repository.findIdsByDeletedAt(user.getId(), deletedAt);
+        for (Long id : ids) events.publishEvent(new TaskActivity(id, user.getId(), TaskActivity.Action.RESTORED, null));
+        events.publishEvent(new TasksChangedEvent(ids));
+        return repository.restoreDeletedAt(user.getId(), deletedAt);
+    }
+
+    public record ClearResult(int deleted, LocalDateTime deletedAt) {}
+
+    // All priority updates are flushed together when the transaction commits.
+    // Ranks are re-spread in the new priority order so /move keeps working afterwards.
+    @Transactional
+    public void reorder(List<Task> tasks) {
+        List<Task> reordered = new ArrayList<>();
+        for (Task t : tasks) {
+            repository.findById(t.getId()).ifPresent(existing -> {
+                if (existing.getPriority() != t.getPriority()) {
+                    activity(existing, TaskActivity.Action.REPRIORITIZED, String.valueOf(t.getPriority()));
+                }
+                existing.setPriority(t.getPriority());
+                reordered.add(existing);
+            });
+        }
+        reordered.sort(Comparator.comparingInt(Task::getPriority));
+        assignRanks(reordered);
+    }
+
+    /**
+     * Moves a task directly after another one, or to the top when afterId is null.
+     * Only the moved row is written, unless the user still has unranked legacy tasks.
+     */
+    @Transactional
+    public Optional<Task> move(Long id, Long afterId, User user) {
+        Optional<Task> found = repository.findById(id).filter(t -> ownedBy(t, user) && t.getDeletedAt() == null);
+        if (found.isEmpty()) return Optional.empty();
+        if (repository.countUnranked(user.getId()) > 0) {
+            assignRanks(repository.findActiveByUserId(user.getId()));
+        }
+        Task task = found.get();
+        if (id.equals(afterId)) return found;
+        String lo = null;
+        if (afterId != null) {
+            Optional<Task> after = repository.findById(afterId).filter(t -> ownedBy(t, user) && t.getDeletedAt() == null);
+            if (after.isEmpty()) return Optional.empty();
+            lo = after.get().getRank();
+        }
+        List<String> next = repository.findRanksAfter(user.getId(), lo, id, PageRequest.of(0, 1));
+        task.setRank(LexoRank.between(lo, next.isEmpty() ? null : next.get(0)));
+        events.publishEvent(new RankAssignedEvent(user.getId(), task.getRank()));
+        activity(task, TaskActivity.Action.MOVED, afterId == null ? "top" : "after " + afterId);
+        return found;
+    }
+
+    // Rewrites the user's ranks as short evenly spaced keys, keeping the current order
+    @Transactional
+    public void rebalanceRanks(Long userId) {
+        assignRanks(repository.findActiveByUserId(userId));
+    }
+
+    private static void assignRanks(List<Task> ordered) {
+        String[] keys = LexoRank.spread(ordered.size());
+        for (int i = 0; i < keys.length; i++) ordered.get(i).setRank(keys[i]);
+    }
+
+    private static boolean ownedBy(Task task, User user) {
+        return task.getUser() != null && task.getUser().getId().equals(user.getId());
+    }
+
+    // Null when the task does not recur or its rule has no further occurrence. The next
+    // occurrence keeps the rule's phase but lies after now, even when the task was completed late.
+    static Task nextOccurrence(Task task, LocalDateTime now) {
+        String rule = task.getRecurrence();
+        if (rule == null) return null;
+        Task next = new Task();
+        next.setTitle(task.getTitle());
+        next.setUser(task.getUser());
+        next.setPriority(task.getPriority());
+        next.setRecurrence(rule);
+        if (task.getRemindAt() != null) {
+            LocalDateTime remindAt = task.getRemindAt();
+            do {
+                remindAt = Recurrence.next(rule, remindAt);
+            } while (remindAt != null && !remindAt.isAfter(now));
+            if (remindAt == null) return null;
+            next.setRemindAt(remindAt);
+            next.setDate(remindAt.toLocalDate());
+        } else {
+            LocalDateTime at = (task.getDate() != null ? task.getDate() : now.toLocalDate()).atStartOfDay();
+            do {
+                at = Recurrence.next(rule, at);
+            } while (at != null && !at.toLocalDate().isAfter(now.toLocalDate()));
+            if (at == null) return null;
+            next.setDate(at.toLocalDate());
+        }
+        return next;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.todo.service;
+
+import java.util.Collection;
+
+/**
+ * Published inside the transaction that created, changed, deleted, restored or
+ * archived these tasks. Listeners that mirror task data should react after commit.
+ */
+public record TasksChangedEvent(Collection<Long> taskIds) {
+}
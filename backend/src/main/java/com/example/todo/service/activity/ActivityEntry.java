@@ -0,0 +1,7 @@
+package com.example.todo.service.activity;
+
+import java.time.Instant;
+
+/** A journal record as returned by GET /api/tasks/{id}/history. */
+public record ActivityEntry(long taskId, Long userId, TaskActivity.Action action, String detail, Instant at) {
+}
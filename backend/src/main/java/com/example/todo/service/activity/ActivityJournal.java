@@ -0,0 +1,279 @@
+package com.example.todo.service.activity;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Append-only history of task changes, kept next to the database rather than in it.
+ * Committed {@link TaskActivity} events are handed to a lock-free ring buffer (the
+ * request thread never blocks or touches the disk) and a single writer thread, parked
+ * while there is nothing to write, appends
+ * them to memory-mapped {@link JournalSegment}s, rolling to a new file when one is
+ * full and forcing written bytes to disk every fsync interval. Events not yet forced
+ * when the process dies are lost, as are events offered while the buffer is full;
+ * both are counted rather than slowing down writes. Compaction rewrites sealed
+ * segments without the events older than the retention period.
+ * The journal is local to this node and only sees changes made through it.
+ */
+@Component
+public class ActivityJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityJournal.class);
+    private static final String COMPACT_SUFFIX = ".compact";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final long fsyncIntervalMillis;
+    private final Duration retention;
+    private final Clock clock;
+    private final ActivityRingBuffer<Pending> ring;
+    private final AtomicLong dropped = new AtomicLong();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "activity-journal-writer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Object segmentsLock = new Object();
+    // Oldest first; the last one is the segment being appended to. Replaced, never mutated.
+    private volatile List<JournalSegment> segments = List.of();
+    private volatile boolean running = true;
+    // Set by the writer just before it parks; producers unpark it when they see the flag
+    private volatile boolean writerIdle;
+    private volatile Thread writerThread;
+    private long lastForceMillis;
+    private boolean unforced;
+
+    private record Pending(TaskActivity activity, long millis) {}
+
+    @Autowired
+    public ActivityJournal(@Value("${todo.activity.dir:./data/activity}") Path dir,
+                           @Value("${todo.activity.segment-bytes:16777216}") int segmentBytes,
+                           @Value("${todo.activity.buffer-capacity:65536}") int bufferCapacity,
+                           @Value("${todo.activity.fsync-interval-ms:1000}") long fsyncIntervalMillis,
+                           @Value("${todo.activity.retention:P90D}") Duration retention) {
+        this(dir, segmentBytes, bufferCapacity, fsyncIntervalMillis, retention, Clock.systemUTC());
+    }
+
+    ActivityJournal(Path dir, int segmentBytes, int bufferCapacity, long fsyncIntervalMillis,
+                    Duration retention, Clock clock) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.retention = retention;
+        this.clock = clock;
+        this.ring = new ActivityRingBuffer<>(bufferCapacity);
+    }
+
+    @PostConstruct
+    void start() {
+        open();
+        writer.submit(this::writeLoop);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writer.shutdown();
+        if (!writer.awaitTermination(5, TimeUnit.SECONDS)) log.warn("Activity journal writer did not stop in time");
+        for (JournalSegment segment : segments) segment.close();
+    }
+
+    // Maps the existing segments (the newest stays writable) and rebuilds their indexes
+    void open() {
+        try {
+            Files.createDirectories(dir);
+            List<Path> files;
+            try (Stream<Path> list = Files.list(dir)) {
+                files = list.toList();
+            }
+            // Left over from a compaction that did not finish; the original is still in place
+            files.stream().filter(p -> p.getFileName().toString().endsWith(COMPACT_SUFFIX)).forEach(JournalSegment::delete);
+            List<Path> paths = files.stream().filter(JournalSegment::isSegment)
+                    .sorted(Comparator.comparingLong(JournalSegment::numberOf)).toList();
+            List<JournalSegment> opened = new ArrayList<>();
+            for (int i = 0; i < paths.size(); i++) {
+                Path path = paths.get(i);
+                opened.add(JournalSegment.open(path, JournalSegment.numberOf(path), segmentBytes, i == paths.size() - 1));
+            }
+            if (opened.isEmpty()) opened.add(JournalSegment.open(JournalSegment.pathOf(dir, 1), 1, segmentBytes, true));
+            segments = List.copyOf(opened);
+            lastForceMillis = clock.millis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Runs on the committing thread
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivity(TaskActivity activity) {
+        if (activity.taskId() == null) return;
+        if (!ring.offer(new Pending(activity, clock.millis()))) {
+            dropped.incrementAndGet();
+        } else if (writerIdle) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /** The task's events, newest first. */
+    public List<ActivityEntry> history(long taskId, int limit) {
+        List<ActivityEntry> entries = new ArrayList<>();
+        List<JournalSegment> snapshot = segments;
+        for (int i = snapshot.size() - 1; i >= 0 && entries.size() < limit; i--) {
+            snapshot.get(i).history(taskId, limit, entries);
+        }
+        return entries;
+    }
+
+    private void writeLoop() {
+        writerThread = Thread.currentThread();
+        while (running) {
+            try {
+                if (drain() == 0) park();
+                if (unforced && clock.millis() - lastForceMillis >= fsyncIntervalMillis) force();
+            } catch (RuntimeException e) {
+                log.warn("Activity journal write failed", e);
+            }
+        }
+        drain();
+        force();
+    }
+
+    // Sleeps until an event is offered, or until unforced writes are due to be forced.
+    // The flag is raised before the emptiness check, so an offer racing with it either
+    // is seen by the check or sees the flag and unparks.
+    private void park() {
+        writerIdle = true;
+        try {
+            if (!ring.isEmpty() || !running) return;
+            if (unforced) {
+                long wait = fsyncIntervalMillis - (clock.millis() - lastForceMillis);
+                if (wait > 0) LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(wait));
+            } else {
+                LockSupport.park(this);
+            }
+        } finally {
+            writerIdle = false;
+        }
+    }
+
+    /** Appends everything buffered so far. Writer thread only (or tests, with no writer running). */
+    int drain() {
+        int count = 0;
+        for (Pending pending; (pending = ring.poll()) != null; count++) write(pending);
+        if (count > 0) unforced = true;
+        return count;
+    }
+
+    void force() {
+        active().force();
+        lastForceMillis = clock.millis();
+        unforced = false;
+    }
+
+    private void write(Pending pending) {
+        TaskActivity a = pending.activity();
+        JournalSegment active = active();
+        if (active.append(a.taskId(), a.userId(), a.action(), a.detail(), pending.millis())) return;
+        active = roll(active);
+        if (!active.append(a.taskId(), a.userId(), a.action(), a.detail(), pending.millis())) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private JournalSegment roll(JournalSegment full) {
+        full.force();
+        long number = full.number() + 1;
+        JournalSegment next = JournalSegment.open(JournalSegment.pathOf(dir, number), number, segmentBytes, true);
+        synchronized (segmentsLock) {
+            List<JournalSegment> rolled = new ArrayList<>(segments);
+            rolled.add(next);
+            segments = List.copyOf(rolled);
+        }
+        return next;
+    }
+
+    private JournalSegment active() {
+        List<JournalSegment> snapshot = segments;
+        return snapshot.get(snapshot.size() - 1);
+    }
+
+    /**
+     * Drops events older than the retention period from sealed segments: segments that
+     * hold only expired events are deleted, those that start with some are rewritten.
+     * Readers keep using the old mapping until the new segment is swapped in.
+     */
+    @Scheduled(fixedDelayString = "${todo.activity.compact-interval-ms:3600000}",
+            initialDelayString = "${todo.activity.compact-initial-delay-ms:300000}")
+    public int compact() {
+        long cutoff = clock.millis() - retention.toMillis();
+        List<JournalSegment> snapshot = segments;
+        int compacted = 0;
+        for (JournalSegment segment : snapshot.subList(0, snapshot.size() - 1)) {
+            if (segment.isEmpty() || segment.lastMillis() < cutoff) {
+                replace(segment, null);
+                JournalSegment.delete(segment.path());
+                compacted++;
+            } else if (segment.firstMillis() < cutoff) {
+                replace(segment, rewrite(segment, cutoff));
+                compacted++;
+            }
+        }
+        if (compacted > 0) log.info("Compacted {} activity journal segments", compacted);
+        return compacted;
+    }
+
+    private JournalSegment rewrite(JournalSegment segment, long cutoff) {
+        Path temp = segment.path().resolveSibling(segment.path().getFileName() + COMPACT_SUFFIX);
+        JournalSegment.delete(temp);
+        try (JournalSegment target = JournalSegment.open(temp, segment.number(), segmentBytes, true)) {
+            segment.copyTo(target, entry -> entry.at().toEpochMilli() >= cutoff);
+            target.force();
+        }
+        try {
+            Files.move(temp, segment.path(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return JournalSegment.open(segment.path(), segment.number(), segmentBytes, false);
+    }
+
+    private void replace(JournalSegment old, JournalSegment replacement) {
+        synchronized (segmentsLock) {
+            List<JournalSegment> updated = new ArrayList<>(segments);
+            int index = updated.indexOf(old);
+            if (replacement == null) updated.remove(index);
+            else updated.set(index, replacement);
+            segments = List.copyOf(updated);
+        }
+        old.close();
+    }
+}
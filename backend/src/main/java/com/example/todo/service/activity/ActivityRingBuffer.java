@@ -0,0 +1,72 @@
+package com.example.todo.service.activity;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer (D. Vyukov's
+ * bounded queue). Each slot carries a sequence number: producers claim a position
+ * with one CAS and publish the element by advancing the slot's sequence; the
+ * consumer owns the read position and needs no atomic read-modify-write at all.
+ * Offers fail instead of waiting when the buffer is full.
+ */
+final class ActivityRingBuffer<E> {
+
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    ActivityRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.elements = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) sequences.set(i, i);
+    }
+
+    int capacity() {
+        return elements.length;
+    }
+
+    /** Any thread; returns false when the buffer is full. */
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int slot = (int) position & mask;
+            long lag = sequences.get(slot) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements[slot] = element;
+                    // Volatile write publishes the element to the consumer's volatile read
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (lag < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /** Consumer thread only; returns null when nothing has been published yet. */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        int slot = (int) head & mask;
+        if (sequences.get(slot) != head + 1) return null;
+        E element = (E) elements[slot];
+        elements[slot] = null;
+        // Frees the slot for the producer that wraps around to it
+        sequences.set(slot, head + elements.length);
+        head++;
+        return element;
+    }
+
+    /** Consumer thread only. */
+    boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.todo.service.activity;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * One memory-mapped journal file. Records are appended back to back:
+ * <pre>
+ *   int length, int crc32(payload),
+ *   payload: long taskId, int previous offset of the same task (-1 if none),
+ *            long userId (-1 if none), long epoch millis, byte action, short n, n bytes detail (UTF-8)
+ * </pre>
+ * A zero length (the file is pre-sized with zeros) or a bad checksum marks the end,
+ * so a record torn by a crash is simply overwritten by the next append.
+ * The sparse index keeps one entry per task: the offset of its latest record here.
+ * Older records of the task are reached through the previous-offset chain.
+ * Appends come from the journal's single writer thread; reads may run concurrently,
+ * they only follow offsets published through the index.
+ */
+final class JournalSegment implements AutoCloseable {
+
+    static final String PREFIX = "activity-";
+    static final String SUFFIX = ".log";
+    static final int MAX_DETAIL_BYTES = 512;
+    private static final int HEADER = 8;
+    private static final int FIXED_PAYLOAD = 8 + 4 + 8 + 8 + 1 + 2;
+
+    private final long number;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final Map<Long, Integer> lastOffsetByTask = new ConcurrentHashMap<>();
+    private int position;
+    private long firstMillis = Long.MAX_VALUE;
+    private volatile long lastMillis = Long.MIN_VALUE;
+    private long forcedUpTo;
+
+    private JournalSegment(long number, Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.number = number;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static Path pathOf(Path dir, long number) {
+        return dir.resolve(PREFIX + number + SUFFIX);
+    }
+
+    /** Maps the file, growing it to size bytes when writable, and rebuilds the index from its records. */
+    static JournalSegment open(Path path, long number, int size, boolean writable) {
+        try {
+            FileChannel channel = writable
+                    ? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                    : FileChannel.open(path, StandardOpenOption.READ);
+            long length = writable ? Math.max(channel.size(), size) : channel.size();
+            MappedByteBuffer buffer = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                    0, length);
+            JournalSegment segment = new JournalSegment(number, path, channel, buffer);
+            segment.recover();
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static long numberOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    long number() {
+        return number;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    boolean isEmpty() {
+        return position == 0;
+    }
+
+    long firstMillis() {
+        return firstMillis;
+    }
+
+    long lastMillis() {
+        return lastMillis;
+    }
+
+    /** Writer thread only; returns false when the record does not fit and the segment must roll. */
+    boolean append(long taskId, Long userId, TaskActivity.Action action, String detail, long millis) {
+        byte[] text = detailBytes(detail);
+        int payload = FIXED_PAYLOAD + text.length;
+        int offset = position;
+        if (offset + HEADER + payload + HEADER > buffer.capacity()) return false;
+        int at = offset + HEADER;
+        buffer.putLong(at, taskId);
+        buffer.putInt(at + 8, lastOffsetByTask.getOrDefault(taskId, -1));
+        buffer.putLong(at + 12, userId == null ? -1 : userId);
+        buffer.putLong(at + 20, millis);
+        buffer.put(at + 28, (byte) action.ordinal());
+        buffer.putShort(at + 29, (short) text.length);
+        buffer.put(at + 31, text);
+        buffer.putInt(offset + 4, checksum(at, payload));
+        buffer.putInt(offset, payload);
+        position = at + payload;
+        if (firstMillis == Long.MAX_VALUE) firstMillis = millis;
+        lastMillis = millis;
+        // Publishes the record to readers
+        lastOffsetByTask.put(taskId, offset);
+        return true;
+    }
+
+    /** Forces the bytes appended since the last call to disk. Writer thread only. */
+    void force() {
+        if (position > forcedUpTo) {
+            buffer.force((int) forcedUpTo, (int) (position - forcedUpTo));
+            forcedUpTo = position;
+        }
+    }
+
+    /** Adds up to limit records of the task to the list, newest first. */
+    void history(long taskId, int limit, List<ActivityEntry> into) {
+        Integer offset = lastOffsetByTask.get(taskId);
+        int next = offset == null ? -1 : offset;
+        while (next >= 0 && into.size() < limit) {
+            into.add(read(next));
+            next = buffer.getInt(next + HEADER + 8);
+        }
+    }
+
+    /** Copies the records matching the filter, oldest first, into another (writable) segment. */
+    int copyTo(JournalSegment target, Predicate<ActivityEntry> keep) {
+        int copied = 0;
+        for (int offset = 0; offset < position; offset += HEADER + buffer.getInt(offset)) {
+            ActivityEntry entry = read(offset);
+            if (keep.test(entry)) {
+                target.append(entry.taskId(), entry.userId(), entry.action(), entry.detail(), entry.at().toEpochMilli());
+                copied++;
+            }
+        }
+        return copied;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ActivityEntry read(int offset) {
+        int at = offset + HEADER;
+        long userId = buffer.getLong(at + 12);
+        byte[] text = new byte[buffer.getShort(at + 29)];
+        buffer.get(at + 31, text);
+        return new ActivityEntry(buffer.getLong(at), userId < 0 ? null : userId,
+                TaskActivity.Action.values()[buffer.get(at + 28)],
+                text.length == 0 ? null : new String(text, StandardCharsets.UTF_8),
+                Instant.ofEpochMilli(buffer.getLong(at + 20)));
+    }
+
+    private void recover() {
+        int offset = 0;
+        while (offset + HEADER <= buffer.capacity()) {
+            int payload = buffer.getInt(offset);
+            if (payload < FIXED_PAYLOAD || offset + HEADER + payload > buffer.capacity()
+                    || buffer.getInt(offset + 4) != checksum(offset + HEADER, payload)) {
+                break;
+            }
+            long millis = buffer.getLong(offset + HEADER + 20);
+            if (firstMillis == Long.MAX_VALUE) firstMillis = millis;
+            lastMillis = millis;
+            lastOffsetByTask.put(buffer.getLong(offset + HEADER), offset);
+            offset += HEADER + payload;
+        }
+        position = offset;
+        forcedUpTo = offset;
+    }
+
+    private int checksum(int at, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(at, length));
+        return (int) crc.getValue();
+    }
+
+    private static byte[] detailBytes(String detail) {
+        if (detail == null) return new byte[0];
+        byte[] bytes = detail.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_DETAIL_BYTES) return bytes;
+        // Cut on a character boundary
+        String cut = detail;
+        while (bytes.length > MAX_DETAIL_BYTES) {
+            cut = cut.substring(0, cut.length() - Math.max(1, (bytes.length - MAX_DETAIL_BYTES) / 3));
+            bytes = cut.getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+
+    static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
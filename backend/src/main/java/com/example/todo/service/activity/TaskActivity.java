@@ -0,0 +1,12 @@
+package com.example.todo.service.activity;
+
+/**
+ * One change to one task, published inside the transaction that made it.
+ * {@link ActivityJournal} appends it to the journal once the transaction commits;
+ * the detail is the new title for CREATED/RENAMED, the new priority for REPRIORITIZED.
+ */
+public record TaskActivity(Long taskId, Long userId, Action action, String detail) {
+
+    // Stored by ordinal in the journal; add new actions at the end
+    public enum Action { CREATED, RENAMED, COMPLETED, REOPENED, REPRIORITIZED, MOVED, DELETED, RESTORED }
+}
@@ -0,0 +1,237 @@
+package com.example.todo.service.dedup;
+
+import com.example.todo.model.Task;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.service.TasksChangedEvent;
+import com.example.todo.shard.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory near-duplicate index over task titles, one per user.
+ * Titles are MinHashed and the signature is split into LSH bands; only tasks that
+ * share a band bucket are compared, so a lookup touches a handful of candidates
+ * instead of every task of the user. Each user keeps at most maxTasksPerUser
+ * entries (oldest evicted first). The index is rebuilt from the database at startup
+ * and then follows committed {@link TasksChangedEvent}s. Tasks without a title are
+ * not indexed.
+ */
+@Component
+public class DuplicateIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(DuplicateIndex.class);
+    private static final int REBUILD_PAGE = 1000;
+
+    private final TaskRepository repository;
+    private final ShardRouter shardRouter;
+    private final MinHasher hasher;
+    private final int bands;
+    private final int rows;
+    private final int maxTasksPerUser;
+    private final double threshold;
+    private final Map<Long, UserIndex> users = new ConcurrentHashMap<>();
+    private final Map<Long, Long> owners = new ConcurrentHashMap<>();
+
+    public DuplicateIndex(TaskRepository repository,
+                          ShardRouter shardRouter,
+                          @Value("${todo.duplicates.bands:16}") int bands,
+                          @Value("${todo.duplicates.rows:4}") int rows,
+                          @Value("${todo.duplicates.max-tasks-per-user:5000}") int maxTasksPerUser,
+                          @Value("${todo.duplicates.threshold:0.6}") double threshold) {
+        this.repository = repository;
+        this.shardRouter = shardRouter;
+        this.hasher = new MinHasher(bands * rows, 0x5eedL);
+        this.bands = bands;
+        this.rows = rows;
+        this.maxTasksPerUser = maxTasksPerUser;
+        this.threshold = threshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        users.clear();
+        owners.clear();
+        int[] count = {0};
+        shardRouter.forEachShard(() -> {
+            long afterId = Long.MIN_VALUE;
+            List<Object[]> page;
+            do {
+                page = repository.findActiveTitlesAfter(afterId, PageRequest.of(0, REBUILD_PAGE));
+                for (Object[] row : page) {
+                    afterId = (Long) row[0];
+                    if (row[1] != null) put((Long) row[1], afterId, (String) row[2]);
+                }
+                count[0] += page.size();
+            } while (page.size() == REBUILD_PAGE);
+        });
+        log.info("Duplicate index rebuilt with {} tasks for {} users", count[0], users.size());
+    }
+
+    /**
+     * Re-reads the changed tasks once their transaction has committed: live ones are
+     * (re)indexed, anything else (deleted, archived) is removed. Runs on the committing
+     * thread in a transaction of its own, on the same shard.
+     */
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onTasksChanged(TasksChangedEvent event) {
+        if (event.taskIds().isEmpty()) return;
+        try {
+            Set<Long> gone = new HashSet<>(event.taskIds());
+            for (Object[] row : repository.findActiveTitles(event.taskIds())) {
+                Long taskId = (Long) row[0];
+                gone.remove(taskId);
+                if (row[1] != null) put((Long) row[1], taskId, (String) row[2]);
+            }
+            gone.forEach(this::remove);
+        } catch (RuntimeException e) {
+            log.warn("Duplicate index update failed for {} tasks", event.taskIds().size(), e);
+        }
+    }
+
+    /** Indexes a live task; soft-deleted tasks are removed instead. */
+    public void add(Task task) {
+        if (task.getId() == null || task.getUser() == null || task.getUser().getId() == null) return;
+        if (task.getDeletedAt() != null) {
+            remove(task.getId());
+            return;
+        }
+        put(task.getUser().getId(), task.getId(), task.getTitle());
+    }
+
+    public void remove(Long taskId) {
+        Long userId = owners.remove(taskId);
+        if (userId == null) return;
+        UserIndex index = users.get(userId);
+        if (index != null) index.remove(taskId);
+    }
+
+    /** Ids of the user's tasks whose title is near-identical to the given one, most similar first. */
+    public List<Long> findSimilar(Long userId, String title, Long excludeTaskId) {
+        UserIndex index = users.get(userId);
+        if (index == null || isBlank(title)) return List.of();
+        int[] signature = hasher.signature(title);
+        List<DuplicatePair> matches = index.matches(-1L, signature, excludeTaskId);
+        matches.sort((a, b) -> Double.compare(b.similarity(), a.similarity()));
+        List<Long> ids = new ArrayList<>(matches.size());
+        for (DuplicatePair match : matches) ids.add(match.duplicateOfId());
+        return ids;
+    }
+
+    /** All near-duplicate pairs of the user, each reported once against the older task. */
+    public List<DuplicatePair> duplicates(Long userId) {
+        UserIndex index = users.get(userId);
+        return index == null ? List.of() : index.allPairs();
+    }
+
+    int size(Long userId) {
+        UserIndex index = users.get(userId);
+        return index == null ? 0 : index.size();
+    }
+
+    // A task renamed to nothing leaves the index
+    private void put(Long userId, Long taskId, String title) {
+        if (isBlank(title)) {
+            remove(taskId);
+            return;
+        }
+        int[] signature = hasher.signature(title);
+        UserIndex index = users.computeIfAbsent(userId, id -> new UserIndex());
+        Long evicted = index.put(taskId, signature);
+        owners.put(taskId, userId);
+        if (evicted != null) owners.remove(evicted);
+    }
+
+    private static boolean isBlank(String title) {
+        return title == null || title.isBlank();
+    }
+
+    private long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int i = band * rows; i < (band + 1) * rows; i++) key = key * 31 + signature[i];
+        return key;
+    }
+
+    private final class UserIndex {
+        // Insertion order doubles as eviction order
+        private final LinkedHashMap<Long, int[]> signatures = new LinkedHashMap<>();
+        private final Map<Long, Set<Long>> buckets = new HashMap<>();
+
+        synchronized Long put(Long taskId, int[] signature) {
+            removeInternal(taskId);
+            signatures.put(taskId, signature);
+            for (int b = 0; b < bands; b++) {
+                buckets.computeIfAbsent(bandKey(signature, b), k -> new HashSet<>(2)).add(taskId);
+            }
+            if (signatures.size() > maxTasksPerUser) {
+                Iterator<Long> oldest = signatures.keySet().iterator();
+                Long evicted = oldest.next();
+                removeInternal(evicted);
+                return evicted;
+            }
+            return null;
+        }
+
+        synchronized void remove(Long taskId) {
+            removeInternal(taskId);
+        }
+
+        synchronized int size() {
+            return signatures.size();
+        }
+
+        synchronized List<DuplicatePair> matches(Long taskId, int[] signature, Long exclude) {
+            Set<Long> candidates = new TreeSet<>();
+            for (int b = 0; b < bands; b++) {
+                Set<Long> bucket = buckets.get(bandKey(signature, b));
+                if (bucket != null) candidates.addAll(bucket);
+            }
+            List<DuplicatePair> result = new ArrayList<>();
+            for (Long candidate : candidates) {
+                if (candidate.equals(exclude) || candidate.equals(taskId)) continue;
+                double similarity = MinHasher.similarity(signature, signatures.get(candidate));
+                if (similarity >= threshold) result.add(new DuplicatePair(taskId, candidate, similarity));
+            }
+            return result;
+        }
+
+        synchronized List<DuplicatePair> allPairs() {
+            List<DuplicatePair> pairs = new ArrayList<>();
+            for (Map.Entry<Long, int[]> entry : signatures.entrySet()) {
+                for (DuplicatePair match : matches(entry.getKey(), entry.getValue(), null)) {
+                    if (match.duplicateOfId() < entry.getKey()) pairs.add(match);
+                }
+            }
+            return pairs;
+        }
+
+        private void removeInternal(Long taskId) {
+            int[] signature = signatures.remove(taskId);
+            if (signature == null) return;
+            for (int b = 0; b < bands; b++) {
+                long key = bandKey(signature, b);
+                Set<Long> bucket = buckets.get(key);
+                if (bucket != null && bucket.remove(taskId) && bucket.isEmpty()) buckets.remove(key);
+            }
+        }
+    }
+}
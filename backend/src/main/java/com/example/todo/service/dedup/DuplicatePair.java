@@ -0,0 +1,8 @@
+package com.example.todo.service.dedup;
+
+/**
+ * Two tasks of the same user whose titles are estimated to be near-identical.
+ * duplicateOfId is always the older (lower id) task.
+ */
+public record DuplicatePair(Long taskId, Long duplicateOfId, double similarity) {
+}
@@ -0,0 +1,72 @@
+package com.example.todo.service.dedup;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * MinHash signatures over character 3-gram shingles of a normalized title.
+ * The fraction of equal signature slots estimates the Jaccard similarity of the shingle sets.
+ */
+public final class MinHasher {
+
+    static final int SHINGLE = 3;
+
+    private final long[] seeds;
+
+    public MinHasher(int numHashes, long seed) {
+        Random random = new Random(seed);
+        this.seeds = new long[numHashes];
+        for (int i = 0; i < numHashes; i++) seeds[i] = random.nextLong();
+    }
+
+    public int size() {
+        return seeds.length;
+    }
+
+    public int[] signature(String title) {
+        int[] signature = new int[seeds.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int shingle : shingles(title)) {
+            for (int i = 0; i < seeds.length; i++) {
+                int h = (int) mix(shingle ^ seeds[i]);
+                if (h < signature[i]) signature[i] = h;
+            }
+        }
+        return signature;
+    }
+
+    public static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) equal++;
+        }
+        return (double) equal / a.length;
+    }
+
+    static String normalize(String title) {
+        return title == null ? "" : title.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+
+    static Set<Integer> shingles(String title) {
+        String text = normalize(title);
+        Set<Integer> result = new HashSet<>();
+        if (text.length() <= SHINGLE) {
+            result.add(text.hashCode());
+            return result;
+        }
+        for (int i = 0; i + SHINGLE <= text.length(); i++) {
+            result.add(text.substring(i, i + SHINGLE).hashCode());
+        }
+        return result;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
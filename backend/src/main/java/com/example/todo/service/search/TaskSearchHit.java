@@ -0,0 +1,10 @@
+package com.example.todo.service.search;
+
+import java.time.LocalDate;
+
+/**
+ * One search result, built from the fields stored in the index so no database
+ * read is needed. archived is true for tasks already moved to task_archive.
+ */
+public record TaskSearchHit(Long id, String title, boolean completed, LocalDate date, boolean archived, float score) {
+}
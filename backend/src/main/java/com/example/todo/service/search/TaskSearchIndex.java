@@ -0,0 +1,290 @@
+package com.example.todo.service.search;
+
+import com.example.todo.model.ArchivedTask;
+import com.example.todo.model.Task;
+import com.example.todo.repository.ArchivedTaskRepository;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.service.TasksChangedEvent;
+import com.example.todo.shard.ShardContext;
+import com.example.todo.shard.ShardRouter;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiFunction;
+
+/**
+ * Lucene full-text index over task titles, live and archived, stored in
+ * memory-mapped files. Changes arrive as {@link TasksChangedEvent}s after their
+ * transaction commits and are applied in small batches on each refresh tick,
+ * which also reopens the near-real-time searcher, so new titles are searchable
+ * within one refresh interval. The database stays the source of truth: the
+ * index is rebuilt from it at startup unless todo.search.rebuild-on-start is off.
+ */
+@Component
+public class TaskSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskSearchIndex.class);
+    private static final int REBUILD_PAGE = 1000;
+
+    static final String ID = "id";
+    static final String USER = "user";
+    static final String TITLE = "title";
+    static final String COMPLETED = "completed";
+    static final String DATE = "date";
+    static final String ARCHIVED = "archived";
+
+    private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archiveRepository;
+    private final ShardRouter shardRouter;
+    private final boolean rebuildOnStart;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searchers;
+    private final Queue<Change> pending = new ConcurrentLinkedQueue<>();
+
+    // Task ids changed by one transaction, with the shard it ran on
+    private record Change(String shard, Collection<Long> taskIds) {}
+
+    public TaskSearchIndex(TaskRepository taskRepository,
+                           ArchivedTaskRepository archiveRepository,
+                           ShardRouter shardRouter,
+                           @Value("${todo.search.dir:./data/search-index}") Path dir,
+                           @Value("${todo.search.rebuild-on-start:true}") boolean rebuildOnStart) throws IOException {
+        this.taskRepository = taskRepository;
+        this.archiveRepository = archiveRepository;
+        this.shardRouter = shardRouter;
+        this.rebuildOnStart = rebuildOnStart;
+        Files.createDirectories(dir);
+        this.directory = new MMapDirectory(dir);
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        this.searchers = new SearcherManager(writer, null);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() throws IOException {
+        if (rebuildOnStart || writer.getDocStats().numDocs == 0) rebuild();
+    }
+
+    public int rebuild() throws IOException {
+        writer.deleteAll();
+        int[] count = {0};
+        shardRouter.forEachShard(() -> {
+            count[0] += scan(taskRepository::findIndexRowsAfter, false);
+            count[0] += scan(archiveRepository::findIndexRowsAfter, true);
+        });
+        writer.commit();
+        searchers.maybeRefresh();
+        log.info("Search index rebuilt with {} tasks", count[0]);
+        return count[0];
+    }
+
+    private int scan(BiFunction<Long, Pageable, List<Object[]>> pages, boolean archived) {
+        long afterId = Long.MIN_VALUE;
+        int count = 0;
+        List<Object[]> page;
+        do {
+            page = pages.apply(afterId, PageRequest.of(0, REBUILD_PAGE));
+            for (Object[] row : page) {
+                afterId = (Long) row[0];
+                if (row[1] != null) {
+                    put(afterId, (Long) row[1], (String) row[2], (Boolean) row[3], (LocalDate) row[4], archived);
+                }
+            }
+            count += page.size();
+        } while (page.size() == REBUILD_PAGE);
+        return count;
+    }
+
+    // Runs on the committing thread, so the shard context of the transaction is still bound
+    @TransactionalEventListener
+    public void onTasksChanged(TasksChangedEvent event) {
+        if (!event.taskIds().isEmpty()) pending.add(new Change(ShardContext.current(), List.copyOf(event.taskIds())));
+    }
+
+    @Scheduled(fixedDelayString = "${todo.search.refresh-interval-ms:250}")
+    public void refresh() {
+        Map<String, Set<Long>> byShard = new HashMap<>();
+        for (Change change; (change = pending.poll()) != null; ) {
+            byShard.computeIfAbsent(change.shard(), s -> new LinkedHashSet<>()).addAll(change.taskIds());
+        }
+        byShard.forEach((shard, ids) -> {
+            try {
+                ShardContext.runOn(shard, () -> reindex(ids));
+            } catch (RuntimeException e) {
+                log.warn("Search index update failed for {} tasks, retrying", ids.size(), e);
+                pending.add(new Change(shard, ids));
+            }
+        });
+        try {
+            searchers.maybeRefresh();
+        } catch (IOException e) {
+            log.warn("Search index refresh failed", e);
+        }
+    }
+
+    // Re-reads the tasks: live ones are (re)indexed, archived ones keep their entry, anything else is dropped
+    void reindex(Collection<Long> ids) {
+        Set<Long> missing = new HashSet<>(ids);
+        for (Task task : taskRepository.findAllById(ids)) {
+            if (task.getDeletedAt() != null || task.getUser() == null) continue;
+            put(task.getId(), task.getUser().getId(), task.getTitle(), task.isCompleted(), task.getDate(), false);
+            missing.remove(task.getId());
+        }
+        if (!missing.isEmpty()) {
+            for (ArchivedTask task : archiveRepository.findAllById(missing)) {
+                if (task.getDeletedAt() != null || task.getUserId() == null) continue;
+                put(task.getId(), task.getUserId(), task.getTitle(), task.isCompleted(), task.getDate(), true);
+                missing.remove(task.getId());
+            }
+        }
+        for (Long id : missing) {
+            try {
+                writer.deleteDocuments(new Term(ID, id.toString()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void put(Long id, Long userId, String title, boolean completed, LocalDate date, boolean archived) {
+        Document doc = new Document();
+        doc.add(new StringField(ID, id.toString(), Field.Store.YES));
+        doc.add(new StringField(USER, userId.toString(), Field.Store.NO));
+        doc.add(new TextField(TITLE, title != null ? title : "", Field.Store.YES));
+        doc.add(new StoredField(COMPLETED, completed ? 1 : 0));
+        if (date != null) doc.add(new StoredField(DATE, date.toString()));
+        doc.add(new StoredField(ARCHIVED, archived ? 1 : 0));
+        try {
+            writer.updateDocument(new Term(ID, id.toString()), doc);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Matches every word of the query against the user's task titles. Words match
+     * exactly, with typos (fuzzy) from four characters on, and the last word also
+     * as a prefix so results show up while the user is still typing.
+     */
+    public List<TaskSearchHit> search(Long userId, String text, int limit) {
+        List<String> words = analyze(text);
+        if (words.isEmpty()) return List.of();
+        boolean typing = !Character.isWhitespace(text.charAt(text.length() - 1));
+        BooleanQuery.Builder query = new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(USER, userId.toString())), BooleanClause.Occur.FILTER);
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            BooleanQuery.Builder alternatives = new BooleanQuery.Builder()
+                    .add(new BoostQuery(new TermQuery(new Term(TITLE, word)), 3f), BooleanClause.Occur.SHOULD);
+            if (typing && i == words.size() - 1) {
+                alternatives.add(new BoostQuery(new PrefixQuery(new Term(TITLE, word)), 2f), BooleanClause.Occur.SHOULD);
+            }
+            if (word.length() >= 4) {
+                alternatives.add(new FuzzyQuery(new Term(TITLE, word), word.length() >= 8 ? 2 : 1),
+                        BooleanClause.Occur.SHOULD);
+            }
+            query.add(alternatives.build(), BooleanClause.Occur.MUST);
+        }
+        try {
+            IndexSearcher searcher = searchers.acquire();
+            try {
+                TopDocs top = searcher.search(query.build(), limit);
+                StoredFields stored = searcher.storedFields();
+                List<TaskSearchHit> hits = new ArrayList<>(top.scoreDocs.length);
+                for (ScoreDoc scoreDoc : top.scoreDocs) hits.add(toHit(stored.document(scoreDoc.doc), scoreDoc.score));
+                return hits;
+            } finally {
+                searchers.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<String> analyze(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null || text.isBlank()) return words;
+        try (TokenStream tokens = analyzer.tokenStream(TITLE, text)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) words.add(term.toString());
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return words;
+    }
+
+    private static TaskSearchHit toHit(Document doc, float score) {
+        String date = doc.get(DATE);
+        return new TaskSearchHit(Long.valueOf(doc.get(ID)), doc.get(TITLE),
+                doc.getField(COMPLETED).numericValue().intValue() == 1,
+                date != null ? LocalDate.parse(date) : null,
+                doc.getField(ARCHIVED).numericValue().intValue() == 1, score);
+    }
+
+    @Scheduled(fixedDelayString = "${todo.search.commit-interval-ms:60000}")
+    public void commit() throws IOException {
+        if (writer.hasUncommittedChanges()) writer.commit();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searchers.close();
+        writer.close();
+        directory.close();
+        analyzer.close();
+    }
+}
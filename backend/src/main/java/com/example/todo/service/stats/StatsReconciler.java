@@ -0,0 +1,105 @@
+package com.example.todo.service.stats;
+
+import com.example.todo.model.TaskDayCount;
+import com.example.todo.repository.TaskDayCountRepository;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.shard.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Periodically recomputes each user's counters from the task table and applies
+ * the difference, so drift from bugs or manual SQL is corrected within one
+ * interval. Each user is fixed in its own short transaction.
+ * <p>
+ * Only dates whose counter row is locked are compared: a writer changes the task
+ * and then its counter row in one transaction, so for a locked date the tasks read
+ * and the stored counts agree. Rows for the dates that have tasks are created
+ * before the locks are taken. A date that gets its first task during the run is
+ * left to that writer's own increment.
+ */
+@Component
+@ConditionalOnProperty(name = "todo.stats.reconcile.enabled", havingValue = "true", matchIfMissing = true)
+public class StatsReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(StatsReconciler.class);
+
+    private final TaskRepository taskRepository;
+    private final TaskDayCountRepository countRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    @Autowired
+    public StatsReconciler(TaskRepository taskRepository, TaskDayCountRepository countRepository,
+                           PlatformTransactionManager transactionManager, ShardRouter shardRouter) {
+        this(taskRepository, countRepository, new TransactionTemplate(transactionManager), shardRouter);
+    }
+
+    StatsReconciler(TaskRepository taskRepository, TaskDayCountRepository countRepository,
+                    TransactionTemplate transactionTemplate, ShardRouter shardRouter) {
+        this.taskRepository = taskRepository;
+        this.countRepository = countRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+    }
+
+    /** Returns the number of users whose counters had drifted. */
+    @Scheduled(fixedDelayString = "${todo.stats.reconcile.interval-ms:3600000}",
+            initialDelayString = "${todo.stats.reconcile.initial-delay-ms:120000}")
+    public int reconcile() {
+        int[] drifted = {0};
+        shardRouter.forEachShard(() -> {
+            Set<Long> userIds = new TreeSet<>(taskRepository.findActiveUserIds());
+            userIds.addAll(countRepository.findUserIds());
+            for (Long userId : userIds) {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> reconcileUser(userId)))) drifted[0]++;
+            }
+        });
+        if (drifted[0] > 0) log.warn("Corrected task counters for {} users", drifted[0]);
+        return drifted[0];
+    }
+
+    private boolean reconcileUser(Long userId) {
+        for (LocalDate day : new TreeSet<>(countLiveByDate(userId).keySet())) {
+            countRepository.lockDay(userId, day);
+        }
+        Map<LocalDate, long[]> stored = new HashMap<>();
+        for (TaskDayCount c : countRepository.lockByUserId(userId)) {
+            stored.put(c.getDay(), new long[]{c.getTotal(), c.getCompleted()});
+        }
+        Map<LocalDate, long[]> actual = countLiveByDate(userId);
+        boolean drifted = false;
+        for (LocalDate day : stored.keySet()) {
+            long[] s = stored.get(day);
+            long[] a = actual.getOrDefault(day, new long[2]);
+            if (s[0] != a[0] || s[1] != a[1]) {
+                countRepository.increment(userId, day, a[0] - s[0], a[1] - s[1]);
+                drifted = true;
+            }
+        }
+        // Dates whose tasks are all gone leave zero rows behind
+        countRepository.deleteEmpty(userId);
+        return drifted;
+    }
+
+    private Map<LocalDate, long[]> countLiveByDate(Long userId) {
+        Map<LocalDate, long[]> counts = new HashMap<>();
+        for (Object[] row : taskRepository.countLiveByDateForUser(userId)) {
+            long completed = row[3] != null ? ((Number) row[3]).longValue() : 0;
+            counts.put(TaskCounters.day((LocalDate) row[1]), new long[]{((Number) row[2]).longValue(), completed});
+        }
+        return counts;
+    }
+}
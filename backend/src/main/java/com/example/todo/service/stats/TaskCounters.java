@@ -0,0 +1,80 @@
+package com.example.todo.service.stats;
+
+import com.example.todo.model.Task;
+import com.example.todo.model.TaskDayCount;
+import com.example.todo.repository.TaskDayCountRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps task_day_count in step with the task table. Every method joins the
+ * caller's transaction, so a counter change commits or rolls back together
+ * with the task change that caused it. Reading stats costs one row per
+ * distinct date of the user, however many tasks there are.
+ */
+@Component
+@Transactional(readOnly = true)
+public class TaskCounters {
+
+    private final TaskDayCountRepository repository;
+
+    public TaskCounters(TaskDayCountRepository repository) {
+        this.repository = repository;
+    }
+
+    @Transactional
+    public void created(Task task) {
+        if (task.getUser() == null) return;
+        repository.increment(task.getUser().getId(), day(task.getDate()), 1, task.isCompleted() ? 1 : 0);
+    }
+
+    @Transactional
+    public void removed(Task task) {
+        if (task.getUser() == null) return;
+        repository.increment(task.getUser().getId(), day(task.getDate()), -1, task.isCompleted() ? -1 : 0);
+    }
+
+    // Call after the task's completed flag has flipped
+    @Transactional
+    public void completionChanged(Task task) {
+        if (task.getUser() == null) return;
+        repository.increment(task.getUser().getId(), day(task.getDate()), 0, task.isCompleted() ? 1 : -1);
+    }
+
+    /**
+     * Applies grouped rows of [userId, date, count, completedCount], as returned by the
+     * TaskRepository count queries; sign is +1 for rows coming back and -1 for rows leaving.
+     */
+    @Transactional
+    public void apply(List<Object[]> rows, int sign) {
+        for (Object[] row : rows) {
+            long count = ((Number) row[2]).longValue();
+            long completed = row[3] != null ? ((Number) row[3]).longValue() : 0;
+            repository.increment((Long) row[0], day((LocalDate) row[1]), sign * count, sign * completed);
+        }
+    }
+
+    public TaskStats stats(Long userId, LocalDate today) {
+        long total = 0, completed = 0, overdue = 0, dueToday = 0;
+        List<TaskStats.Day> byDate = new ArrayList<>();
+        for (TaskDayCount c : repository.findByUserId(userId)) {
+            if (c.getTotal() <= 0) continue;
+            total += c.getTotal();
+            completed += c.getCompleted();
+            if (c.getDay().equals(TaskDayCount.UNDATED)) continue;
+            long open = c.getTotal() - c.getCompleted();
+            if (c.getDay().isBefore(today)) overdue += open;
+            else if (c.getDay().equals(today)) dueToday += open;
+            byDate.add(new TaskStats.Day(c.getDay(), c.getTotal(), c.getCompleted()));
+        }
+        return new TaskStats(total, completed, overdue, dueToday, byDate);
+    }
+
+    static LocalDate day(LocalDate date) {
+        return date != null ? date : TaskDayCount.UNDATED;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.todo.service.stats;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Aggregates for one user's live tasks. Overdue and dueToday count open tasks
+ * dated before / on the given day; undated tasks only count towards the totals.
+ */
+public record TaskStats(long total, long completed, long overdue, long dueToday, List<Day> byDate) {
+
+    public record Day(LocalDate date, long total, long completed) {
+    }
+}
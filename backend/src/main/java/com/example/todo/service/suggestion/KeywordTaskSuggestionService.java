@@ -0,0 +1,52 @@
+package com.example.todo.service.suggestion;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Local deterministic model: keyword rules for category and urgency.
+ * Used by default and in tests; needs no network or model files.
+ */
+public class KeywordTaskSuggestionService implements TaskSuggestionService {
+
+    private static final Map<String, List<String>> CATEGORIES = new LinkedHashMap<>();
+
+    static {
+        CATEGORIES.put("work", List.of("meeting", "report", "email", "deploy", "review", "client"));
+        CATEGORIES.put("shopping", List.of("buy", "groceries", "order", "shop"));
+        CATEGORIES.put("health", List.of("doctor", "dentist", "gym", "run", "medicine"));
+        CATEGORIES.put("home", List.of("clean", "laundry", "cook", "dishes", "repair"));
+        CATEGORIES.put("finance", List.of("pay", "bill", "tax", "invoice", "bank"));
+    }
+
+    private static final List<String> HIGH = List.of("urgent", "asap", "today", "!");
+    private static final List<String> MEDIUM = List.of("tomorrow", "soon", "this week");
+
+    @Override
+    public List<TaskSuggestion> suggest(List<String> titles) {
+        List<TaskSuggestion> result = new ArrayList<>(titles.size());
+        for (String title : titles) {
+            String text = title == null ? "" : title.toLowerCase(Locale.ROOT);
+            result.add(new TaskSuggestion(categorize(text), prioritize(text)));
+        }
+        return result;
+    }
+
+    private static String categorize(String text) {
+        for (Map.Entry<String, List<String>> entry : CATEGORIES.entrySet()) {
+            for (String keyword : entry.getValue()) {
+                if (text.contains(keyword)) return entry.getKey();
+            }
+        }
+        return "general";
+    }
+
+    private static int prioritize(String text) {
+        if (HIGH.stream().anyMatch(text::contains)) return 3;
+        if (MEDIUM.stream().anyMatch(text::contains)) return 2;
+        return 1;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.todo.service.suggestion;
+
+/**
+ * Model output for one task title.
+ *
+ * @param category coarse label such as "work" or "shopping"
+ * @param priority suggested urgency, 1 (low) to 3 (high)
+ */
+public record TaskSuggestion(String category, int priority) {
+}
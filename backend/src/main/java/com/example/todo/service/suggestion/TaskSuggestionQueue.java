@@ -0,0 +1,230 @@
+package com.example.todo.service.suggestion;
+
+import com.example.todo.model.Task;
+import com.example.todo.profiling.CacheLookupEvent;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.shard.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs task suggestions off the request path.
+ * createTask only offers to a bounded queue (dropping when full); a single worker
+ * coalesces queued titles into one batch inference call, serves repeat titles from
+ * a content-hash cache, and gives up on batches that exceed the inference timeout.
+ * A model call that has timed out may still be blocked (interrupting it does not stop
+ * e.g. a socket read), so its thread is abandoned and later batches get a fresh one.
+ */
+@Component
+public class TaskSuggestionQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskSuggestionQueue.class);
+
+    record Pending(Long taskId, Long userId, String title) {}
+
+    private final TaskSuggestionService model;
+    private final TaskRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final BlockingQueue<Pending> queue;
+    private final Map<String, TaskSuggestion> cache;
+    private final int batchSize;
+    private final long lingerMillis;
+    private final long timeoutMillis;
+    private final AtomicLong dropped = new AtomicLong();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(daemon("task-suggestion-worker"));
+    // Worker thread only, apart from stop(); replaced when a call hangs
+    private volatile ExecutorService inference = newInferenceExecutor();
+    private final AtomicLong abandoned = new AtomicLong();
+    private volatile boolean running = true;
+
+    public TaskSuggestionQueue(TaskSuggestionService model,
+                               TaskRepository repository,
+                               PlatformTransactionManager transactionManager,
+                               ShardRouter shardRouter,
+                               @Value("${todo.suggestions.queue-capacity:1000}") int capacity,
+                               @Value("${todo.suggestions.batch-size:32}") int batchSize,
+                               @Value("${todo.suggestions.linger-ms:20}") long lingerMillis,
+                               @Value("${todo.suggestions.timeout-ms:2000}") long timeoutMillis,
+                               @Value("${todo.suggestions.cache-size:10000}") int cacheSize) {
+        this.model = model;
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TaskSuggestion> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @PostConstruct
+    void start() {
+        worker.submit(this::drainLoop);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        worker.shutdownNow();
+        inference.shutdownNow();
+    }
+
+    /** Never blocks; returns false when the queue is full and the task is skipped. */
+    public boolean enqueue(Task task) {
+        if (task.getId() == null || task.getTitle() == null) return false;
+        Long userId = task.getUser() != null ? task.getUser().getId() : null;
+        boolean accepted = queue.offer(new Pending(task.getId(), userId, task.getTitle()));
+        if (!accepted) dropped.incrementAndGet();
+        return accepted;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /** Inference threads given up on because a call did not return within the timeout. */
+    public long getAbandonedCount() {
+        return abandoned.get();
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                Pending first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                List<Pending> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) break;
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Task suggestion batch failed", e);
+            }
+        }
+    }
+
+    void process(List<Pending> batch) throws InterruptedException {
+        Map<String, TaskSuggestion> resolved = new LinkedHashMap<>();
+        Map<String, String> missing = new LinkedHashMap<>();
+        for (Pending p : batch) {
+            String key = contentHash(p.title());
+            TaskSuggestion cached = cache.get(key);
+            CacheLookupEvent.emit("suggestions", cached != null);
+            if (cached != null) resolved.put(key, cached);
+            else missing.putIfAbsent(key, p.title());
+        }
+        if (!missing.isEmpty()) {
+            List<String> titles = new ArrayList<>(missing.values());
+            CompletableFuture<List<TaskSuggestion>> call =
+                    CompletableFuture.supplyAsync(() -> model.suggest(titles), inference);
+            try {
+                List<TaskSuggestion> suggestions = call.get(timeoutMillis, TimeUnit.MILLISECONDS);
+                int i = 0;
+                for (String key : missing.keySet()) {
+                    TaskSuggestion suggestion = suggestions.get(i++);
+                    cache.put(key, suggestion);
+                    resolved.put(key, suggestion);
+                }
+            } catch (TimeoutException e) {
+                call.cancel(true);
+                abandonInference();
+                log.warn("Task suggestion inference timed out for {} titles", titles.size());
+            } catch (ExecutionException e) {
+                log.warn("Task suggestion inference failed for {} titles: {}", titles.size(), e.toString());
+            }
+        }
+        if (resolved.isEmpty()) return;
+        shardRouter.routeByUser(batch, Pending::userId, (shard, pending) ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (Pending p : pending) {
+                        TaskSuggestion suggestion = resolved.get(contentHash(p.title()));
+                        if (suggestion == null) continue;
+                        Long duplicateOf = findDuplicate(p);
+                        repository.applySuggestion(p.taskId(), suggestion.category(), suggestion.priority(), duplicateOf);
+                    }
+                }));
+    }
+
+    private Long findDuplicate(Pending p) {
+        if (p.userId() == null) return null;
+        List<Long> ids = repository.findSameTitleIds(p.userId(), p.taskId(), normalize(p.title()), PageRequest.of(0, 1));
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    static String normalize(String title) {
+        return title.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static String contentHash(String title) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalize(title).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // The hung thread keeps running until the call returns, but no longer holds up the queue
+    private void abandonInference() {
+        ExecutorService hung = inference;
+        inference = newInferenceExecutor();
+        hung.shutdownNow();
+        abandoned.incrementAndGet();
+    }
+
+    private static ExecutorService newInferenceExecutor() {
+        return Executors.newSingleThreadExecutor(daemon("task-suggestion-inference"));
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.todo.service.suggestion;
+
+import java.util.List;
+
+/**
+ * Pluggable inference backend for task suggestions.
+ * Declare a bean of this type to replace the built-in {@link KeywordTaskSuggestionService}.
+ */
+public interface TaskSuggestionService {
+
+    /**
+     * Classifies a batch of titles in one call.
+     * Must return exactly one suggestion per title, in the same order.
+     */
+    List<TaskSuggestion> suggest(List<String> titles);
+}
@@ -0,0 +1,168 @@
+package com.example.todo.service.sync;
+
+import com.example.todo.dto.SyncMutation;
+import com.example.todo.dto.SyncResult;
+import com.example.todo.dto.TaskResponse;
+import com.example.todo.model.SyncReceipt;
+import com.example.todo.model.Task;
+import com.example.todo.model.User;
+import com.example.todo.repository.SyncReceiptRepository;
+import com.example.todo.service.TaskService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Applies a batch of queued client mutations (POST /api/tasks/sync) in order, in one
+ * transaction. Every applied mutation leaves a {@link SyncReceipt}; a key that already
+ * has one is answered from it instead of being applied again, so a client may resend
+ * a batch whose response it never saw. Receipts are kept for the retention period only,
+ * so a mutation queued before that is answered EXPIRED: its receipt may already be gone,
+ * and applying it again could duplicate it. Changes go through {@link TaskService}, so
+ * counters, ranks and change events behave exactly as for the single-task endpoints.
+ */
+@Service
+public class SyncService {
+
+    private final TaskService taskService;
+    private final SyncReceiptRepository receipts;
+    private final Duration receiptRetention;
+    private final int maxBatchSize;
+
+    public SyncService(TaskService taskService, SyncReceiptRepository receipts,
+                       @Value("${todo.sync.receipt-retention:P7D}") Duration receiptRetention,
+                       @Value("${todo.sync.max-batch-size:500}") int maxBatchSize) {
+        this.taskService = taskService;
+        this.receipts = receipts;
+        this.receiptRetention = receiptRetention;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public int maxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Results are in request order. The saved, created and deleted lists only cover
+     * mutations applied by this call, for the caller's after-commit bookkeeping.
+     */
+    public record SyncBatch(List<SyncResult> results, List<Task> saved, List<Task> created, List<Long> deletedIds) {}
+
+    @Transactional
+    public SyncBatch apply(User user, List<SyncMutation> mutations) {
+        Long userId = user.getId();
+        LocalDateTime now = LocalDateTime.now();
+        // Expired receipts of this user go first; the index on (user_id, applied_at) keeps this cheap
+        receipts.deleteAppliedBefore(userId, now.minus(receiptRetention));
+
+        Map<String, SyncReceipt> receiptsByKey = new HashMap<>();
+        List<String> keys = mutations.stream().map(SyncMutation::idempotencyKey).distinct().toList();
+        for (SyncReceipt receipt : receipts.findByKeys(userId, keys)) receiptsByKey.put(receipt.getIdempotencyKey(), receipt);
+        Map<String, Long> clientIds = new HashMap<>();
+        List<String> referenced = mutations.stream()
+                .filter(m -> m.op() != SyncMutation.Op.CREATE && m.id() == null && m.clientId() != null)
+                .map(SyncMutation::clientId).distinct().toList();
+        if (!referenced.isEmpty()) {
+            for (SyncReceipt receipt : receipts.findByClientIds(userId, referenced)) {
+                clientIds.put(receipt.getClientId(), receipt.getTaskId());
+            }
+        }
+
+        Map<Long, Task> saved = new LinkedHashMap<>();
+        List<Task> created = new ArrayList<>();
+        Set<Long> deleted = new HashSet<>();
+        List<SyncReceipt> outcomes = new ArrayList<>(mutations.size());
+        Instant oldestAccepted = Instant.now().minus(receiptRetention);
+        for (SyncMutation mutation : mutations) {
+            SyncReceipt receipt = receiptsByKey.get(mutation.idempotencyKey());
+            if (receipt == null && mutation.queuedAt() != null && mutation.queuedAt().isBefore(oldestAccepted)) {
+                // Not saved: the answer follows from queuedAt alone
+                receipt = new SyncReceipt(userId, mutation.idempotencyKey(), null, null,
+                        SyncResult.Status.EXPIRED.name(), now);
+            } else if (receipt == null) {
+                Applied applied = switch (mutation.op()) {
+                    case CREATE -> create(mutation, user, clientIds, saved, created);
+                    case UPDATE -> update(mutation, user, clientIds, saved);
+                    case DELETE -> delete(mutation, user, clientIds, saved, deleted);
+                };
+                receipt = receipts.save(new SyncReceipt(userId, mutation.idempotencyKey(),
+                        mutation.op() == SyncMutation.Op.CREATE ? mutation.clientId() : null,
+                        applied.taskId(), applied.status().name(), now));
+                receiptsByKey.put(mutation.idempotencyKey(), receipt);
+            }
+            outcomes.add(receipt);
+        }
+
+        List<SyncResult> results = new ArrayList<>(outcomes.size());
+        for (int i = 0; i < outcomes.size(); i++) {
+            SyncReceipt receipt = outcomes.get(i);
+            Long taskId = receipt.getTaskId();
+            Task task = taskId == null || deleted.contains(taskId) ? null
+                    : saved.containsKey(taskId) ? saved.get(taskId) : liveTask(taskId, user).orElse(null);
+            results.add(new SyncResult(receipt.getIdempotencyKey(), mutations.get(i).clientId(),
+                    SyncResult.Status.valueOf(receipt.getStatus()), task == null ? null : TaskResponse.from(task)));
+        }
+        return new SyncBatch(results, List.copyOf(saved.values()),
+                created.stream().filter(task -> !deleted.contains(task.getId())).toList(), List.copyOf(deleted));
+    }
+
+    private record Applied(Long taskId, SyncResult.Status status) {}
+
+    private Applied create(SyncMutation mutation, User user, Map<String, Long> clientIds,
+                           Map<Long, Task> saved, List<Task> created) {
+        if (mutation.title() == null || mutation.title().isBlank()) return new Applied(null, SyncResult.Status.INVALID);
+        Task task = new Task(null, mutation.title(), Boolean.TRUE.equals(mutation.completed()));
+        if (mutation.priority() != null) task.setPriority(mutation.priority());
+        task.setDate(mutation.date());
+        Task createdTask = taskService.create(task, user);
+        if (mutation.clientId() != null) clientIds.put(mutation.clientId(), createdTask.getId());
+        saved.put(createdTask.getId(), createdTask);
+        created.add(createdTask);
+        return new Applied(createdTask.getId(), SyncResult.Status.APPLIED);
+    }
+
+    // Title and completed only, as for PUT /api/tasks/{id}
+    private Applied update(SyncMutation mutation, User user, Map<String, Long> clientIds, Map<Long, Task> saved) {
+        Long taskId = resolve(mutation, clientIds);
+        Optional<Task> existing = liveTask(taskId, user);
+        if (existing.isEmpty()) return new Applied(taskId, SyncResult.Status.NOT_FOUND);
+        Task patch = new Task(null,
+                mutation.title() != null ? mutation.title() : existing.get().getTitle(),
+                mutation.completed() != null ? mutation.completed() : existing.get().isCompleted());
+        taskService.update(taskId, patch).ifPresent(task -> saved.put(task.getId(), task));
+        return new Applied(taskId, SyncResult.Status.APPLIED);
+    }
+
+    private Applied delete(SyncMutation mutation, User user, Map<String, Long> clientIds,
+                           Map<Long, Task> saved, Set<Long> deleted) {
+        Long taskId = resolve(mutation, clientIds);
+        if (liveTask(taskId, user).isEmpty() || deleted.contains(taskId) || !taskService.delete(taskId)) {
+            return new Applied(taskId, SyncResult.Status.NOT_FOUND);
+        }
+        saved.remove(taskId);
+        deleted.add(taskId);
+        return new Applied(taskId, SyncResult.Status.APPLIED);
+    }
+
+    private static Long resolve(SyncMutation mutation, Map<String, Long> clientIds) {
+        return mutation.id() != null ? mutation.id() : clientIds.get(mutation.clientId());
+    }
+
+    private Optional<Task> liveTask(Long taskId, User user) {
+        if (taskId == null) return Optional.empty();
+        return taskService.findById(taskId).filter(task -> task.getDeletedAt() == null
+                && task.getUser() != null && task.getUser().getId().equals(user.getId()));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.todo.service.tree;
+
+/**
+ * Materialized paths for the subtask hierarchy. A path is the ids of the task's
+ * ancestors and of the task itself, root first, each as a fixed-width base-36
+ * segment. Every descendant's path starts with the task's path, so a subtree is a
+ * single prefix range of the (user_id, tree_path) index, and ordering by path lists
+ * it depth-first with siblings in creation order.
+ */
+public final class TaskPath {
+
+    static final int SEGMENT = 13; // Long.MAX_VALUE in base 36
+
+    private TaskPath() {
+    }
+
+    public static String root(long id) {
+        return segment(id);
+    }
+
+    public static String child(String parentPath, long id) {
+        return parentPath + segment(id);
+    }
+
+    public static String sibling(String siblingPath, long id) {
+        return parentPrefix(siblingPath) + segment(id);
+    }
+
+    /** Path of the task's parent, empty for a root task. */
+    public static String parentPrefix(String path) {
+        return path.substring(0, path.length() - SEGMENT);
+    }
+
+    /** Depth below the root, 0 for a root task. */
+    public static int depth(String path) {
+        return path.length() / SEGMENT - 1;
+    }
+
+    // Paths only contain [0-9a-z], so no LIKE escaping is needed
+    public static String subtreePattern(String path) {
+        return path + "%";
+    }
+
+    public static boolean isWithin(String path, String ancestorPath) {
+        return path.startsWith(ancestorPath);
+    }
+
+    private static String segment(long id) {
+        String digits = Long.toString(id, 36);
+        return "0".repeat(SEGMENT - digits.length()) + digits;
+    }
+}
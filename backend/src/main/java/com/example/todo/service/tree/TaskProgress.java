@@ -0,0 +1,13 @@
+package com.example.todo.service.tree;
+
+/**
+ * Completion roll-up of a task's live subtasks at any depth. A task without
+ * subtasks counts as 0% or 100% depending on its own state.
+ */
+public record TaskProgress(long taskId, long subtasks, long completedSubtasks, int percent) {
+
+    static TaskProgress of(long taskId, boolean completed, long subtasks, long completedSubtasks) {
+        int percent = subtasks == 0 ? (completed ? 100 : 0) : (int) (completedSubtasks * 100 / subtasks);
+        return new TaskProgress(taskId, subtasks, completedSubtasks, percent);
+    }
+}
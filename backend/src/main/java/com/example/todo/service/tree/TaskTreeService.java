@@ -0,0 +1,158 @@
+package com.example.todo.service.tree;
+
+import com.example.todo.dto.TaskResponse;
+import com.example.todo.model.Task;
+import com.example.todo.model.User;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.service.TaskService;
+import com.example.todo.service.TasksChangedEvent;
+import com.example.todo.service.activity.TaskActivity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Subtask hierarchy on top of materialized paths ({@link TaskPath}). Fetching a
+ * subtree, moving one and rolling up its completion are each a single statement
+ * over the (user_id, tree_path) index, whatever the depth.
+ * Tasks created before subtasks existed have no path; they are roots without
+ * children and get one the first time they take part in the hierarchy.
+ * Deleting a task does not delete its subtasks; they are left out of tree reads
+ * while it is deleted and come back with it. When the purger archives a task, its
+ * subtasks move up one level.
+ */
+@Service
+@Transactional(readOnly = true)
+public class TaskTreeService {
+
+    private final TaskRepository repository;
+    private final TaskService taskService;
+    private final ApplicationEventPublisher events;
+    private final int maxDepth;
+
+    public TaskTreeService(TaskRepository repository, TaskService taskService, ApplicationEventPublisher events,
+                           @Value("${todo.tree.max-depth:32}") int maxDepth) {
+        this.repository = repository;
+        this.taskService = taskService;
+        this.events = events;
+        this.maxDepth = maxDepth;
+    }
+
+    /** Empty when the parent is not a live task of the user; throws when it is already at the maximum depth. */
+    @Transactional
+    public Optional<Task> createSubtask(Long parentId, Task task, User user) {
+        Optional<Task> found = findLive(parentId, user);
+        if (found.isEmpty()) return Optional.empty();
+        Task parent = found.get();
+        ensurePath(parent);
+        if (parent.getDepth() + 1 > maxDepth) {
+            throw new IllegalArgumentException("Subtasks nest at most " + maxDepth + " levels deep");
+        }
+        Task saved = taskService.create(task, user);
+        saved.setParentId(parent.getId());
+        saved.setPath(TaskPath.child(parent.getPath(), saved.getId()));
+        saved.setDepth(parent.getDepth() + 1);
+        return Optional.of(saved);
+    }
+
+    /**
+     * Moves a task with all its subtasks under another task, or to the top level when
+     * parentId is null, by rewriting the subtree's path prefix in one update.
+     * Throws when the move would create a cycle or nest deeper than the maximum.
+     */
+    @Transactional
+    public Optional<Task> reparent(Long id, Long parentId, User user) {
+        // Both rows are locked before they are read, so of two crossing moves (A under B,
+        // B under A) the second waits for the first and then sees the cycle
+        Map<Long, Task> locked = new HashMap<>();
+        for (Task row : repository.lockAll(parentId == null ? List.of(id) : new TreeSet<>(List.of(id, parentId)))) {
+            locked.put(row.getId(), row);
+        }
+        Task task = locked.get(id);
+        if (!isLive(task, user)) return Optional.empty();
+        Task parent = null;
+        if (parentId != null) {
+            parent = locked.get(parentId);
+            if (!isLive(parent, user)) return Optional.empty();
+            ensurePath(parent);
+        }
+        ensurePath(task);
+        if (Objects.equals(task.getParentId(), parentId)) return Optional.of(task);
+        if (parent != null && TaskPath.isWithin(parent.getPath(), task.getPath())) {
+            throw new IllegalArgumentException("A task cannot become a subtask of itself or of its subtasks");
+        }
+        String pattern = TaskPath.subtreePattern(task.getPath());
+        int depthShift = (parent == null ? 0 : parent.getDepth() + 1) - task.getDepth();
+        if (repository.maxSubtreeDepth(user.getId(), pattern) + depthShift > maxDepth) {
+            throw new IllegalArgumentException("Subtasks nest at most " + maxDepth + " levels deep");
+        }
+        List<Long> moved = repository.findSubtreeIds(user.getId(), pattern);
+        repository.movePaths(user.getId(), pattern, parent == null ? "" : parent.getPath(),
+                TaskPath.parentPrefix(task.getPath()).length(), depthShift);
+        repository.setParent(id, parentId);
+        events.publishEvent(new TaskActivity(id, user.getId(), TaskActivity.Action.MOVED,
+                parentId == null ? "top level" : "under " + parentId));
+        events.publishEvent(new TasksChangedEvent(moved));
+        return repository.findById(id);
+    }
+
+    public Optional<TaskProgress> progress(Long id, User user) {
+        return findLive(id, user).map(task -> {
+            if (task.getPath() == null) return TaskProgress.of(id, task.isCompleted(), 0, 0);
+            List<Object[]> rows = repository.countSubtree(user.getId(), TaskPath.subtreePattern(task.getPath()));
+            Object[] row = rows.get(0);
+            // The counts include the task itself
+            long subtasks = ((Number) row[0]).longValue() - 1;
+            long completed = ((Number) row[1]).longValue() - (task.isCompleted() ? 1 : 0);
+            return TaskProgress.of(id, task.isCompleted(), subtasks, completed);
+        });
+    }
+
+    /**
+     * Hands the task and its live subtasks, at most depth levels down, to the consumer
+     * depth-first as they are read from the cursor. Returns false, without calling the
+     * consumer, when the task is not a live task of the user.
+     */
+    public boolean forEachInSubtree(Long id, User user, Integer depth, Consumer<TaskResponse> consumer) {
+        Optional<Task> found = findLive(id, user);
+        if (found.isEmpty()) return false;
+        Task task = found.get();
+        if (task.getPath() == null) {
+            consumer.accept(TaskResponse.from(task));
+            return true;
+        }
+        int levels = depth == null ? maxDepth : Math.max(0, Math.min(depth, maxDepth));
+        try (Stream<TaskResponse> rows = repository.streamSubtree(user.getId(),
+                TaskPath.subtreePattern(task.getPath()), task.getDepth() + levels)) {
+            rows.forEach(consumer);
+        }
+        return true;
+    }
+
+    private Optional<Task> findLive(Long id, User user) {
+        return repository.findById(id).filter(t -> isLive(t, user));
+    }
+
+    private static boolean isLive(Task task, User user) {
+        return task != null && task.getDeletedAt() == null && task.getUser() != null
+                && task.getUser().getId().equals(user.getId());
+    }
+
+    // Legacy tasks become roots; flushed with the transaction (or before the next query)
+    private static void ensurePath(Task task) {
+        if (task.getPath() != null) return;
+        task.setParentId(null);
+        task.setPath(TaskPath.root(task.getId()));
+        task.setDepth(0);
+    }
+}
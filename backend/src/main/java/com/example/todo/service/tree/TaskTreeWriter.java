@@ -0,0 +1,57 @@
+package com.example.todo.service.tree;
+
+import com.example.todo.dto.TaskResponse;
+import com.example.todo.dto.TaskResponseSerializer;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * Writes depth-first task rows as one nested JSON object: each task carries a
+ * "children" array. Only the chain of currently open ancestors is kept, so memory
+ * is bounded by the depth, not by the size of the tree. Rows whose parent has not
+ * been written (their parent is deleted) are skipped along with their subtrees.
+ */
+public class TaskTreeWriter implements Consumer<TaskResponse> {
+
+    private final JsonGenerator json;
+    // Ids of the tasks whose children array is open, innermost first
+    private final Deque<Long> open = new ArrayDeque<>();
+    private boolean rootWritten;
+
+    public TaskTreeWriter(JsonGenerator json) {
+        this.json = json;
+    }
+
+    @Override
+    public void accept(TaskResponse task) {
+        try {
+            if (rootWritten) {
+                if (task.parentId() == null || !open.contains(task.parentId())) return;
+                while (!task.parentId().equals(open.peek())) close();
+            }
+            rootWritten = true;
+            json.writeStartObject();
+            TaskResponseSerializer.writeFields(json, task);
+            json.writeArrayFieldStart("children");
+            open.push(task.id());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Closes the objects still open; call once after the last row. */
+    public void finish() throws IOException {
+        while (!open.isEmpty()) close();
+    }
+
+    private void close() throws IOException {
+        open.pop();
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.todo.service.writebehind;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only redo log for acknowledged write-behind updates.
+ * Records are length-prefixed and CRC-checked, so a torn tail write is ignored on
+ * replay. The log is split into numbered segments: the flusher seals the current
+ * segment together with the in-memory snapshot it takes, and deletes sealed
+ * segments once their updates are committed to the database. With fsync on, a
+ * segment is forced when it is sealed, and appended records are forced in groups
+ * through {@link #forcer()} rather than one by one. Updates that
+ * keep failing are moved to a separate dead-letter file, which is never replayed.
+ * Not thread-safe; WriteBehindQueue serializes access, except for running a forcer.
+ */
+public class MutationLog implements AutoCloseable {
+
+    private static final String PREFIX = "wb-";
+    private static final String SUFFIX = ".log";
+    static final String DEAD_LETTER = "dead-letter.log";
+
+    private final Path dir;
+    private final boolean fsync;
+    private long segment;
+    private FileChannel channel;
+
+    public MutationLog(Path dir, boolean fsync) {
+        this.dir = dir;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(dir);
+            this.segment = segments().stream().mapToLong(MutationLog::segmentNumber).max().orElse(0) + 1;
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void append(PendingUpdate update) {
+        try {
+            ByteBuffer record = encode(update);
+            while (record.hasRemaining()) channel.write(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns an action that forces the records appended so far. It may run without
+     * the caller's lock: if the segment is sealed in the meantime, sealing has forced them.
+     */
+    public Runnable forcer() {
+        FileChannel current = channel;
+        return () -> {
+            try {
+                current.force(false);
+            } catch (ClosedChannelException e) {
+                // Sealed or closed since, which forced it (a forcer is only used with fsync on)
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    /** Appends updates to the dead-letter file and forces it, whatever the fsync setting. */
+    public void deadLetter(Collection<PendingUpdate> updates) {
+        try (FileChannel out = FileChannel.open(dir.resolve(DEAD_LETTER),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (PendingUpdate update : updates) {
+                ByteBuffer record = encode(update);
+                while (record.hasRemaining()) out.write(record);
+            }
+            out.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Reads the dead-letter file, oldest first. */
+    public List<PendingUpdate> deadLetters() {
+        Path path = dir.resolve(DEAD_LETTER);
+        if (!Files.exists(path)) return List.of();
+        try {
+            return readAll(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ByteBuffer encode(PendingUpdate update) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(update.getTaskId());
+        out.writeLong(update.getUserId());
+        out.writeBoolean(update.getTitle() != null);
+        if (update.getTitle() != null) out.writeUTF(update.getTitle());
+        out.writeByte(update.getCompleted() == null ? -1 : update.getCompleted() ? 1 : 0);
+        out.writeBoolean(update.getPriority() != null);
+        if (update.getPriority() != null) out.writeInt(update.getPriority());
+        byte[] payload = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(12 + payload.length);
+        record.putInt(payload.length).putLong(crc.getValue()).put(payload).flip();
+        return record;
+    }
+
+    /** Forces (with fsync on) and closes the current segment, and starts a new one; returns the sealed segment number. */
+    public long seal() {
+        try {
+            if (fsync) channel.force(false);
+            channel.close();
+            long sealed = segment++;
+            open();
+            return sealed;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Deletes every segment up to and including the given one. */
+    public void deleteUpTo(long sealed) {
+        try {
+            for (Path path : segments()) {
+                if (segmentNumber(path) <= sealed) Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Reads all intact records of all segments, oldest first. */
+    public List<PendingUpdate> replay() {
+        List<PendingUpdate> updates = new ArrayList<>();
+        try {
+            for (Path path : segments()) updates.addAll(readAll(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return updates;
+    }
+
+    private static List<PendingUpdate> readAll(Path path) throws IOException {
+        List<PendingUpdate> updates = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            while (true) {
+                PendingUpdate update = read(in);
+                if (update == null) break;
+                updates.add(update);
+            }
+        }
+        return updates;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (fsync) channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static PendingUpdate read(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            long checksum = in.readLong();
+            if (length <= 0 || length > 1 << 20) return null;
+            byte[] payload = in.readNBytes(length);
+            if (payload.length < length) return null;
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if (crc.getValue() != checksum) return null;
+            DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+            long taskId = record.readLong();
+            long userId = record.readLong();
+            String title = record.readBoolean() ? record.readUTF() : null;
+            byte completed = record.readByte();
+            Integer priority = record.readBoolean() ? record.readInt() : null;
+            return new PendingUpdate(taskId, userId, title, completed < 0 ? null : completed == 1, priority);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(dir.resolve(PREFIX + segment + SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(PREFIX)
+                            && p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)))
+                    .toList();
+        }
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
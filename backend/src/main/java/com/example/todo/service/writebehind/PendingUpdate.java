@@ -0,0 +1,58 @@
+package com.example.todo.service.writebehind;
+
+/**
+ * Coalesced field updates for one task that are waiting to be flushed.
+ * A null field means "not changed"; merging keeps the newest value per field.
+ */
+public class PendingUpdate {
+    private final Long taskId;
+    private final Long userId;
+    private String title;
+    private Boolean completed;
+    private Integer priority;
+    // Failed flushes so far; kept when newer updates are merged in
+    private int attempts;
+
+    public PendingUpdate(Long taskId, Long userId, String title, Boolean completed, Integer priority) {
+        this.taskId = taskId;
+        this.userId = userId;
+        this.title = title;
+        this.completed = completed;
+        this.priority = priority;
+    }
+
+    /** Applies a newer update on top of this one (last write wins per field). */
+    public void merge(PendingUpdate newer) {
+        if (newer.title != null) title = newer.title;
+        if (newer.completed != null) completed = newer.completed;
+        if (newer.priority != null) priority = newer.priority;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public Boolean getCompleted() {
+        return completed;
+    }
+
+    public Integer getPriority() {
+        return priority;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    void recordFailure() {
+        attempts++;
+    }
+}
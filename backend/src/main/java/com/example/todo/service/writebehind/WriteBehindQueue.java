@@ -0,0 +1,306 @@
+package com.example.todo.service.writebehind;
+
+import com.example.todo.service.TaskService;
+import com.example.todo.shard.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in write-behind mode for small task updates (toggle, rename, reorder).
+ * Updates are acknowledged once they are in the per-user pending map and, with
+ * the log enabled, appended to the MutationLog and (with fsync on) forced to disk:
+ * submitters that arrive while a force is running wait for the next one, so one
+ * force covers all of them (group commit). Updates to the same task coalesce field
+ * by field, and everything pending is flushed in one transaction every flush
+ * interval. Logged updates are replayed at startup; those that cannot be applied
+ * go to the dead-letter log instead of failing the start.
+ * When a group commit fails its updates are requeued and, on later flushes, retried
+ * one transaction each (after a growing pause), so one bad update cannot hold back
+ * the others; an update that fails maxAttempts times goes to the dead-letter log.
+ */
+@Component
+public class WriteBehindQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindQueue.class);
+    private static final long MAX_BACKOFF_MILLIS = 60_000;
+
+    private final TaskService taskService;
+    private final ShardRouter shardRouter;
+    private final boolean enabled;
+    private final boolean logEnabled;
+    private final Path logDir;
+    private final boolean fsync;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final Object lock = new Object();
+    // Flusher only: consecutive failed flushes, and when the next flush may run after one
+    private int failedFlushes;
+    private long retryAtMillis;
+    // userId -> (taskId -> pending), insertion ordered per user
+    private Map<Long, LinkedHashMap<Long, PendingUpdate>> pending = new HashMap<>();
+    private MutationLog mutationLog;
+    // Group commit: updates logged so far (under lock), and how many of them are known to be forced
+    private long logged;
+    private final Object forceLock = new Object();
+    private long forced;
+    private boolean forcing;
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    public WriteBehindQueue(TaskService taskService,
+                            ShardRouter shardRouter,
+                            @Value("${todo.write-behind.enabled:false}") boolean enabled,
+                            @Value("${todo.write-behind.log.enabled:true}") boolean logEnabled,
+                            @Value("${todo.write-behind.log.dir:./data/write-behind}") Path logDir,
+                            @Value("${todo.write-behind.log.fsync:true}") boolean fsync,
+                            @Value("${todo.write-behind.max-attempts:10}") int maxAttempts,
+                            @Value("${todo.write-behind.retry-backoff-ms:1000}") long retryBackoffMillis) {
+        this.taskService = taskService;
+        this.shardRouter = shardRouter;
+        this.enabled = enabled;
+        this.logEnabled = logEnabled;
+        this.logDir = logDir;
+        this.fsync = fsync;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMillis = retryBackoffMillis;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled || !logEnabled) return;
+        mutationLog = new MutationLog(logDir, fsync);
+        List<PendingUpdate> replayed = mutationLog.replay();
+        if (!replayed.isEmpty()) {
+            Map<Long, PendingUpdate> merged = new LinkedHashMap<>();
+            for (PendingUpdate update : replayed) {
+                merged.merge(update.getTaskId(), update, (older, newer) -> { older.merge(newer); return older; });
+            }
+            int dead = replay(merged.values());
+            log.info("Replayed {} write-behind updates for {} tasks, {} dead-lettered", replayed.size(), merged.size(), dead);
+        }
+        mutationLog.deleteUpTo(mutationLog.seal());
+    }
+
+    // Applies replayed updates, one by one if the group commit fails; returns how many were dead-lettered
+    private int replay(Collection<PendingUpdate> updates) {
+        try {
+            applyByShard(updates);
+            return 0;
+        } catch (RuntimeException e) {
+            log.warn("Replay of {} write-behind updates failed, applying them one by one", updates.size(), e);
+        }
+        List<PendingUpdate> dead = new ArrayList<>();
+        for (PendingUpdate update : updates) {
+            try {
+                applyByShard(List.of(update));
+            } catch (RuntimeException e) {
+                update.recordFailure();
+                dead.add(update);
+            }
+        }
+        if (!dead.isEmpty()) deadLetter(dead);
+        return dead.size();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (!enabled) return;
+        flush();
+        if (mutationLog != null) mutationLog.close();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns once the update is durable according to the configured mode: with the
+     * log and fsync on, after a force that covers its record.
+     */
+    public void submit(PendingUpdate update) {
+        submitAll(List.of(update));
+    }
+
+    /** Like {@link #submit}, with one wait for the whole batch. */
+    public void submitAll(Collection<PendingUpdate> updates) {
+        long sequence = 0;
+        synchronized (lock) {
+            for (PendingUpdate update : updates) {
+                if (mutationLog != null) {
+                    mutationLog.append(update);
+                    sequence = ++logged;
+                }
+                pending.computeIfAbsent(update.getUserId(), id -> new LinkedHashMap<>())
+                        .merge(update.getTaskId(), update, (older, newer) -> {
+                            older.merge(newer);
+                            return older;
+                        });
+            }
+        }
+        if (sequence > 0 && fsync) awaitForced(sequence);
+    }
+
+    // Waits for a force covering the sequence; the first waiter forces for everyone logged by then
+    private void awaitForced(long sequence) {
+        while (true) {
+            synchronized (forceLock) {
+                while (forcing && forced < sequence) {
+                    try {
+                        forceLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted before the update was forced", e);
+                    }
+                }
+                if (forced >= sequence) return;
+                forcing = true;
+            }
+            long upTo = 0;
+            try {
+                Runnable force;
+                synchronized (lock) {
+                    upTo = logged;
+                    force = mutationLog.forcer();
+                }
+                force.run();
+            } catch (RuntimeException e) {
+                upTo = 0;
+                throw e;
+            } finally {
+                synchronized (forceLock) {
+                    forced = Math.max(forced, upTo);
+                    forcing = false;
+                    forceLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /** Snapshot of the user's queued updates by task id, for overlaying onto streamed reads. */
+    public Map<Long, PendingUpdate> pendingFor(Long userId) {
+        synchronized (lock) {
+            LinkedHashMap<Long, PendingUpdate> userPending = pending.get(userId);
+            if (userPending == null || userPending.isEmpty()) return Map.of();
+            Map<Long, PendingUpdate> mine = new HashMap<>();
+            for (PendingUpdate update : userPending.values()) {
+                mine.put(update.getTaskId(), new PendingUpdate(update.getTaskId(), userId,
+                        update.getTitle(), update.getCompleted(), update.getPriority()));
+            }
+            return mine;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${todo.write-behind.flush-interval-ms:50}")
+    public void flush() {
+        if (!enabled || System.currentTimeMillis() < retryAtMillis) return;
+        Map<Long, LinkedHashMap<Long, PendingUpdate>> batch;
+        long sealed = -1;
+        synchronized (lock) {
+            if (pending.isEmpty()) return;
+            batch = pending;
+            pending = new HashMap<>();
+            if (mutationLog != null) sealed = mutationLog.seal();
+        }
+        List<PendingUpdate> fresh = new ArrayList<>();
+        List<PendingUpdate> retried = new ArrayList<>();
+        batch.values().forEach(userPending -> userPending.values()
+                .forEach(update -> (update.getAttempts() == 0 ? fresh : retried).add(update)));
+        List<PendingUpdate> failed = new ArrayList<>();
+        if (!fresh.isEmpty()) {
+            try {
+                applyByShard(fresh);
+            } catch (RuntimeException e) {
+                log.warn("Write-behind flush of {} updates failed, will retry", fresh.size(), e);
+                failed.addAll(fresh);
+            }
+        }
+        for (PendingUpdate update : retried) {
+            try {
+                applyByShard(List.of(update));
+            } catch (RuntimeException e) {
+                failed.add(update);
+            }
+        }
+        if (!failed.isEmpty() && !retryLater(failed)) return;
+        failedFlushes = 0;
+        if (sealed >= 0) mutationLog.deleteUpTo(sealed);
+    }
+
+    // Requeues failed updates and backs off; returns true when none were requeued (all dead-lettered)
+    private boolean retryLater(List<PendingUpdate> failed) {
+        Map<Long, LinkedHashMap<Long, PendingUpdate>> retry = new HashMap<>();
+        List<PendingUpdate> dead = new ArrayList<>();
+        for (PendingUpdate update : failed) {
+            update.recordFailure();
+            if (update.getAttempts() >= maxAttempts) {
+                dead.add(update);
+            } else {
+                retry.computeIfAbsent(update.getUserId(), id -> new LinkedHashMap<>()).put(update.getTaskId(), update);
+            }
+        }
+        if (!dead.isEmpty()) deadLetter(dead);
+        if (retry.isEmpty()) return true;
+        requeue(retry);
+        failedFlushes++;
+        retryAtMillis = System.currentTimeMillis()
+                + Math.min(MAX_BACKOFF_MILLIS, retryBackoffMillis << Math.min(failedFlushes - 1, 20));
+        return false;
+    }
+
+    private void deadLetter(List<PendingUpdate> dead) {
+        synchronized (lock) {
+            if (mutationLog != null) mutationLog.deadLetter(dead);
+        }
+        for (PendingUpdate update : dead) {
+            log.error("Write-behind update of task {} for user {} failed {} times; moved to the dead-letter log",
+                    update.getTaskId(), update.getUserId(), update.getAttempts());
+        }
+        deadLettered.addAndGet(dead.size());
+    }
+
+    /** Updates given up on after maxAttempts failed flushes. */
+    public long getDeadLetterCount() {
+        return deadLettered.get();
+    }
+
+    // One group commit per shard; re-applying an update is harmless if a later shard fails
+    private void applyByShard(Collection<PendingUpdate> updates) {
+        shardRouter.routeByUser(updates, PendingUpdate::getUserId, (shard, shardUpdates) -> taskService.applyPending(shardUpdates));
+    }
+
+    // Puts a failed batch back underneath anything submitted since
+    private void requeue(Map<Long, LinkedHashMap<Long, PendingUpdate>> batch) {
+        synchronized (lock) {
+            for (Map.Entry<Long, LinkedHashMap<Long, PendingUpdate>> entry : batch.entrySet()) {
+                LinkedHashMap<Long, PendingUpdate> current = pending.get(entry.getKey());
+                LinkedHashMap<Long, PendingUpdate> restored = entry.getValue();
+                if (current != null) {
+                    current.forEach((taskId, newer) -> restored.merge(taskId, newer, (older, n) -> {
+                        older.merge(n);
+                        return older;
+                    }));
+                }
+                pending.put(entry.getKey(), restored);
+            }
+        }
+    }
+
+    int pendingCount() {
+        synchronized (lock) {
+            return pending.values().stream().mapToInt(Map::size).sum();
+        }
+    }
+}
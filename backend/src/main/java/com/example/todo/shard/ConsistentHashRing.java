@@ -0,0 +1,46 @@
+package com.example.todo.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring with virtual nodes.
+ * Adding a shard only takes over the key ranges next to its virtual nodes,
+ * so roughly 1/N of the users move instead of nearly all of them.
+ */
+public class ConsistentHashRing {
+
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+
+    public ConsistentHashRing(Collection<String> shards, int virtualNodes) {
+        if (shards.isEmpty()) throw new IllegalArgumentException("At least one shard is required");
+        for (String shard : shards) {
+            for (int v = 0; v < virtualNodes; v++) {
+                ring.put(hash((shard + "#" + v).getBytes(StandardCharsets.UTF_8)), shard);
+            }
+        }
+    }
+
+    public String shardFor(long key) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(mix(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    private static long hash(byte[] bytes) {
+        // FNV-1a, then the same finalizer as for numeric keys
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.todo.shard;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Moves one user's rows to another shard while the rest of the system keeps running.
+ * Rows are copied in id-ordered batches under the user's write lock, so only that
+ * user's requests and per-user background work wait. The shard map is switched
+ * before the lock is released, and the source rows are deleted in batches afterwards.
+ * Jobs that scan a whole shard are held off both shards for the whole move, since
+ * they would otherwise write to rows that are being copied or deleted. Task ids do
+ * not change. Single node only, see {@link ShardRouter}.
+ */
+public class ReshardingService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReshardingService.class);
+
+    // Per-user tables, copied parents first
+    static final List<String> USER_TABLES = List.of("task", "task_archive", "sync_receipt");
+
+    private final ShardRouter router;
+
+    public ReshardingService(ShardRouter router) {
+        this.router = router;
+    }
+
+    /** Returns the number of rows copied per table. */
+    public Map<String, Integer> moveUser(Long userId, String target, int batchSize) {
+        if (router.dataSource(target) == null) throw new IllegalArgumentException("Unknown shard " + target);
+        String source = router.shardFor(userId);
+        if (source.equals(target)) return Map.of();
+        JdbcTemplate from = new JdbcTemplate(router.dataSource(source));
+        JdbcTemplate to = new JdbcTemplate(router.dataSource(target));
+        Map<String, Integer> copied = new LinkedHashMap<>();
+        Lock lock = router.lockFor(userId).writeLock();
+        lock.lock();
+        // User lock first, then the shard locks in name order, so two moves cannot deadlock
+        List<Lock> scans = new ArrayList<>();
+        try {
+            for (String shard : new TreeSet<>(List.of(source, target))) {
+                Lock scan = router.lockForShard(shard).writeLock();
+                scan.lock();
+                scans.add(scan);
+            }
+            try {
+                router.ensureUser(target, userId);
+                for (String table : USER_TABLES) copied.put(table, copy(from, to, table, userId, batchSize));
+                copied.put("task_day_count", copyCounters(from, to, userId));
+                router.assign(userId, target);
+            } finally {
+                lock.unlock();
+            }
+            from.update("delete from task_day_count where user_id = ?", userId);
+            for (String table : USER_TABLES.reversed()) deleteInBatches(from, table, userId, batchSize);
+        } finally {
+            for (Lock scan : scans) scan.unlock();
+        }
+        log.info("Moved user {} from {} to {}: {}", userId, source, target, copied);
+        return copied;
+    }
+
+    private static int copy(JdbcTemplate from, JdbcTemplate to, String table, Long userId, int batchSize) {
+        long lastId = Long.MIN_VALUE;
+        int total = 0;
+        while (true) {
+            List<Long> ids = RowCopier.merge(from, to, table,
+                    "user_id = ? and id > ? order by id limit ?", userId, lastId, batchSize);
+            total += ids.size();
+            if (ids.size() < batchSize) return total;
+            lastId = ids.get(ids.size() - 1);
+        }
+    }
+
+    // Stats counters have a composite key and one row per date, so they go in a single batch
+    private static int copyCounters(JdbcTemplate from, JdbcTemplate to, Long userId) {
+        List<Object[]> rows = from.query("select user_id, task_date, total, completed from task_day_count "
+                + "where user_id = ?", (rs, i) -> new Object[]{
+                rs.getLong(1), rs.getObject(2), rs.getLong(3), rs.getLong(4)}, userId);
+        if (!rows.isEmpty()) {
+            to.batchUpdate("merge into task_day_count (user_id, task_date, total, completed) "
+                    + "key (user_id, task_date) values (?, ?, ?, ?)", rows);
+        }
+        return rows.size();
+    }
+
+    private static void deleteInBatches(JdbcTemplate jdbc, String table, Long userId, int batchSize) {
+        while (true) {
+            List<Long> ids = jdbc.queryForList(
+                    "select id from " + table + " where user_id = ? order by id limit ?", Long.class, userId, batchSize);
+            if (ids.isEmpty()) return;
+            String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+            jdbc.update("delete from " + table + " where id in (" + placeholders + ")", ids.toArray());
+        }
+    }
+}
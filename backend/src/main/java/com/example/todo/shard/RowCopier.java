@@ -0,0 +1,47 @@
+package com.example.todo.shard;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.jdbc.support.rowset.SqlRowSetMetaData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Copies rows between shards without knowing the table's columns in advance.
+ * Uses H2's MERGE ... KEY(ID), so re-running a copy is idempotent.
+ */
+final class RowCopier {
+
+    private RowCopier() {}
+
+    /**
+     * Copies the rows matched by {@code select * from table where <where>} and
+     * returns their ids in result order.
+     */
+    static List<Long> merge(JdbcTemplate source, JdbcTemplate target, String table, String where, Object... args) {
+        SqlRowSet rows = source.queryForRowSet("select * from " + table + " where " + where, args);
+        SqlRowSetMetaData meta = rows.getMetaData();
+        int columns = meta.getColumnCount();
+        List<String> names = new ArrayList<>(columns);
+        int idColumn = -1;
+        for (int i = 1; i <= columns; i++) {
+            names.add(meta.getColumnName(i));
+            if ("ID".equalsIgnoreCase(meta.getColumnName(i))) idColumn = i;
+        }
+        if (idColumn < 0) throw new IllegalArgumentException("Table " + table + " has no ID column");
+        String sql = "merge into " + table + " (" + String.join(", ", names) + ") key (id) values ("
+                + String.join(", ", Collections.nCopies(columns, "?")) + ")";
+        List<Object[]> batch = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        while (rows.next()) {
+            Object[] values = new Object[columns];
+            for (int i = 1; i <= columns; i++) values[i - 1] = rows.getObject(i);
+            batch.add(values);
+            ids.add(((Number) rows.getObject(idColumn)).longValue());
+        }
+        if (!batch.isEmpty()) target.batchUpdate(sql, batch);
+        return ids;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.todo.shard;
+
+import com.example.todo.model.User;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Routes each request of a logged-in user to that user's shard, holding the
+ * user's read lock so a resharding cut-over waits for in-flight requests.
+ */
+public class ShardInterceptor implements HandlerInterceptor {
+
+    private static final String LOCK_ATTRIBUTE = ShardInterceptor.class.getName() + ".lock";
+
+    private final ShardRouter router;
+
+    public ShardInterceptor(ShardRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!router.isSharded()) return true;
+        HttpSession session = request.getSession(false);
+        Object attribute = session != null ? session.getAttribute("user") : null;
+        if (!(attribute instanceof User user) || user.getId() == null) return true;
+        Lock lock = router.lockFor(user.getId()).readLock();
+        lock.lock();
+        request.setAttribute(LOCK_ATTRIBUTE, lock);
+        String shard = router.shardFor(user.getId());
+        router.ensureUser(shard, user.getId());
+        ShardContext.set(shard);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ShardContext.clear();
+        Object lock = request.getAttribute(LOCK_ATTRIBUTE);
+        if (lock instanceof Lock held) {
+            request.removeAttribute(LOCK_ATTRIBUTE);
+            held.unlock();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.todo.shard;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Decides which shard holds a user's tasks.
+ * Explicit assignments in the shard_map table (written by resharding) win over
+ * the consistent hash ring. The first shard is the primary: it stores users and
+ * the shard map, and is the only shard when sharding is disabled.
+ * <p>
+ * Single node only: the assignment cache and the migration locks live in this JVM,
+ * so with more than one instance a resharding run on one node would not stop writes
+ * from the others, which would keep writing to the old shard. Run one instance while
+ * sharding is enabled.
+ * <p>
+ * Every write to a user's tasks has to hold that user's migration lock (read side)
+ * and pick the shard while holding it: requests do so in {@link ShardInterceptor},
+ * per-user background work through {@link #onUserShard} and {@link #routeByUser}.
+ * Jobs that scan a whole shard hold the shard's lock in {@link #forEachShard}
+ * instead, which a move takes for both of its shards.
+ */
+public class ShardRouter {
+
+    public static final String PRIMARY = "shard0";
+
+    private final Map<String, DataSource> shards;
+    private final ConsistentHashRing ring;
+    private final JdbcTemplate directory;
+    private final Map<Long, String> assignments = new ConcurrentHashMap<>();
+    private final Map<Long, ReentrantReadWriteLock> userLocks = new ConcurrentHashMap<>();
+    private final Map<String, ReentrantReadWriteLock> shardLocks = new ConcurrentHashMap<>();
+    // shard + ":" + user id -> when the user's row was last copied to that shard
+    private final Map<String, Long> replicatedUsers = new ConcurrentHashMap<>();
+    private final long userRefreshMillis;
+
+    public ShardRouter(Map<String, DataSource> shards, int virtualNodes, Duration userRefresh) {
+        this.shards = shards;
+        this.ring = new ConsistentHashRing(shards.keySet(), virtualNodes);
+        this.userRefreshMillis = userRefresh.toMillis();
+        this.directory = new JdbcTemplate(shards.get(PRIMARY));
+        directory.execute("create table if not exists shard_map "
+                + "(user_id bigint primary key, shard varchar(64) not null)");
+    }
+
+    private ShardRouter() {
+        this.shards = Map.of();
+        this.ring = null;
+        this.directory = null;
+        this.userRefreshMillis = 0;
+    }
+
+    /** Router for the unsharded setup: everything runs on the primary DataSource. */
+    public static ShardRouter single() {
+        return new ShardRouter();
+    }
+
+    public boolean isSharded() {
+        return ring != null;
+    }
+
+    public List<String> shardIds() {
+        return isSharded() ? new ArrayList<>(shards.keySet()) : List.of(PRIMARY);
+    }
+
+    public DataSource dataSource(String shard) {
+        return shards.get(shard);
+    }
+
+    public String shardFor(Long userId) {
+        if (!isSharded() || userId == null) return PRIMARY;
+        return assignments.computeIfAbsent(userId, id -> {
+            List<String> mapped = directory.queryForList(
+                    "select shard from shard_map where user_id = ?", String.class, id);
+            return mapped.isEmpty() ? ring.shardFor(id) : mapped.get(0);
+        });
+    }
+
+    /** Runs work routed to the given user's shard, holding the user's migration lock. */
+    public <T> T onUserShard(Long userId, Supplier<T> work) {
+        if (!isSharded() || userId == null) return ShardContext.callOn(PRIMARY, work);
+        Lock lock = lockFor(userId).readLock();
+        lock.lock();
+        try {
+            String shard = shardFor(userId);
+            ensureUser(shard, userId);
+            return ShardContext.callOn(shard, work);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs work once per shard for items owned by several users, e.g. a batch of queued
+     * updates. The owners' migration locks are held while the shards are picked and the
+     * work runs, so no item is written to a shard its user has just left.
+     */
+    public <T> void routeByUser(Collection<T> items, Function<T, Long> userOf, BiConsumer<String, List<T>> work) {
+        List<Lock> held = new ArrayList<>();
+        try {
+            if (isSharded()) {
+                Set<Long> userIds = new TreeSet<>();
+                for (T item : items) {
+                    Long userId = userOf.apply(item);
+                    if (userId != null) userIds.add(userId);
+                }
+                for (Long userId : userIds) {
+                    Lock lock = lockFor(userId).readLock();
+                    lock.lock();
+                    held.add(lock);
+                }
+            }
+            Map<String, List<T>> byShard = new LinkedHashMap<>();
+            for (T item : items) {
+                Long userId = userOf.apply(item);
+                String shard = shardFor(userId);
+                if (userId != null) ensureUser(shard, userId);
+                byShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(item);
+            }
+            byShard.forEach((shard, shardItems) -> ShardContext.runOn(shard, () -> work.accept(shard, shardItems)));
+        } finally {
+            for (Lock lock : held) lock.unlock();
+        }
+    }
+
+    /** Runs work once per shard, e.g. background jobs that scan all tasks, holding the shard's migration lock. */
+    public void forEachShard(Runnable work) {
+        for (String shard : shardIds()) {
+            Lock lock = lockForShard(shard).readLock();
+            lock.lock();
+            try {
+                ShardContext.runOn(shard, work);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** Writers to a user's tasks hold the read lock; resharding takes the write lock for the copy and cut-over. */
+    public ReentrantReadWriteLock lockFor(Long userId) {
+        return userLocks.computeIfAbsent(userId, id -> new ReentrantReadWriteLock());
+    }
+
+    /** Shard-wide scans hold the read lock; resharding takes the write lock of both shards for the whole move. */
+    ReentrantReadWriteLock lockForShard(String shard) {
+        return shardLocks.computeIfAbsent(shard, id -> new ReentrantReadWriteLock());
+    }
+
+    /**
+     * Makes sure the user's row exists on the shard, since tasks reference users by foreign key.
+     * Shards other than the primary hold a read-only copy of the row, which is copied again
+     * once it is older than todo.sharding.user-refresh.
+     */
+    public void ensureUser(String shard, Long userId) {
+        if (!isSharded() || PRIMARY.equals(shard)) return;
+        String key = shard + ":" + userId;
+        long now = System.currentTimeMillis();
+        Long copiedAt = replicatedUsers.get(key);
+        if (copiedAt != null && now - copiedAt < userRefreshMillis) return;
+        RowCopier.merge(directory, new JdbcTemplate(shards.get(shard)), "users", "id = ?", userId);
+        replicatedUsers.put(key, now);
+    }
+
+    /** Makes the next {@link #ensureUser} copy the row again; call after changing a user on the primary. */
+    public void invalidateUser(Long userId) {
+        replicatedUsers.keySet().removeIf(key -> key.endsWith(":" + userId));
+    }
+
+    void assign(Long userId, String shard) {
+        directory.update("merge into shard_map (user_id, shard) key (user_id) values (?, ?)", userId, shard);
+        assignments.put(userId, shard);
+    }
+}
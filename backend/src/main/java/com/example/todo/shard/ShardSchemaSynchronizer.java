@@ -0,0 +1,56 @@
+package com.example.todo.shard;
+
+import com.example.todo.model.Task;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Brings secondary shards to the same schema as the primary.
+ * The primary is migrated by spring.jpa.hibernate.ddl-auto as usual. Each other
+ * shard gets a short-lived Hibernate bootstrap with hbm2ddl=update and the same
+ * naming strategies. Its id sequences are then moved into a disjoint range, so
+ * task ids stay globally unique and survive resharding unchanged.
+ */
+final class ShardSchemaSynchronizer {
+
+    static final int ID_RANGE_BITS = 40;
+
+    private ShardSchemaSynchronizer() {}
+
+    static void sync(int shardIndex, DataSource shard) {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(shard);
+        factory.setPackagesToScan(Task.class.getPackageName());
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "update",
+                "hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName(),
+                "hibernate.implicit_naming_strategy", SpringImplicitNamingStrategy.class.getName()));
+        factory.setPersistenceUnitName("shard-schema-" + shardIndex);
+        factory.afterPropertiesSet();
+        factory.destroy();
+        offsetSequences(shardIndex, new JdbcTemplate(shard));
+    }
+
+    // Hibernate's pooled optimizer hands out the increment ids up to each sequence value, so the
+    // first value is floor + increment for the first id to be floor + 1
+    private static void offsetSequences(int shardIndex, JdbcTemplate jdbc) {
+        long floor = (long) shardIndex << ID_RANGE_BITS;
+        List<Map<String, Object>> sequences = jdbc.queryForList("select sequence_name, base_value, increment "
+                + "from information_schema.sequences where sequence_schema = 'PUBLIC'");
+        for (Map<String, Object> sequence : sequences) {
+            long next = ((Number) sequence.get("BASE_VALUE")).longValue();
+            long increment = ((Number) sequence.get("INCREMENT")).longValue();
+            if (next < floor + increment) {
+                jdbc.execute("alter sequence \"" + sequence.get("SEQUENCE_NAME") + "\" restart with " + (floor + increment));
+            }
+        }
+    }
+}
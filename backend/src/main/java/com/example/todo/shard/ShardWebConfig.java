@@ -0,0 +1,25 @@
+package com.example.todo.shard;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class ShardWebConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<ShardRouter> router;
+
+    public ShardWebConfig(ObjectProvider<ShardRouter> router) {
+        this.router = router;
+    }
+
+    // Sliced tests (e.g. @WebMvcTest) have no router; there is nothing to route then
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        ShardRouter shardRouter = router.getIfAvailable();
+        if (shardRouter != null) {
+            registry.addInterceptor(new ShardInterceptor(shardRouter)).addPathPatterns("/api/tasks/**");
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.todo.shard;
+
+import com.example.todo.profiling.SqlEventDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Wiring for task storage sharding. Disabled by default, in which case the
+ * standard Spring Boot DataSource is used and the router has a single shard.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Configuration
+    @ConditionalOnProperty(name = "todo.sharding.enabled", havingValue = "true")
+    static class Sharded {
+
+        @Bean
+        @Primary
+        ShardRoutingDataSource dataSource(DataSourceProperties primary, ShardingProperties sharding) {
+            Map<String, DataSource> shards = new LinkedHashMap<>();
+            shards.put(ShardRouter.PRIMARY, new SqlEventDataSource(primary.initializeDataSourceBuilder().build()));
+            sharding.getShards().forEach((name, url) -> shards.put(name, new SqlEventDataSource(DataSourceBuilder.create()
+                    .driverClassName(primary.getDriverClassName())
+                    .url(url)
+                    .username(primary.getUsername())
+                    .password(primary.getPassword())
+                    .build())));
+            return new ShardRoutingDataSource(ShardRouter.PRIMARY, shards);
+        }
+
+        // Depends on the EntityManagerFactory so the primary schema exists before shards are synced
+        @Bean
+        ShardRouter shardRouter(ShardRoutingDataSource dataSource, ShardingProperties sharding,
+                                EntityManagerFactory entityManagerFactory) {
+            int index = 0;
+            for (Map.Entry<String, DataSource> shard : dataSource.getShards().entrySet()) {
+                if (index > 0) ShardSchemaSynchronizer.sync(index, shard.getValue());
+                index++;
+            }
+            return new ShardRouter(dataSource.getShards(), sharding.getVirtualNodes(), sharding.getUserRefresh());
+        }
+
+        @Bean
+        ReshardingService reshardingService(ShardRouter shardRouter) {
+            return new ReshardingService(shardRouter);
+        }
+
+        @Bean
+        ShardsEndpoint shardsEndpoint(ShardRouter shardRouter, ReshardingService reshardingService) {
+            return new ShardsEndpoint(shardRouter, reshardingService);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "todo.sharding.enabled", havingValue = "false", matchIfMissing = true)
+    static class Unsharded {
+
+        @Bean
+        ShardRouter shardRouter() {
+            return ShardRouter.single();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.todo.shard;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * todo.sharding.* settings. The primary shard ("shard0") is spring.datasource;
+ * additional shards are listed as todo.sharding.shards.&lt;name&gt;=&lt;jdbc url&gt;.
+ */
+@ConfigurationProperties(prefix = "todo.sharding")
+public class ShardingProperties {
+
+    private boolean enabled;
+    private int virtualNodes = 128;
+    // How long a shard's copy of a user row is trusted before ensureUser copies it again
+    private Duration userRefresh = Duration.ofMinutes(5);
+    private Map<String, String> shards = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    public void setVirtualNodes(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+
+    public Duration getUserRefresh() {
+        return userRefresh;
+    }
+
+    public void setUserRefresh(Duration userRefresh) {
+        this.userRefresh = userRefresh;
+    }
+
+    public Map<String, String> getShards() {
+        return shards;
+    }
+
+    public void setShards(Map<String, String> shards) {
+        this.shards = shards;
+    }
+}
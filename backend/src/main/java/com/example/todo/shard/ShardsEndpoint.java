@@ -0,0 +1,42 @@
+package com.example.todo.shard;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for the resharding tool.
+ * GET /actuator/shards lists task counts per shard.
+ * POST /actuator/shards with {"userId": 1, "target": "shard1"} moves a user.
+ */
+@Endpoint(id = "shards")
+public class ShardsEndpoint {
+
+    private final ShardRouter router;
+    private final ReshardingService resharding;
+
+    public ShardsEndpoint(ShardRouter router, ReshardingService resharding) {
+        this.router = router;
+        this.resharding = resharding;
+    }
+
+    @ReadOperation
+    public Map<String, Long> taskCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (String shard : router.shardIds()) {
+            counts.put(shard, new JdbcTemplate(router.dataSource(shard))
+                    .queryForObject("select count(*) from task", Long.class));
+        }
+        return counts;
+    }
+
+    @WriteOperation
+    public Map<String, Integer> move(long userId, String target, @Nullable Integer batchSize) {
+        return resharding.moveUser(userId, target, batchSize != null ? batchSize : 500);
+    }
+}
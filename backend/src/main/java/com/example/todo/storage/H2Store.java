@@ -0,0 +1,77 @@
+package com.example.todo.storage;
+
+import org.h2.engine.SessionLocal;
+import org.h2.jdbc.JdbcConnection;
+import org.h2.mvstore.MVStore;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Function;
+
+/**
+ * One embedded, file-backed H2 database. Backups go through SQL; statistics and
+ * compaction need the MVStore underneath the connection, which only exists when
+ * the database runs in this JVM.
+ */
+final class H2Store {
+
+    private final String name;
+    private final DataSource dataSource;
+
+    H2Store(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    String name() {
+        return name;
+    }
+
+    /** False for in-memory and server (TCP) databases, which are not ours to back up. */
+    boolean isEmbeddedFile() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            String url = connection.getMetaData().getURL();
+            if (!url.startsWith("jdbc:h2:") || url.startsWith("jdbc:h2:mem:") || url.startsWith("jdbc:h2:tcp:")
+                    || url.startsWith("jdbc:h2:ssl:")) {
+                return false;
+            }
+            return connection.isWrapperFor(JdbcConnection.class);
+        }
+    }
+
+    /**
+     * Online backup into a zip file. The MVStore keeps appending while the file is
+     * copied (space is not reused until the copy is done), so writers are not blocked.
+     */
+    void backupTo(Path zip) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("BACKUP TO '" + zip.toAbsolutePath().toString().replace("'", "''") + "'");
+        }
+    }
+
+    StoreStats stats() throws SQLException {
+        return withMvStore(store -> new StoreStats(store.getFileStore().size(), store.getFillRate(),
+                store.getFileStore().getChunksFillRate()));
+    }
+
+    /**
+     * Rewrites partly live chunks until the fill rate reaches the target, writing
+     * roughly writeBudget bytes at most. Returns whether anything was rewritten.
+     */
+    boolean compact(int targetFillRate, int writeBudget) throws SQLException {
+        return withMvStore(store -> store.compact(targetFillRate, writeBudget));
+    }
+
+    private <T> T withMvStore(Function<MVStore, T> work) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            SessionLocal session = (SessionLocal) connection.unwrap(JdbcConnection.class).getSession();
+            return work.apply(session.getDatabase().getStore().getMvStore());
+        }
+    }
+
+    /** File size in bytes; fill rates in percent of live data in the file and in its chunks. */
+    record StoreStats(long fileSize, int fillRate, int chunksFillRate) {}
+}
@@ -0,0 +1,18 @@
+package com.example.todo.storage;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Exposes {@link StorageManager} as the "storage" Actuator endpoint.
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.storage.enabled", havingValue = "true", matchIfMissing = true)
+public class StorageConfig {
+
+    @Bean
+    StorageEndpoint storageEndpoint(StorageManager storageManager) {
+        return new StorageEndpoint(storageManager);
+    }
+}
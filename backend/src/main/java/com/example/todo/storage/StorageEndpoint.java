@@ -0,0 +1,36 @@
+package com.example.todo.storage;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint for the embedded database files.
+ * GET /actuator/storage shows file size, fill rate and the last backup and compaction per shard.
+ * POST /actuator/storage with {"action": "backup"} or {"action": "compact"} runs one now.
+ */
+@Endpoint(id = "storage")
+public class StorageEndpoint {
+
+    private final StorageManager storage;
+
+    public StorageEndpoint(StorageManager storage) {
+        this.storage = storage;
+    }
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> status() {
+        return storage.status();
+    }
+
+    @WriteOperation
+    public Map<String, ?> run(String action) {
+        return switch (action) {
+            case "backup" -> storage.backup();
+            case "compact" -> storage.compact();
+            default -> Map.of("error", "Unknown action: " + action);
+        };
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.todo.storage;
+
+import com.example.todo.shard.ShardRouter;
+import org.h2.tools.Restore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.ZipFile;
+
+/**
+ * Keeps the embedded H2 files (one per shard) backed up and compact while the
+ * application runs. Backups are written under a temporary name and renamed when
+ * complete, optionally verified by restoring them into a scratch directory, and
+ * only the newest few are kept, whether or not the verification succeeded. Compaction rewrites partly live chunks a bounded
+ * number of bytes at a time, so it never competes with requests for long.
+ * In-memory and remote databases are skipped.
+ */
+@Component
+@ConditionalOnProperty(name = "todo.storage.enabled", havingValue = "true", matchIfMissing = true)
+public class StorageManager {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageManager.class);
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+    static final String PREFIX = "backup-";
+    static final String SUFFIX = ".zip";
+
+    private final DataSource dataSource;
+    private final ShardRouter shardRouter;
+    private final Path dir;
+    private final int keep;
+    private final boolean verify;
+    private final String username;
+    private final String password;
+    private final int targetFillRate;
+    private final int compactWriteBytes;
+    private final Clock clock;
+    private final Map<String, BackupInfo> lastBackups = new ConcurrentHashMap<>();
+    private final Map<String, CompactionInfo> lastCompactions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StorageManager(DataSource dataSource, ShardRouter shardRouter,
+                          @Value("${todo.storage.backup.dir:./data/backups}") Path dir,
+                          @Value("${todo.storage.backup.keep:7}") int keep,
+                          @Value("${todo.storage.backup.verify:true}") boolean verify,
+                          @Value("${spring.datasource.username:sa}") String username,
+                          @Value("${spring.datasource.password:}") String password,
+                          @Value("${todo.storage.compact.target-fill-rate:80}") int targetFillRate,
+                          @Value("${todo.storage.compact.write-bytes:16777216}") int compactWriteBytes) {
+        this(dataSource, shardRouter, dir, keep, verify, username, password, targetFillRate, compactWriteBytes,
+                Clock.systemUTC());
+    }
+
+    StorageManager(DataSource dataSource, ShardRouter shardRouter, Path dir, int keep, boolean verify,
+                   String username, String password, int targetFillRate, int compactWriteBytes, Clock clock) {
+        this.dataSource = dataSource;
+        this.shardRouter = shardRouter;
+        this.dir = dir;
+        this.keep = Math.max(1, keep);
+        this.verify = verify;
+        this.username = username;
+        this.password = password;
+        this.targetFillRate = targetFillRate;
+        this.compactWriteBytes = compactWriteBytes;
+        this.clock = clock;
+    }
+
+    /**
+     * One completed backup. {@code verifiedTables} is null when verification is off
+     * or failed; {@code verifyError} says why it failed.
+     */
+    public record BackupInfo(String file, Instant at, long bytes, long millis, Integer verifiedTables,
+                             String verifyError) {}
+
+    public record CompactionInfo(Instant at, boolean rewritten, int fillRateBefore, int fillRateAfter,
+                                 long fileSizeBefore, long fileSizeAfter) {}
+
+    /** Backs up every file-backed store; returns the new backups by shard. */
+    @Scheduled(fixedDelayString = "${todo.storage.backup.interval-ms:21600000}",
+            initialDelayString = "${todo.storage.backup.initial-delay-ms:600000}")
+    public synchronized Map<String, BackupInfo> backup() {
+        Map<String, BackupInfo> done = new LinkedHashMap<>();
+        for (H2Store store : stores()) {
+            try {
+                BackupInfo info = backup(store);
+                lastBackups.put(store.name(), info);
+                done.put(store.name(), info);
+            } catch (SQLException | IOException | RuntimeException e) {
+                log.warn("Backup of {} failed", store.name(), e);
+            }
+        }
+        return done;
+    }
+
+    private BackupInfo backup(H2Store store) throws SQLException, IOException {
+        Path shardDir = Files.createDirectories(dir.resolve(store.name()));
+        Instant at = clock.instant();
+        Path target = shardDir.resolve(PREFIX + STAMP.format(at) + SUFFIX);
+        Path partial = shardDir.resolve(target.getFileName() + ".part");
+        long start = System.nanoTime();
+        store.backupTo(partial);
+        Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        Integer tables = null;
+        String verifyError = null;
+        if (verify) {
+            try {
+                tables = verify(target, username, password);
+            } catch (SQLException | IOException | RuntimeException e) {
+                verifyError = e.toString();
+                log.warn("Backup {} of {} could not be verified", target, store.name(), e);
+            }
+        }
+        prune(shardDir);
+        log.info("Backed up {} to {} ({} bytes, {} ms)", store.name(), target, Files.size(target), millis);
+        return new BackupInfo(target.toString(), at, Files.size(target), millis, tables, verifyError);
+    }
+
+    /**
+     * Restores the backup into a scratch directory and opens it read-only with the
+     * given credentials. Returns the number of tables found; throws when the backup
+     * cannot be opened.
+     */
+    public static int verify(Path backup, String username, String password) throws IOException, SQLException {
+        Path scratch = Files.createTempDirectory("todo-restore-");
+        try {
+            String database = restore(backup, scratch);
+            String url = "jdbc:h2:file:" + scratch.resolve(database).toAbsolutePath() + ";ACCESS_MODE_DATA=r";
+            try (Connection connection = DriverManager.getConnection(url, username, password);
+                 Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery(
+                         "select count(*) from information_schema.tables where table_schema = 'PUBLIC'")) {
+                rows.next();
+                return rows.getInt(1);
+            }
+        } finally {
+            deleteRecursively(scratch);
+        }
+    }
+
+    /** Unpacks a backup into the directory; returns the database name to open it with. */
+    public static String restore(Path backup, Path directory) throws IOException {
+        String database;
+        try (ZipFile zip = new ZipFile(backup.toFile())) {
+            database = zip.stream().map(e -> Path.of(e.getName()).getFileName().toString())
+                    .filter(name -> name.endsWith(".mv.db")).findFirst()
+                    .map(name -> name.substring(0, name.length() - ".mv.db".length()))
+                    .orElseThrow(() -> new IOException("No database file in " + backup));
+        }
+        Restore.execute(backup.toString(), directory.toString(), null);
+        return database;
+    }
+
+    private void prune(Path shardDir) throws IOException {
+        List<Path> backups;
+        try (Stream<Path> files = Files.list(shardDir)) {
+            backups = files.filter(p -> p.getFileName().toString().startsWith(PREFIX)
+                            && p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparing(p -> p.getFileName().toString()))
+                    .toList();
+        }
+        for (int i = 0; i < backups.size() - keep; i++) Files.deleteIfExists(backups.get(i));
+    }
+
+    /** Rewrites at most about the write budget per store; returns the results by shard. */
+    @Scheduled(fixedDelayString = "${todo.storage.compact.interval-ms:600000}",
+            initialDelayString = "${todo.storage.compact.initial-delay-ms:300000}")
+    public synchronized Map<String, CompactionInfo> compact() {
+        Map<String, CompactionInfo> done = new LinkedHashMap<>();
+        for (H2Store store : stores()) {
+            try {
+                H2Store.StoreStats before = store.stats();
+                boolean rewritten = before.fillRate() < targetFillRate && store.compact(targetFillRate, compactWriteBytes);
+                H2Store.StoreStats after = store.stats();
+                CompactionInfo info = new CompactionInfo(clock.instant(), rewritten, before.fillRate(), after.fillRate(),
+                        before.fileSize(), after.fileSize());
+                lastCompactions.put(store.name(), info);
+                done.put(store.name(), info);
+            } catch (SQLException | RuntimeException e) {
+                log.warn("Compaction of {} failed", store.name(), e);
+            }
+        }
+        return done;
+    }
+
+    /** Per shard: file size, fill rates, and the last backup and compaction. */
+    public Map<String, Map<String, Object>> status() {
+        Map<String, Map<String, Object>> status = new LinkedHashMap<>();
+        for (H2Store store : stores()) {
+            Map<String, Object> shard = new LinkedHashMap<>();
+            try {
+                H2Store.StoreStats stats = store.stats();
+                shard.put("fileSize", stats.fileSize());
+                shard.put("fillRate", stats.fillRate());
+                shard.put("chunksFillRate", stats.chunksFillRate());
+            } catch (SQLException | RuntimeException e) {
+                shard.put("error", e.getMessage());
+            }
+            shard.put("lastBackup", lastBackups.get(store.name()));
+            shard.put("lastCompaction", lastCompactions.get(store.name()));
+            status.put(store.name(), shard);
+        }
+        return status;
+    }
+
+    private List<H2Store> stores() {
+        List<H2Store> stores = new ArrayList<>();
+        if (!shardRouter.isSharded()) {
+            addIfEmbedded(stores, new H2Store(ShardRouter.PRIMARY, dataSource));
+        } else {
+            for (String shard : shardRouter.shardIds()) addIfEmbedded(stores, new H2Store(shard, shardRouter.dataSource(shard)));
+        }
+        return stores;
+    }
+
+    private static void addIfEmbedded(List<H2Store> stores, H2Store store) {
+        try {
+            if (store.isEmbeddedFile()) stores.add(store);
+        } catch (SQLException e) {
+            log.warn("Cannot inspect {}", store.name(), e);
+        }
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(path);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
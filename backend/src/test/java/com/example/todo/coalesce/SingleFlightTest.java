@@ -0,0 +1,142 @@
+package com.example.todo.coalesce;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, byte[]> flights = new SingleFlight<>();
+
+    @Test
+    void concurrentCallers_shareOneLoadAndTheSameResult() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<byte[]> leader = pool.submit(() -> flights.execute("user-1", () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return new byte[]{1, 2, 3};
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            List<Future<byte[]>> followers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                followers.add(pool.submit(() -> flights.execute("user-1", () -> {
+                    loads.incrementAndGet();
+                    return new byte[0];
+                })));
+            }
+            // Followers have joined once they are parked on the leader's future
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (flights.waiting("user-1") < 3) {
+                assertTrue(System.nanoTime() < deadline, "followers did not join the flight");
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            byte[] shared = leader.get(5, TimeUnit.SECONDS);
+            for (Future<byte[]> follower : followers) assertSame(shared, follower.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+            assertEquals(0, flights.inFlight());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedLoad_isNotRemembered() {
+        assertThrows(IllegalStateException.class, () -> flights.execute("k", () -> {
+            throw new IllegalStateException("db down");
+        }));
+
+        assertArrayEquals(new byte[]{9}, flights.execute("k", () -> new byte[]{9}));
+    }
+
+    @Test
+    void mutationTracker_bypassesWhileActiveAndMovesGenerationOnEnd() {
+        UserMutationTracker tracker = new UserMutationTracker(Duration.ofMinutes(1));
+        long before = tracker.generation(1L);
+
+        tracker.begin(1L);
+        assertTrue(tracker.isMutating(1L));
+        assertFalse(tracker.isMutating(2L));
+        tracker.end(1L);
+
+        assertFalse(tracker.isMutating(1L));
+        assertEquals(before + 1, tracker.generation(1L));
+    }
+
+    @Test
+    void mutationTracker_dropsIdleUsersWithoutMovingTheirGenerationBack() {
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        UserMutationTracker tracker = new UserMutationTracker(Duration.ofMinutes(1), clock);
+        tracker.begin(1L);
+        tracker.end(1L);
+        long afterMutation = tracker.generation(1L);
+        tracker.begin(2L);
+
+        clock.advance(Duration.ofMinutes(2));
+        tracker.begin(3L);
+        tracker.end(3L);
+
+        // User 1 is dropped, user 2 is still mutating and user 3 has just finished
+        assertEquals(2, tracker.trackedUsers());
+        assertTrue(tracker.isMutating(2L));
+        assertTrue(tracker.generation(1L) >= afterMutation);
+        tracker.begin(1L);
+        tracker.end(1L);
+        assertTrue(tracker.generation(1L) > afterMutation);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
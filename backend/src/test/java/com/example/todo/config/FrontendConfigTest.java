@@ -0,0 +1,64 @@
+package com.example.todo.config;
+
+import com.example.todo.controller.AuthController;
+import com.example.todo.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.forwardedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// src/test/resources/frontend-fixture stands in for the bundled frontend build. It is
+// not under static/, so FrontendConfig stays off in every other test.
+@WebMvcTest(AuthController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@TestPropertySource(properties = {
+        "todo.frontend.location=classpath:/frontend-fixture/",
+        "spring.web.resources.static-locations=classpath:/frontend-fixture/"
+})
+class FrontendConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserService userService;
+
+    @Test
+    void hashedAssetsAreImmutable() throws Exception {
+        mockMvc.perform(get("/static/js/main.0a1b2c3d.js"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=31536000")));
+    }
+
+    @Test
+    void precompressedVariantIsServedWhenAccepted() throws Exception {
+        mockMvc.perform(get("/static/js/main.0a1b2c3d.js").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, containsString("Accept-Encoding")));
+    }
+
+    @Test
+    void clientRoutesForwardToAppShell() throws Exception {
+        mockMvc.perform(get("/login"))
+                .andExpect(status().isOk())
+                .andExpect(forwardedUrl("/index.html"));
+    }
+
+    @Test
+    void apiRoutesAreNotShadowed() throws Exception {
+        mockMvc.perform(get("/api/auth/user"))
+                .andExpect(status().isUnauthorized());
+    }
+}
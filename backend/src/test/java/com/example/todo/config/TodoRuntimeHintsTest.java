@@ -0,0 +1,25 @@
+package com.example.todo.config;
+
+import com.example.todo.model.Task;
+import com.example.todo.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TodoRuntimeHintsTest {
+
+    @Test
+    void registersEntitiesForReflection() throws Exception {
+        RuntimeHints hints = new RuntimeHints();
+        new TodoRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Task.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(User.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(Task.class.getMethod("setTitle", String.class)).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onField(User.class.getDeclaredField("email")).test(hints));
+    }
+}
@@ -1,8 +1,12 @@
 package com.example.todo.controller;
 
+import com.example.todo.dto.TaskResponse;
 import com.example.todo.model.Task;
+import com.example.todo.model.TaskDayCount;
 import com.example.todo.model.User;
+import com.example.todo.repository.TaskDayCountRepository;
 import com.example.todo.repository.TaskRepository;
+import com.example.todo.service.suggestion.TaskSuggestionQueue;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
@@ -13,16 +17,36 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
-
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@SpringBootTest
+// Background jobs and the suggestion worker would call the mocked repositories while tests stub them
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:task-controller-test",
+        "todo.scheduling.enabled=false",
+        "todo.storage.enabled=false"
+})
 @AutoConfigureMockMvc(addFilters = false)
 @WithMockUser 
 class TaskControllerTest {
@@ -33,6 +57,24 @@ class TaskControllerTest {
     @MockBean
     private TaskRepository repository;
 
+    @MockBean
+    private TaskDayCountRepository countRepository;
+
+    @MockBean
+    private TaskSuggestionQueue suggestionQueue;
+
+    // Files the context writes go to a fresh directory under target/ instead of ./data
+    @DynamicPropertySource
+    static void dataDirectories(DynamicPropertyRegistry registry) throws IOException {
+        Path target = Files.createDirectories(Path.of("target"));
+        Path data = Files.createTempDirectory(target, "test-data");
+        registry.add("todo.search.dir", () -> data.resolve("search-index").toString());
+        registry.add("todo.activity.dir", () -> data.resolve("activity").toString());
+        registry.add("todo.write-behind.log.dir", () -> data.resolve("write-behind").toString());
+        registry.add("todo.profiling.dir", () -> data.resolve("jfr").toString());
+        registry.add("todo.storage.backup.dir", () -> data.resolve("backups").toString());
+    }
+
     private User mockUser() {
         User user = new User();
         user.setId(1L); // Add this line!
@@ -75,7 +117,7 @@ class TaskControllerTest {
         task.setUser(user);
         task.setId(100L);
 
-        Mockito.when(repository.findByUserId(anyLong())).thenReturn(List.of(task));
+        Mockito.when(repository.streamActiveByUserId(anyLong())).thenReturn(Stream.of(TaskResponse.from(task)));
 
         MockHttpSession session = new MockHttpSession();
         session.setAttribute("user", user);
@@ -83,7 +125,9 @@ class TaskControllerTest {
         mockMvc.perform(get("/api/tasks").session(session))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].title").value("Test Task"))
-                .andExpect(jsonPath("$[0].id").value(100L));
+                .andExpect(jsonPath("$[0].id").value(100L))
+                .andExpect(jsonPath("$[0].userId").value(1L))
+                .andExpect(jsonPath("$[0].user").doesNotExist());
     }
 
     @Test
@@ -96,7 +140,7 @@ class TaskControllerTest {
 
     @Test
     void deleteTask_existingId_deletesAndReturnsNoContent() throws Exception {
-        Mockito.when(repository.existsById(anyLong())).thenReturn(true);
+        Mockito.when(repository.softDelete(anyLong(), any())).thenReturn(1);
 
         mockMvc.perform(delete("/api/tasks/1"))
                 .andExpect(status().isNoContent());
@@ -104,7 +148,7 @@ class TaskControllerTest {
 
     @Test
     void deleteTask_nonExistingId_returnsNotFound() throws Exception {
-        Mockito.when(repository.existsById(anyLong())).thenReturn(false);
+        Mockito.when(repository.softDelete(anyLong(), any())).thenReturn(0);
 
         mockMvc.perform(delete("/api/tasks/2"))
                 .andExpect(status().isNotFound());
@@ -202,4 +246,110 @@ class TaskControllerTest {
                 .andExpect(jsonPath("$.title").value("New Title"))
                 .andExpect(jsonPath("$.completed").value(true));
     }
+
+    @Test
+    void restoreTask_softDeletedId_returnsNoContent() throws Exception {
+        Mockito.when(repository.restore(5L)).thenReturn(1);
+
+        mockMvc.perform(post("/api/tasks/5/restore"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void clearCompleted_softDeletesCompletedTasksOfUser() throws Exception {
+        Mockito.when(repository.softDeleteCompleted(eq(1L), any())).thenReturn(3);
+
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("user", mockUser());
+
+        mockMvc.perform(delete("/api/tasks/completed").session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(3))
+                .andExpect(jsonPath("$.deletedAt").exists());
+    }
+
+    @Test
+    void getStats_readsCountersOfSessionUser() throws Exception {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        Mockito.when(countRepository.findByUserId(1L)).thenReturn(List.of(
+                new TaskDayCount(1L, yesterday, 3, 1),
+                new TaskDayCount(1L, TaskDayCount.UNDATED, 2, 2)));
+
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("user", mockUser());
+
+        mockMvc.perform(get("/api/tasks/stats").session(session))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(5))
+                .andExpect(jsonPath("$.completed").value(3))
+                .andExpect(jsonPath("$.overdue").value(2))
+                .andExpect(jsonPath("$.byDate.length()").value(1));
+        Mockito.verify(repository, Mockito.never()).findActiveByUserId(any());
+    }
+
+    @Test
+    void getHistory_ofAnotherUsersTask_returnsNotFound() throws Exception {
+        User other = new User();
+        other.setId(2L);
+        Task task = new Task(9L, "Not yours", false);
+        task.setUser(other);
+        Mockito.when(repository.findById(9L)).thenReturn(Optional.of(task));
+
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("user", mockUser());
+
+        mockMvc.perform(get("/api/tasks/9/history").session(session))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/tasks/10/history").session(session))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getAllTasks_duringAnUpdate_doesNotJoinAListReadThatStartedBeforeIt() throws Exception {
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("user", mockUser());
+        CountDownLatch firstReadStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstRead = new CountDownLatch(1);
+        AtomicInteger reads = new AtomicInteger();
+        Mockito.when(repository.streamActiveByUserId(1L)).thenAnswer(invocation -> {
+            if (reads.incrementAndGet() > 1) return Stream.of(TaskResponse.from(new Task(1L, "After", false)));
+            firstReadStarted.countDown();
+            releaseFirstRead.await(5, TimeUnit.SECONDS);
+            return Stream.of(TaskResponse.from(new Task(1L, "Before", false)));
+        });
+        CountDownLatch updateStarted = new CountDownLatch(1);
+        CountDownLatch releaseUpdate = new CountDownLatch(1);
+        Mockito.when(repository.findById(300L)).thenAnswer(invocation -> {
+            updateStarted.countDown();
+            releaseUpdate.await(5, TimeUnit.SECONDS);
+            return Optional.empty();
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<MvcResult> firstRead = pool.submit(() -> mockMvc.perform(get("/api/tasks").session(session)).andReturn());
+            assertTrue(firstReadStarted.await(5, TimeUnit.SECONDS));
+            Future<MvcResult> update = pool.submit(() -> mockMvc.perform(put("/api/tasks/300")
+                    .session(session)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"title\":\"After\"}")).andReturn());
+            assertTrue(updateStarted.await(5, TimeUnit.SECONDS));
+
+            // During the update and after it, reads load again instead of waiting for the earlier flight
+            mockMvc.perform(get("/api/tasks").session(session))
+                    .andExpect(jsonPath("$[0].title").value("After"));
+            releaseUpdate.countDown();
+            assertEquals(404, update.get(5, TimeUnit.SECONDS).getResponse().getStatus());
+            mockMvc.perform(get("/api/tasks").session(session))
+                    .andExpect(jsonPath("$[0].title").value("After"));
+
+            releaseFirstRead.countDown();
+            assertTrue(firstRead.get(5, TimeUnit.SECONDS).getResponse().getContentAsString().contains("Before"));
+            assertEquals(3, reads.get());
+        } finally {
+            releaseFirstRead.countDown();
+            releaseUpdate.countDown();
+            pool.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,136 @@
+package com.example.todo.controller;
+
+import com.example.todo.dto.TaskResponse;
+import com.example.todo.model.Task;
+import com.example.todo.repository.TaskDayCountRepository;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.service.suggestion.TaskSuggestionQueue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+// Uncoalesced list reads against a real server, so a failure mid-body reaches the container.
+// The list buffer is larger than Tomcat's own 8 KB response buffer.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:task-list-streaming-test",
+        "todo.scheduling.enabled=false",
+        "todo.storage.enabled=false",
+        "todo.coalesce.list-reads=false",
+        "todo.coalesce.list-buffer-bytes=65536"
+})
+class TaskListStreamingTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private TaskRepository repository;
+
+    @MockBean
+    private TaskDayCountRepository countRepository;
+
+    @MockBean
+    private TaskSuggestionQueue suggestionQueue;
+
+    private HttpClient client;
+
+    @DynamicPropertySource
+    static void dataDirectories(DynamicPropertyRegistry registry) throws IOException {
+        Path target = Files.createDirectories(Path.of("target"));
+        Path data = Files.createTempDirectory(target, "test-data");
+        registry.add("todo.search.dir", () -> data.resolve("search-index").toString());
+        registry.add("todo.activity.dir", () -> data.resolve("activity").toString());
+        registry.add("todo.write-behind.log.dir", () -> data.resolve("write-behind").toString());
+        registry.add("todo.profiling.dir", () -> data.resolve("jfr").toString());
+        registry.add("todo.storage.backup.dir", () -> data.resolve("backups").toString());
+    }
+
+    @BeforeEach
+    void logIn() throws Exception {
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).cookieHandler(new CookieManager()).build();
+        String email = "stream-" + System.nanoTime() + "@example.com";
+        post("/api/auth/signup", "{\"email\":\"" + email + "\",\"password\":\"pw\",\"firstName\":\"Stream\","
+                + "\"lastName\":\"Test-" + System.nanoTime() + "\",\"dateOfBirth\":\"1990-01-01\"}");
+        assertEquals(200, post("/api/auth/login", "{\"email\":\"" + email + "\",\"password\":\"pw\"}").statusCode());
+    }
+
+    @Test
+    void getAllTasks_longerThanTheBuffer_isStreamedCompletely() throws Exception {
+        Mockito.when(repository.streamActiveByUserId(anyLong())).thenReturn(tasks(1000));
+
+        HttpResponse<String> response = get("/api/tasks");
+
+        assertEquals(200, response.statusCode());
+        assertEquals(1000, objectMapper.readTree(response.body()).size());
+    }
+
+    @Test
+    void getAllTasks_failingWithinTheBuffer_returnsAnErrorStatus() throws Exception {
+        Mockito.when(repository.streamActiveByUserId(anyLong())).thenReturn(Stream.concat(tasks(100), failure()));
+
+        HttpResponse<String> response = get("/api/tasks");
+
+        assertEquals(500, response.statusCode());
+        assertFalse(response.body().contains("\"title\""), response.body());
+    }
+
+    @Test
+    void getAllTasks_failingAfterTheBodyIsCommitted_abortsTheResponse() {
+        Mockito.when(repository.streamActiveByUserId(anyLong())).thenReturn(Stream.concat(tasks(1000), failure()));
+
+        // The client sees a broken transfer, not a 200 with a truncated list
+        assertThrows(IOException.class, () -> get("/api/tasks"));
+    }
+
+    private static Stream<TaskResponse> tasks(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            Task task = new Task();
+            task.setId((long) i + 1);
+            task.setTitle("Task number " + i + " with a title long enough to fill the buffer quickly");
+            return TaskResponse.from(task);
+        });
+    }
+
+    private static Stream<TaskResponse> failure() {
+        return Stream.<TaskResponse>generate(() -> {
+            throw new IllegalStateException("cursor lost");
+        }).limit(1);
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String json) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.todo.dto;
+
+import com.example.todo.model.Task;
+import com.example.todo.model.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskResponseSerializerTest {
+
+    // Configured like Spring Boot's ObjectMapper
+    private final ObjectMapper mapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    void handWrittenOutput_matchesReflectiveEntityFields() throws Exception {
+        User user = new User("secret", "1990-01-01", "a@example.com", "A", "B", "a");
+        user.setId(3L);
+        Task task = new Task(7L, "Pay \"rent\"", true);
+        task.setPriority(2);
+        task.setRank("0|i");
+        task.setDate(LocalDate.of(2025, 6, 1));
+        task.setRemindAt(LocalDateTime.of(2025, 6, 1, 8, 0));
+        task.setCompletedAt(LocalDateTime.of(2025, 6, 1, 9, 15, 30, 500_000_000));
+        task.setSuggestedPriority(1);
+        task.setParentId(5L);
+        task.setUser(user);
+
+        JsonNode written = mapper.readTree(mapper.writeValueAsString(TaskResponse.from(task)));
+
+        // Both sides are parsed from text, so small longs are IntNodes on each side
+        ObjectNode expected = (ObjectNode) mapper.readTree(mapper.writeValueAsString(task));
+        expected.remove("user");
+        expected.remove("deletedAt");
+        expected.remove("reminderSent");
+        expected.remove("path");
+        expected.remove("depth");
+        expected.put("userId", 3);
+        assertEquals(expected, written);
+    }
+
+    @Test
+    void nullFields_areWrittenAsNull() throws Exception {
+        JsonNode written = mapper.readTree(mapper.writeValueAsString(TaskResponse.from(new Task(1L, null, false))));
+
+        assertTrue(written.get("title").isNull());
+        assertTrue(written.get("date").isNull());
+        assertTrue(written.get("userId").isNull());
+        assertEquals(0, written.get("priority").asInt());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.todo.model;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
@@ -38,4 +39,33 @@ class TaskTest {
         assertEquals("Another Task", task.getTitle());
         assertFalse(task.isCompleted());
     }
+
+    @Test
+    void suggestionFields_areIgnoredInRequestBodies() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        Task task = mapper.readValue(
+                "{\"title\":\"Pay rent\",\"category\":\"x\",\"suggestedPriority\":1,\"duplicateOfId\":5}", Task.class);
+
+        assertEquals("Pay rent", task.getTitle());
+        assertNull(task.getCategory());
+        assertNull(task.getSuggestedPriority());
+        assertNull(task.getDuplicateOfId());
+    }
+
+    @Test
+    void serverManagedFields_areIgnoredInRequestBodies() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        Task task = mapper.readValue("{\"title\":\"Pay rent\",\"deletedAt\":\"2025-06-01T09:00:00\","
+                + "\"completedAt\":\"2025-06-01T09:00:00\",\"reminderSent\":true,\"rank\":\"a\","
+                + "\"parentId\":3,\"path\":\"x\",\"depth\":4}", Task.class);
+
+        assertEquals("Pay rent", task.getTitle());
+        assertNull(task.getDeletedAt());
+        assertNull(task.getCompletedAt());
+        assertFalse(task.isReminderSent());
+        assertNull(task.getRank());
+        assertNull(task.getParentId());
+        assertNull(task.getPath());
+        assertEquals(0, task.getDepth());
+    }
 }
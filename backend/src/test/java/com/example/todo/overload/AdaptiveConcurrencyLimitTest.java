@@ -0,0 +1,82 @@
+package com.example.todo.overload;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 100, 10, 1.5, 0.2);
+
+    // Fills the limit, then completes every request with the given latency
+    private void saturate(int windows, long rttNanos, boolean dropped) {
+        for (int w = 0; w < windows; w++) {
+            int admitted = 0;
+            while (limit.tryAcquire(RequestPriority.AUTH)) admitted++;
+            for (int i = 0; i < Math.max(admitted, 10); i++) {
+                if (i >= admitted) assertTrue(limit.tryAcquire(RequestPriority.AUTH));
+                limit.release(rttNanos, dropped);
+            }
+        }
+    }
+
+    @Test
+    void steadyLatency_growsTheLimitUpToTheMaximum() {
+        saturate(5, FAST, false);
+        assertTrue(limit.getLimit() > 20);
+
+        saturate(200, FAST, false);
+        assertEquals(100, limit.getLimit());
+    }
+
+    @Test
+    void risingLatency_shrinksTheLimit() {
+        saturate(10, FAST, false);
+        int before = limit.getLimit();
+
+        saturate(10, FAST * 4, false);
+
+        assertTrue(limit.getLimit() < before, "limit " + limit.getLimit() + " should drop below " + before);
+    }
+
+    @Test
+    void failures_backOffToTheMinimum() {
+        saturate(50, FAST, true);
+
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    void idleWindows_leaveTheLimitAlone() {
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limit.tryAcquire(RequestPriority.READ));
+            limit.release(FAST, false);
+        }
+
+        assertEquals(20, limit.getLimit());
+    }
+
+    @Test
+    void lowerPriorities_areShedFirst() {
+        int bulk = 0;
+        while (limit.tryAcquire(RequestPriority.BULK)) bulk++;
+        int writes = 0;
+        while (limit.tryAcquire(RequestPriority.WRITE)) writes++;
+        int reads = 0;
+        while (limit.tryAcquire(RequestPriority.READ)) reads++;
+        int auth = 0;
+        while (limit.tryAcquire(RequestPriority.AUTH)) auth++;
+
+        assertEquals(10, bulk);
+        assertEquals(15 - 10, writes);
+        assertEquals(18 - 15, reads);
+        assertEquals(20 - 18, auth);
+        assertEquals(20, limit.getInFlight());
+        assertEquals(1, limit.getShedCount(RequestPriority.BULK));
+        assertEquals(1, limit.getShedCount(RequestPriority.AUTH));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.todo.overload;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadSheddingFilterTest {
+
+    // Fixed at 8 so the test controls the capacity
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 8, 8, 10, 1.5, 0.2);
+    private final LoadSheddingFilter filter = new LoadSheddingFilter(limit);
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        return request;
+    }
+
+    @Test
+    void classify_separatesAuthReadsWritesAndBulkOperations() {
+        assertEquals(RequestPriority.AUTH, LoadSheddingFilter.classify(request("POST", "/api/auth/login")));
+        assertEquals(RequestPriority.READ, LoadSheddingFilter.classify(request("GET", "/api/tasks")));
+        assertEquals(RequestPriority.WRITE, LoadSheddingFilter.classify(request("PUT", "/api/tasks/1")));
+        assertEquals(RequestPriority.BULK, LoadSheddingFilter.classify(request("POST", "/api/tasks/reorder")));
+        assertEquals(RequestPriority.BULK, LoadSheddingFilter.classify(request("POST", "/api/tasks/sync")));
+        assertEquals(RequestPriority.BULK, LoadSheddingFilter.classify(request("DELETE", "/api/tasks/completed")));
+    }
+
+    @Test
+    void overload_shedsBulkWorkFirstAndFailsFastWith503() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(48);
+        try {
+            List<Future<MockHttpServletResponse>> bulk = new ArrayList<>();
+            List<Future<MockHttpServletResponse>> auth = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                bulk.add(pool.submit(() -> {
+                    MockHttpServletResponse response = new MockHttpServletResponse();
+                    filter.doFilter(request("POST", "/api/tasks/reorder"), response, (req, res) -> {
+                        peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        running.decrementAndGet();
+                    });
+                    return response;
+                }));
+            }
+            // Shed requests return at once; the admitted ones are parked in the chain
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (bulk.stream().filter(Future::isDone).count() < 36 && System.nanoTime() < deadline) Thread.sleep(10);
+            for (int i = 0; i < 4; i++) {
+                auth.add(pool.submit(() -> {
+                    MockHttpServletResponse response = new MockHttpServletResponse();
+                    filter.doFilter(request("POST", "/api/auth/login"), response, (req, res) -> {});
+                    return response;
+                }));
+            }
+            for (Future<MockHttpServletResponse> login : auth) {
+                assertEquals(200, login.get(5, TimeUnit.SECONDS).getStatus());
+            }
+            release.countDown();
+
+            int shed = 0;
+            for (Future<MockHttpServletResponse> future : bulk) {
+                MockHttpServletResponse response = future.get(5, TimeUnit.SECONDS);
+                if (response.getStatus() == 503) {
+                    shed++;
+                    assertEquals(LoadSheddingFilter.RETRY_AFTER_SECONDS, response.getHeader("Retry-After"));
+                } else {
+                    assertEquals(200, response.getStatus());
+                }
+            }
+            assertEquals(4, peak.get());
+            assertEquals(36, shed);
+            assertEquals(36, limit.getShedCount(RequestPriority.BULK));
+            assertEquals(0, limit.getShedCount(RequestPriority.AUTH));
+            assertEquals(0, limit.getInFlight());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.todo.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrEndpointTest {
+
+    @TempDir
+    Path dir;
+
+    private JfrEndpoint endpoint;
+
+    @AfterEach
+    void tearDown() {
+        if (endpoint != null) endpoint.stop();
+    }
+
+    @Test
+    void recording_capturesTheApplicationEventsAndCanBeDownloaded() throws Exception {
+        endpoint = new JfrEndpoint(dir, Duration.ofMinutes(1), 10 * 1024 * 1024);
+        assertEquals(200, endpoint.start(30L, null).getStatus());
+        assertEquals("RUNNING", endpoint.status().get("state"));
+        assertEquals(409, endpoint.start(30L, null).getStatus());
+        assertEquals(409, endpoint.download(JfrEndpoint.FILE_NAME).getStatus());
+
+        RequestHandledEvent request = new RequestHandledEvent();
+        request.begin();
+        SerializationEvent serialization = new SerializationEvent("task-list");
+        serialization.begin();
+        serialization.countTask();
+        serialization.countTask();
+        serialization.commit();
+        CacheLookupEvent.emit("task-list", true);
+        request.complete("GET", "/api/tasks", "TaskController.getAllTasks", 200, false);
+
+        Map<String, Object> stopped = endpoint.stop();
+        assertNotEquals("RUNNING", stopped.get("state"));
+        assertEquals(JfrEndpoint.FILE_NAME, stopped.get("file"));
+        assertEquals(404, endpoint.download("other.jfr").getStatus());
+        WebEndpointResponse<Resource> download = endpoint.download(JfrEndpoint.FILE_NAME);
+        assertEquals(200, download.getStatus());
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(download.getBody().getFile().toPath());
+        RecordedEvent handled = only(events, "com.example.todo.RequestHandled");
+        assertEquals("/api/tasks", handled.getString("route"));
+        assertEquals(200, handled.getInt("status"));
+        assertEquals(2, only(events, "com.example.todo.Serialization").getInt("tasks"));
+        assertTrue(only(events, "com.example.todo.CacheLookup").getBoolean("hit"));
+    }
+
+    @Test
+    void start_rejectsUnknownSettings() {
+        endpoint = new JfrEndpoint(dir, Duration.ofMinutes(1), 10 * 1024 * 1024);
+
+        assertEquals(400, endpoint.start(null, "no-such-settings").getStatus());
+        assertEquals("NONE", endpoint.status().get("state"));
+    }
+
+    private static RecordedEvent only(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+}
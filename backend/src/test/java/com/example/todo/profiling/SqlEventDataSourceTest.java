@@ -0,0 +1,80 @@
+package com.example.todo.profiling;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlEventDataSourceTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void statements_emitAnEventWithTheRowsReadOrChanged() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:sql-events;DB_CLOSE_DELAY=-1");
+        SqlEventDataSource dataSource = new SqlEventDataSource(h2);
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(SqlExecutedEvent.class);
+            recording.start();
+            try (Connection connection = dataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("create table item (id int primary key)");
+                    assertEquals(3, statement.executeUpdate("insert into item values (1), (2), (3)"));
+                }
+                try (PreparedStatement query = connection.prepareStatement("select id from item order by id");
+                     ResultSet rows = query.executeQuery()) {
+                    // Read the cursor half-way, like a stream that is closed early
+                    assertTrue(rows.next());
+                    assertTrue(rows.next());
+                }
+                try (Statement statement = connection.createStatement()) {
+                    assertThrows(SQLException.class, () -> statement.executeQuery("select * from missing"));
+                }
+                assertNotNull(connection.unwrap(org.h2.jdbc.JdbcConnection.class));
+            }
+            recording.stop();
+            Path file = dir.resolve("sql.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().equals("com.example.todo.SqlExecuted")).toList();
+        }
+
+        assertEquals(4, events.size());
+        assertEvent(events.get(0), "create table item (id int primary key)", 0, false);
+        assertEvent(events.get(1), "insert into item values (1), (2), (3)", 3, false);
+        assertEvent(events.get(2), "select id from item order by id", 2, false);
+        assertEvent(events.get(3), "select * from missing", 0, true);
+    }
+
+    @Test
+    void connections_areNotWrappedWhileNoRecordingIsRunning() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:sql-events-off");
+
+        try (Connection connection = new SqlEventDataSource(h2).getConnection()) {
+            assertInstanceOf(org.h2.jdbc.JdbcConnection.class, connection);
+        }
+    }
+
+    private static void assertEvent(RecordedEvent event, String sql, long rows, boolean failed) {
+        assertEquals(sql, event.getString("sql"));
+        assertEquals(rows, event.getLong("rows"));
+        assertEquals(failed, event.getBoolean("failed"));
+    }
+}
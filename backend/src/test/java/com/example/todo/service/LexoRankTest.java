@@ -0,0 +1,64 @@
+package com.example.todo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LexoRankTest {
+
+    @Test
+    void between_sortsStrictlyBetweenBounds() {
+        assertEquals("i", LexoRank.between(null, null));
+        assertTrue(LexoRank.between(null, "1").compareTo("1") < 0);
+        assertTrue(LexoRank.between("z", null).compareTo("z") > 0);
+        String mid = LexoRank.between("az", "b");
+        assertTrue("az".compareTo(mid) < 0 && mid.compareTo("b") < 0);
+    }
+
+    @Test
+    void between_supportsRandomInsertsWithoutRewritingNeighbours() {
+        Random random = new Random(7);
+        List<String> keys = new ArrayList<>(List.of(LexoRank.spread(10)));
+        for (int i = 0; i < 5_000; i++) {
+            int pos = random.nextInt(keys.size() + 1);
+            String lo = pos == 0 ? null : keys.get(pos - 1);
+            String hi = pos == keys.size() ? null : keys.get(pos);
+            String key = LexoRank.between(lo, hi);
+            assertTrue(lo == null || lo.compareTo(key) < 0);
+            assertTrue(hi == null || key.compareTo(hi) < 0);
+            assertFalse(key.endsWith("0"));
+            keys.add(pos, key);
+        }
+    }
+
+    @Test
+    void between_rejectsUnorderedBounds() {
+        assertThrows(IllegalArgumentException.class, () -> LexoRank.between("b", "a"));
+    }
+
+    @Test
+    void after_appendsWithoutLengtheningKeys() {
+        String key = LexoRank.after(null);
+        for (int i = 0; i < 10_000; i++) {
+            String next = LexoRank.after(key);
+            assertTrue(key.compareTo(next) < 0);
+            assertFalse(next.endsWith("0"));
+            assertTrue(next.length() <= 4);
+            key = next;
+        }
+        // A long key left by moves is followed by a short one
+        assertEquals("i002", LexoRank.after("i001iiiiiii"));
+        assertTrue(LexoRank.after("zzzz").compareTo("zzzz") > 0);
+    }
+
+    @Test
+    void spread_returnsShortIncreasingKeys() {
+        String[] keys = LexoRank.spread(1000);
+        for (int i = 1; i < keys.length; i++) assertTrue(keys[i - 1].compareTo(keys[i]) < 0);
+        assertTrue(keys[keys.length - 1].length() <= 2);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.todo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceTest {
+
+    private final LocalDateTime from = LocalDateTime.of(2025, 1, 31, 9, 0);
+
+    @Test
+    void shorthandRules() {
+        assertEquals(from.plusDays(1), Recurrence.next("daily", from));
+        assertEquals(from.plusWeeks(1), Recurrence.next("WEEKLY", from));
+        assertEquals(LocalDateTime.of(2025, 2, 28, 9, 0), Recurrence.next("MONTHLY", from));
+    }
+
+    @Test
+    void cronRule() {
+        // Every Monday at 08:30; 2025-01-31 is a Friday
+        assertEquals(LocalDateTime.of(2025, 2, 3, 8, 30), Recurrence.next("0 30 8 * * MON", from));
+    }
+
+    @Test
+    void validation() {
+        assertTrue(Recurrence.isValid(null));
+        assertTrue(Recurrence.isValid("Daily"));
+        assertTrue(Recurrence.isValid("0 0 9 * * *"));
+        assertFalse(Recurrence.isValid("every tuesday"));
+    }
+}
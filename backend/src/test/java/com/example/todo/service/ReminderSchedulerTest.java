@@ -0,0 +1,67 @@
+package com.example.todo.service;
+
+import com.example.todo.model.Task;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.shard.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReminderSchedulerTest {
+
+    private TaskRepository taskRepository;
+    private ApplicationEventPublisher publisher;
+    private ReminderScheduler scheduler;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        taskRepository = mock(TaskRepository.class);
+        publisher = mock(ApplicationEventPublisher.class);
+        TransactionTemplate tx = mock(TransactionTemplate.class);
+        when(tx.execute(any())).thenAnswer(inv -> ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(null));
+        Clock clock = Clock.fixed(Instant.parse("2025-06-01T10:00:00Z"), ZoneOffset.UTC);
+        scheduler = new ReminderScheduler(taskRepository, publisher, tx, ShardRouter.single(), clock, 2, 3);
+    }
+
+    private Task due(long id) {
+        Task task = new Task(id, "Task " + id, false);
+        task.setRemindAt(LocalDateTime.of(2025, 6, 1, 9, 0));
+        return task;
+    }
+
+    @Test
+    void tick_marksClaimedTasksSentAndPublishesEvents() {
+        Task task = due(1L);
+        when(taskRepository.claimDueReminders(any(), any(Pageable.class))).thenReturn(List.of(task));
+
+        scheduler.tick();
+
+        assertTrue(task.isReminderSent());
+        verify(publisher).publishEvent(new TaskDueEvent(1L, null, "Task 1", task.getRemindAt()));
+        verify(taskRepository, times(1)).claimDueReminders(eq(LocalDateTime.of(2025, 6, 1, 10, 0)), any(Pageable.class));
+    }
+
+    @Test
+    void tick_stopsAfterMaxBatches() {
+        when(taskRepository.claimDueReminders(any(), any(Pageable.class)))
+                .thenAnswer(inv -> List.of(due(1L), due(2L)));
+
+        scheduler.tick();
+
+        verify(taskRepository, times(3)).claimDueReminders(any(), any(Pageable.class));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.todo.service;
+
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.service.stats.TaskCounters;
+import com.example.todo.service.tree.TaskPath;
+import com.example.todo.shard.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TaskPurgerTest {
+
+    private TaskRepository taskRepository;
+    private ApplicationEventPublisher events;
+    private TaskPurger purger;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        taskRepository = mock(TaskRepository.class);
+        TransactionTemplate tx = mock(TransactionTemplate.class);
+        when(tx.execute(any())).thenAnswer(inv -> ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(null));
+        Clock clock = Clock.fixed(Instant.parse("2025-06-30T00:00:00Z"), ZoneOffset.UTC);
+        events = mock(ApplicationEventPublisher.class);
+        purger = new TaskPurger(taskRepository, mock(TaskCounters.class), events, tx,
+                ShardRouter.single(), clock, Duration.ofDays(7), Duration.ofDays(30), 2, 5);
+    }
+
+    @Test
+    void purge_archivesInBatchesUntilNoCandidatesLeft() {
+        when(taskRepository.findPurgeCandidates(any(), any(), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L), List.of(3L), List.of());
+        when(taskRepository.deleteByIds(any())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        assertEquals(3, purger.purge());
+
+        verify(taskRepository).copyToArchive(List.of(1L, 2L));
+        verify(taskRepository).copyToArchive(List.of(3L));
+        verify(taskRepository, times(2)).findPurgeCandidates(
+                eq(LocalDateTime.of(2025, 6, 23, 0, 0)), eq(LocalDateTime.of(2025, 5, 31, 0, 0)), any(Pageable.class));
+    }
+
+    @Test
+    void purge_movesSubtasksOfArchivedTasksUpOneLevel() {
+        String parent = TaskPath.root(1);
+        String child = TaskPath.child(parent, 2);
+        when(taskRepository.findPurgeCandidates(any(), any(), any(Pageable.class))).thenReturn(List.of(1L, 2L), List.of());
+        // Both are archived; 2 still has a live subtask 3, and 1 has a live subtask 4
+        when(taskRepository.findParentsAmong(List.of(1L, 2L))).thenReturn(List.of(
+                new Object[]{2L, 7L, 1L, child}, new Object[]{1L, 7L, null, parent}));
+        when(taskRepository.findSubtreeIds(7L, child + "%")).thenReturn(List.of(3L));
+        when(taskRepository.findSubtreeIds(7L, parent + "%")).thenReturn(List.of(3L, 4L));
+        when(taskRepository.deleteByIds(any())).thenReturn(2);
+
+        purger.purge();
+
+        InOrder order = inOrder(taskRepository);
+        order.verify(taskRepository).deleteByIds(List.of(1L, 2L));
+        order.verify(taskRepository).movePaths(7L, child + "%", parent, child.length(), -1);
+        order.verify(taskRepository).setParentOfChildren(2L, 1L);
+        order.verify(taskRepository).movePaths(7L, parent + "%", "", parent.length(), -1);
+        order.verify(taskRepository).setParentOfChildren(1L, null);
+        verify(events).publishEvent(new TasksChangedEvent(List.of(1L, 2L, 3L, 3L, 4L)));
+    }
+
+    @Test
+    void purge_stopsAtMaxBatches() {
+        when(taskRepository.findPurgeCandidates(any(), any(), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(taskRepository.deleteByIds(any())).thenReturn(2);
+
+        assertEquals(10, purger.purge());
+        verify(taskRepository, times(5)).copyToArchive(any());
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.todo.service;
+
+import com.example.todo.model.Task;
+import com.example.todo.model.User;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.service.stats.TaskCounters;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TaskServiceTest {
+
+    private TaskRepository taskRepository;
+    private TaskCounters counters;
+    private ApplicationEventPublisher events;
+    private TaskService taskService;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository = mock(TaskRepository.class);
+        counters = mock(TaskCounters.class);
+        events = mock(ApplicationEventPublisher.class);
+        taskService = new TaskService(taskRepository, counters, events);
+    }
+
+    @Test
+    void create_assignsUserAndSaves() {
+        User user = new User();
+        user.setId(1L);
+        Task task = new Task(null, "New", false);
+        when(taskRepository.save(task)).thenAnswer(inv -> persisted(task, 42L));
+
+        Task result = taskService.create(task, user);
+
+        assertEquals(user, result.getUser());
+        assertEquals(42L, result.getId());
+        verify(taskRepository).save(task);
+        verify(counters).created(task);
+        verify(events).publishEvent(new TasksChangedEvent(List.of(42L)));
+    }
+
+    @Test
+    void update_missingTask_returnsEmpty() {
+        when(taskRepository.findById(5L)).thenReturn(Optional.empty());
+
+        assertTrue(taskService.update(5L, new Task(null, "x", true)).isEmpty());
+        verify(taskRepository, never()).save(any());
+    }
+
+    @Test
+    void delete_existingTask_softDeletes() {
+        when(taskRepository.softDelete(eq(3L), any())).thenReturn(1);
+
+        assertTrue(taskService.delete(3L));
+        verify(taskRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void delete_decrementsCountersOnlyWhenARowWasDeleted() {
+        Task task = new Task(3L, "Done", true);
+        when(taskRepository.softDelete(eq(3L), any())).thenReturn(1, 0);
+        when(taskRepository.findById(3L)).thenReturn(Optional.of(task));
+
+        assertTrue(taskService.delete(3L));
+        assertFalse(taskService.delete(3L));
+
+        verify(counters, times(1)).removed(task);
+    }
+
+    @Test
+    void update_togglingCompleted_updatesCompletedCounter() {
+        Task existing = new Task(4L, "Open", false);
+        when(taskRepository.findById(4L)).thenReturn(Optional.of(existing));
+        when(taskRepository.save(any(Task.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        taskService.update(4L, new Task(null, "Renamed", false));
+        verify(counters, never()).completionChanged(any());
+
+        taskService.update(4L, new Task(null, "Renamed", true));
+        verify(counters).completionChanged(existing);
+    }
+
+    @Test
+    void clearCompleted_returnsCountAndUndoToken() {
+        User user = new User();
+        user.setId(1L);
+        when(taskRepository.softDeleteCompleted(eq(1L), any())).thenReturn(4);
+
+        TaskService.ClearResult result = taskService.clearCompleted(user);
+        when(taskRepository.restoreDeletedAt(1L, result.deletedAt())).thenReturn(4);
+
+        assertEquals(4, result.deleted());
+        assertEquals(4, taskService.undoClearCompleted(user, result.deletedAt()));
+    }
+
+    @Test
+    void reorder_updatesManagedEntitiesWithoutExtraSaves() {
+        Task t1 = new Task(1L, "a", false);
+        Task t2 = new Task(2L, "b", false);
+        t2.setPriority(1);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(t1));
+        when(taskRepository.findById(2L)).thenReturn(Optional.of(t2));
+
+        Task move1 = new Task(1L, null, false);
+        move1.setPriority(1);
+        Task move2 = new Task(2L, null, false);
+        move2.setPriority(0);
+        taskService.reorder(List.of(move1, move2));
+
+        assertEquals(1, t1.getPriority());
+        assertEquals(0, t2.getPriority());
+        verify(taskRepository, never()).save(any());
+    }
+
+    @Test
+    void update_completingRecurringTask_createsNextOccurrence() {
+        Task existing = new Task(7L, "Water plants", false);
+        existing.setRecurrence("WEEKLY");
+        LocalDateTime remindAt = LocalDateTime.now().plusDays(1).withNano(0);
+        existing.setRemindAt(remindAt);
+        when(taskRepository.findById(7L)).thenReturn(Optional.of(existing));
+        when(taskRepository.save(any(Task.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        taskService.update(7L, new Task(null, "Water plants", true));
+
+        ArgumentCaptor<Task> saved = ArgumentCaptor.forClass(Task.class);
+        verify(taskRepository, times(2)).save(saved.capture());
+        Task next = saved.getAllValues().get(1);
+        assertFalse(next.isCompleted());
+        assertEquals("WEEKLY", next.getRecurrence());
+        assertEquals(remindAt.plusWeeks(1), next.getRemindAt());
+        assertEquals(remindAt.plusWeeks(1).toLocalDate(), next.getDate());
+    }
+
+    @Test
+    void nextOccurrence_ofATaskCompletedLate_liesAfterNowInTheSamePhase() {
+        Task weekly = new Task(7L, "Water plants", false);
+        weekly.setRecurrence("WEEKLY");
+        weekly.setRemindAt(LocalDateTime.of(2025, 6, 2, 8, 0));
+        Task daily = new Task(8L, "Stretch", false);
+        daily.setRecurrence("DAILY");
+        daily.setDate(LocalDate.of(2025, 6, 2));
+        LocalDateTime now = LocalDateTime.of(2025, 6, 20, 12, 0);
+
+        Task nextWeekly = TaskService.nextOccurrence(weekly, now);
+        Task nextDaily = TaskService.nextOccurrence(daily, now);
+
+        assertEquals(LocalDateTime.of(2025, 6, 23, 8, 0), nextWeekly.getRemindAt());
+        assertEquals(LocalDate.of(2025, 6, 23), nextWeekly.getDate());
+        assertEquals(LocalDate.of(2025, 6, 21), nextDaily.getDate());
+    }
+
+    @Test
+    void update_completingRecurringTaskWithoutFurtherOccurrence_createsNothing() {
+        Task existing = new Task(7L, "Leap day", false);
+        existing.setRecurrence("0 0 9 30 2 *");
+        existing.setDate(LocalDate.of(2025, 6, 2));
+        when(taskRepository.findById(7L)).thenReturn(Optional.of(existing));
+        when(taskRepository.save(any(Task.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        taskService.update(7L, new Task(null, "Leap day", true));
+
+        verify(taskRepository, times(1)).save(any(Task.class));
+        assertNull(TaskService.nextOccurrence(existing, LocalDateTime.now()));
+    }
+
+    @Test
+    void move_afterADeletedTask_isRejected() {
+        User user = new User();
+        user.setId(1L);
+        Task a = new Task(1L, "a", false);
+        a.setUser(user);
+        Task deleted = new Task(2L, "b", false);
+        deleted.setUser(user);
+        deleted.setDeletedAt(LocalDateTime.of(2025, 6, 1, 9, 0));
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(a));
+        when(taskRepository.findById(2L)).thenReturn(Optional.of(deleted));
+
+        assertTrue(taskService.move(1L, 2L, user).isEmpty());
+        assertTrue(taskService.move(2L, null, user).isEmpty());
+    }
+
+    @Test
+    void create_publishesTheAssignedRank() {
+        User user = new User();
+        user.setId(1L);
+        Task task = new Task(null, "New", false);
+        when(taskRepository.findLastRanks(eq(1L), any())).thenReturn(List.of("i00z"));
+        when(taskRepository.save(task)).thenAnswer(inv -> persisted(task, 43L));
+
+        taskService.create(task, user);
+
+        assertEquals("i01", task.getRank());
+        verify(events).publishEvent(new RankAssignedEvent(1L, "i01"));
+    }
+
+    @Test
+    void move_rewritesOnlyTheMovedTasksRank() {
+        User user = new User();
+        user.setId(1L);
+        Task a = new Task(1L, "a", false);
+        a.setUser(user);
+        a.setRank("3");
+        Task c = new Task(3L, "c", false);
+        c.setUser(user);
+        c.setRank("9");
+        when(taskRepository.findById(3L)).thenReturn(Optional.of(c));
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(a));
+        when(taskRepository.findRanksAfter(eq(1L), eq("3"), eq(3L), any())).thenReturn(List.of("6"));
+
+        Task moved = taskService.move(3L, 1L, user).orElseThrow();
+
+        assertTrue("3".compareTo(moved.getRank()) < 0 && moved.getRank().compareTo("6") < 0);
+        assertEquals("3", a.getRank());
+        verify(taskRepository, never()).findActiveByUserId(any());
+    }
+
+    @Test
+    void move_otherUsersTask_returnsEmpty() {
+        User owner = new User();
+        owner.setId(1L);
+        User other = new User();
+        other.setId(2L);
+        Task task = new Task(1L, "a", false);
+        task.setUser(owner);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+
+        assertTrue(taskService.move(1L, null, other).isEmpty());
+    }
+
+    // What save() returns for a new entity: the same instance, now with its generated id
+    private static Task persisted(Task task, Long id) {
+        task.setId(id);
+        return task;
+    }
+}
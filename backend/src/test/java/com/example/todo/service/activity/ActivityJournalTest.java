@@ -0,0 +1,163 @@
+package com.example.todo.service.activity;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActivityJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-06-01T00:00:00Z"));
+    private ActivityJournal journal;
+
+    // Small segments so a few hundred events roll several times; the writer thread is not started
+    private ActivityJournal open() {
+        ActivityJournal opened = new ActivityJournal(dir, 4096, 1024, 0, Duration.ofDays(30), clock);
+        opened.open();
+        return opened;
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (journal != null) journal.stop();
+    }
+
+    private void record(long taskId, TaskActivity.Action action, String detail) {
+        journal.onActivity(new TaskActivity(taskId, 7L, action, detail));
+    }
+
+    @Test
+    void history_returnsTheTasksEventsNewestFirstAcrossSegments() {
+        journal = open();
+        for (int i = 0; i < 300; i++) record(i % 3, TaskActivity.Action.RENAMED, "Title " + i);
+        journal.drain();
+
+        List<ActivityEntry> history = journal.history(1, 1000);
+
+        assertTrue(segmentFiles() > 1);
+        assertEquals(100, history.size());
+        assertEquals("Title 298", history.get(0).detail());
+        assertEquals("Title 1", history.get(99).detail());
+        assertTrue(history.stream().allMatch(e -> e.taskId() == 1 && e.userId() == 7L));
+        assertEquals(5, journal.history(1, 5).size());
+        assertTrue(journal.history(42, 10).isEmpty());
+    }
+
+    @Test
+    void reopen_rebuildsTheIndexAndKeepsAppending() throws InterruptedException {
+        journal = open();
+        record(1, TaskActivity.Action.CREATED, "Buy milk");
+        record(1, TaskActivity.Action.COMPLETED, null);
+        journal.drain();
+        journal.force();
+        journal.stop();
+
+        journal = open();
+        record(1, TaskActivity.Action.REOPENED, null);
+        journal.drain();
+
+        assertEquals(List.of(TaskActivity.Action.REOPENED, TaskActivity.Action.COMPLETED, TaskActivity.Action.CREATED),
+                journal.history(1, 10).stream().map(ActivityEntry::action).toList());
+    }
+
+    @Test
+    void compact_dropsExpiredEventsButNeverTheActiveSegment() {
+        journal = open();
+        for (int i = 0; i < 100; i++) record(1, TaskActivity.Action.RENAMED, "Old " + i);
+        journal.drain();
+        clock.advance(Duration.ofDays(40));
+        for (int i = 0; i < 100; i++) record(1, TaskActivity.Action.RENAMED, "New " + i);
+        journal.drain();
+        int before = segmentFiles();
+
+        assertTrue(journal.compact() > 0);
+
+        List<ActivityEntry> history = journal.history(1, 1000);
+        assertEquals(100, history.size());
+        assertTrue(history.stream().allMatch(e -> e.detail().startsWith("New ")));
+        assertTrue(segmentFiles() < before);
+    }
+
+    @Test
+    void onActivity_dropsInsteadOfBlockingWhenTheBufferIsFull() {
+        journal = open();
+        for (int i = 0; i < 1100; i++) record(1, TaskActivity.Action.RENAMED, "x");
+
+        assertEquals(1100 - 1024, journal.getDroppedCount());
+        assertEquals(1024, journal.drain());
+    }
+
+    @Test
+    void writerThread_wakesUpForNewEvents() throws InterruptedException {
+        journal = new ActivityJournal(dir, 4096, 1024, 60_000, Duration.ofDays(30), clock);
+        journal.start();
+        // Let the writer find the buffer empty and park
+        Thread.sleep(50);
+
+        record(1, TaskActivity.Action.CREATED, "Buy milk");
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (journal.history(1, 10).isEmpty() && System.nanoTime() < deadline) Thread.sleep(5);
+        assertEquals(1, journal.history(1, 10).size());
+    }
+
+    @Test
+    void onActivity_ignoresUnsavedTasks() {
+        journal = open();
+        journal.onActivity(new TaskActivity(null, 7L, TaskActivity.Action.CREATED, "Draft"));
+
+        assertEquals(0, journal.drain());
+        assertEquals(0, journal.getDroppedCount());
+    }
+
+    private int segmentFiles() {
+        try (Stream<Path> files = Files.list(dir)) {
+            return (int) files.filter(JournalSegment::isSegment).count();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.todo.service.dedup;
+
+import com.example.todo.model.Task;
+import com.example.todo.model.User;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.service.TasksChangedEvent;
+import com.example.todo.shard.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DuplicateIndexTest {
+
+    private TaskRepository taskRepository;
+    private DuplicateIndex index;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository = mock(TaskRepository.class);
+        index = new DuplicateIndex(taskRepository, ShardRouter.single(), 16, 4, 3, 0.6);
+    }
+
+    private Task task(long id, long userId, String title) {
+        User user = new User();
+        user.setId(userId);
+        Task task = new Task(id, title, false);
+        task.setUser(user);
+        return task;
+    }
+
+    @Test
+    void findSimilar_returnsNearDuplicatesOfSameUserOnly() {
+        index.add(task(1L, 1L, "Prepare quarterly report"));
+        index.add(task(2L, 1L, "Walk the dog"));
+        index.add(task(3L, 2L, "Prepare quarterly report"));
+
+        assertEquals(List.of(1L), index.findSimilar(1L, "prepare quarterly reports", null));
+        assertEquals(List.of(), index.findSimilar(1L, "Book flights", null));
+    }
+
+    @Test
+    void duplicates_reportsEachPairOnceAgainstOlderTask() {
+        index.add(task(1L, 1L, "Prepare quarterly report"));
+        index.add(task(2L, 1L, "Prepare quarterly report!"));
+
+        List<DuplicatePair> pairs = index.duplicates(1L);
+
+        assertEquals(1, pairs.size());
+        assertEquals(2L, pairs.get(0).taskId());
+        assertEquals(1L, pairs.get(0).duplicateOfId());
+    }
+
+    @Test
+    void removeAndUpdate_keepIndexCurrent() {
+        index.add(task(1L, 1L, "Renew passport"));
+        index.remove(1L);
+        assertTrue(index.findSimilar(1L, "Renew passport", null).isEmpty());
+
+        index.add(task(2L, 1L, "Renew passport"));
+        index.add(task(2L, 1L, "Clean garage"));
+        assertTrue(index.findSimilar(1L, "Renew passport", null).isEmpty());
+        assertEquals(List.of(2L), index.findSimilar(1L, "Clean garage", null));
+    }
+
+    @Test
+    void add_evictsOldestBeyondPerUserLimit() {
+        for (long id = 1; id <= 5; id++) index.add(task(id, 1L, "Task number " + id));
+
+        assertEquals(3, index.size(1L));
+        assertTrue(index.findSimilar(1L, "Task number 1", null).stream().noneMatch(id -> id == 1L));
+    }
+
+    @Test
+    void rebuild_loadsActiveTasksPageByPage() {
+        when(taskRepository.findActiveTitlesAfter(any(), any(Pageable.class))).thenReturn(
+                List.<Object[]>of(new Object[] {10L, 1L, "Pay rent"}, new Object[] {11L, 1L, "Pay rent."}));
+
+        index.rebuild();
+
+        assertEquals(1, index.duplicates(1L).size());
+    }
+
+    @Test
+    void deletedTasks_areNotIndexed() {
+        index.add(task(1L, 1L, "Prepare quarterly report"));
+        Task deleted = task(2L, 1L, "Prepare quarterly report");
+        deleted.setDeletedAt(LocalDateTime.of(2025, 6, 1, 9, 0));
+
+        index.add(deleted);
+
+        assertEquals(1, index.size(1L));
+        assertTrue(index.findSimilar(1L, "Prepare quarterly report", 1L).isEmpty());
+    }
+
+    @Test
+    void onTasksChanged_reindexesLiveTasksAndDropsTheRest() {
+        index.add(task(1L, 1L, "Prepare quarterly report"));
+        index.add(task(2L, 1L, "Walk the dog"));
+        // 1 was renamed, 2 deleted or archived, 3 created (e.g. a recurring task's next occurrence)
+        when(taskRepository.findActiveTitles(List.of(1L, 2L, 3L))).thenReturn(List.<Object[]>of(
+                new Object[] {1L, 1L, "Book flights"}, new Object[] {3L, 1L, "Walk the dog"}));
+
+        index.onTasksChanged(new TasksChangedEvent(List.of(1L, 2L, 3L)));
+
+        assertEquals(2, index.size(1L));
+        assertEquals(List.of(3L), index.findSimilar(1L, "Walk the dog", null));
+        assertEquals(List.of(1L), index.findSimilar(1L, "Book flights", null));
+        assertTrue(index.findSimilar(1L, "Prepare quarterly report", null).isEmpty());
+    }
+
+    @Test
+    void blankTitles_areNeitherIndexedNorLookedUp() {
+        index.add(task(1L, 1L, "Renew passport"));
+        index.add(task(2L, 1L, ""));
+        index.add(task(3L, 1L, null));
+        index.add(task(1L, 1L, "  "));
+
+        assertEquals(0, index.size(1L));
+        assertEquals(List.of(), index.findSimilar(1L, null, null));
+        assertEquals(List.of(), index.findSimilar(1L, " ", null));
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.todo.service.dedup;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinHasherTest {
+
+    private final MinHasher hasher = new MinHasher(64, 1L);
+
+    @Test
+    void identicalTitlesAfterNormalizationHaveEqualSignatures() {
+        assertArrayEquals(hasher.signature("Buy  milk"), hasher.signature(" buy milk "));
+    }
+
+    @Test
+    void similarityTracksTitleOverlap() {
+        int[] base = hasher.signature("Call the dentist about appointment");
+        double near = MinHasher.similarity(base, hasher.signature("Call the dentist about appointments"));
+        double far = MinHasher.similarity(base, hasher.signature("Water the plants"));
+
+        assertTrue(near > 0.7, "near-identical titles should be similar: " + near);
+        assertTrue(far < 0.3, "unrelated titles should not be similar: " + far);
+    }
+}
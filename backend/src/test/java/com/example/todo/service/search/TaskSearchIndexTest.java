@@ -0,0 +1,95 @@
+package com.example.todo.service.search;
+
+import com.example.todo.model.Task;
+import com.example.todo.model.User;
+import com.example.todo.repository.ArchivedTaskRepository;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.service.TasksChangedEvent;
+import com.example.todo.shard.ShardRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class TaskSearchIndexTest {
+
+    @TempDir
+    Path dir;
+
+    private TaskRepository taskRepository;
+    private ArchivedTaskRepository archiveRepository;
+    private TaskSearchIndex index;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        taskRepository = mock(TaskRepository.class);
+        archiveRepository = mock(ArchivedTaskRepository.class);
+        when(taskRepository.findIndexRowsAfter(anyLong(), any(Pageable.class))).thenReturn(List.of(
+                new Object[]{1L, 1L, "Buy groceries", false, LocalDate.of(2025, 6, 1)},
+                new Object[]{2L, 1L, "Renew passport", false, null},
+                new Object[]{3L, 2L, "Buy groceries for mom", false, null}));
+        when(archiveRepository.findIndexRowsAfter(anyLong(), any(Pageable.class))).thenReturn(List.<Object[]>of(
+                new Object[]{4L, 1L, "Grocery list 2019", true, null}));
+        index = new TaskSearchIndex(taskRepository, archiveRepository, ShardRouter.single(), dir, true);
+        index.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        index.close();
+    }
+
+    @Test
+    void search_matchesPrefixOfLastWordAndOnlyReturnsOwnTasks() {
+        List<TaskSearchHit> hits = index.search(1L, "gro", 10);
+
+        assertEquals(List.of(1L, 4L), hits.stream().map(TaskSearchHit::id).sorted().toList());
+        TaskSearchHit archived = hits.stream().filter(h -> h.id() == 4L).findFirst().orElseThrow();
+        assertTrue(archived.archived());
+        assertTrue(archived.completed());
+    }
+
+    @Test
+    void search_toleratesTypos() {
+        List<TaskSearchHit> hits = index.search(1L, "pasport ", 10);
+
+        assertEquals(1, hits.size());
+        assertEquals("Renew passport", hits.get(0).title());
+    }
+
+    @Test
+    void search_blankQuery_returnsNothing() {
+        assertTrue(index.search(1L, "  ", 10).isEmpty());
+    }
+
+    @Test
+    void changesBecomeSearchableOnNextRefresh() {
+        User user = new User();
+        user.setId(1L);
+        Task renamed = new Task(2L, "Renew driving licence", false);
+        renamed.setUser(user);
+        Task deleted = new Task(1L, "Buy groceries", false);
+        deleted.setUser(user);
+        deleted.setDeletedAt(LocalDateTime.now());
+        when(taskRepository.findAllById(any())).thenReturn(List.of(renamed, deleted));
+
+        index.onTasksChanged(new TasksChangedEvent(List.of(1L, 2L)));
+        assertEquals(1, index.search(1L, "passport", 10).size());
+        index.refresh();
+
+        assertTrue(index.search(1L, "passport", 10).isEmpty());
+        assertEquals(1, index.search(1L, "licence", 10).size());
+        assertEquals(List.of(4L), index.search(1L, "grocery", 10).stream().map(TaskSearchHit::id).toList());
+    }
+}
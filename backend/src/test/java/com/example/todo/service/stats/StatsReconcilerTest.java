@@ -0,0 +1,98 @@
+package com.example.todo.service.stats;
+
+import com.example.todo.model.TaskDayCount;
+import com.example.todo.repository.TaskDayCountRepository;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.shard.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StatsReconcilerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 10);
+
+    private TaskRepository taskRepository;
+    private TaskDayCountRepository countRepository;
+    private StatsReconciler reconciler;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        taskRepository = mock(TaskRepository.class);
+        countRepository = mock(TaskDayCountRepository.class);
+        TransactionTemplate tx = mock(TransactionTemplate.class);
+        when(tx.execute(any())).thenAnswer(inv -> ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(null));
+        reconciler = new StatsReconciler(taskRepository, countRepository, tx, ShardRouter.single());
+    }
+
+    @Test
+    void reconcile_appliesOnlyTheDifference() {
+        when(taskRepository.findActiveUserIds()).thenReturn(List.of(1L));
+        when(countRepository.findUserIds()).thenReturn(List.of(1L, 2L));
+        when(countRepository.lockByUserId(1L)).thenReturn(List.of(
+                new TaskDayCount(1L, DAY, 3, 1),
+                new TaskDayCount(1L, TaskDayCount.UNDATED, 2, 0)));
+        when(taskRepository.countLiveByDateForUser(1L)).thenReturn(List.<Object[]>of(
+                new Object[]{1L, DAY, 4L, 1L},
+                new Object[]{1L, null, 2L, 0L}));
+        // User 2 has a stale counter row but no tasks left
+        when(countRepository.lockByUserId(2L)).thenReturn(List.of(new TaskDayCount(2L, DAY, 1, 1)));
+
+        assertEquals(2, reconciler.reconcile());
+
+        verify(countRepository).increment(1L, DAY, 1, 0);
+        verify(countRepository).increment(2L, DAY, -1, -1);
+        verify(countRepository, never()).increment(eq(1L), eq(TaskDayCount.UNDATED), anyLong(), anyLong());
+        verify(countRepository).deleteEmpty(2L);
+    }
+
+    @Test
+    void reconcile_consistentCounters_reportsNoDrift() {
+        when(taskRepository.findActiveUserIds()).thenReturn(List.of(1L));
+        when(countRepository.findUserIds()).thenReturn(List.of(1L));
+        when(countRepository.lockByUserId(1L)).thenReturn(List.of(new TaskDayCount(1L, DAY, 2, 2)));
+        when(taskRepository.countLiveByDateForUser(1L)).thenReturn(List.<Object[]>of(new Object[]{1L, DAY, 2L, 2L}));
+
+        assertEquals(0, reconciler.reconcile());
+        verify(countRepository, never()).increment(any(), any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void reconcile_createsAndLocksTheRowsOfDatesWithTasksBeforeReadingThem() {
+        when(taskRepository.findActiveUserIds()).thenReturn(List.of(1L));
+        when(countRepository.findUserIds()).thenReturn(List.of());
+        when(taskRepository.countLiveByDateForUser(1L)).thenReturn(List.<Object[]>of(new Object[]{1L, DAY, 2L, 0L}));
+        // The counter row was missing; lockDay inserted it with zeros
+        when(countRepository.lockByUserId(1L)).thenReturn(List.of(new TaskDayCount(1L, DAY, 0, 0)));
+
+        assertEquals(1, reconciler.reconcile());
+
+        InOrder order = inOrder(countRepository);
+        order.verify(countRepository).lockDay(1L, DAY);
+        order.verify(countRepository).lockByUserId(1L);
+        order.verify(countRepository).increment(1L, DAY, 2, 0);
+    }
+
+    @Test
+    void reconcile_leavesADateWhoseFirstTaskArrivesDuringTheRunToItsWriter() {
+        when(taskRepository.findActiveUserIds()).thenReturn(List.of(1L));
+        when(countRepository.findUserIds()).thenReturn(List.of(1L));
+        when(countRepository.lockByUserId(1L)).thenReturn(List.of());
+        // A create commits its task and its own counter row after the rows were locked
+        when(taskRepository.countLiveByDateForUser(1L))
+                .thenReturn(List.of(), List.<Object[]>of(new Object[]{1L, DAY, 1L, 0L}));
+
+        assertEquals(0, reconciler.reconcile());
+        verify(countRepository, never()).increment(any(), any(), anyLong(), anyLong());
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.todo.service.stats;
+
+import com.example.todo.model.Task;
+import com.example.todo.model.TaskDayCount;
+import com.example.todo.model.User;
+import com.example.todo.repository.TaskDayCountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TaskCountersTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 10);
+
+    private TaskDayCountRepository repository;
+    private TaskCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TaskDayCountRepository.class);
+        counters = new TaskCounters(repository);
+    }
+
+    @Test
+    void created_and_removed_incrementUndatedBucketForTasksWithoutDate() {
+        User user = new User();
+        user.setId(1L);
+        Task task = new Task(5L, "Call mom", true);
+        task.setUser(user);
+
+        counters.created(task);
+        counters.removed(task);
+
+        verify(repository).increment(1L, TaskDayCount.UNDATED, 1, 1);
+        verify(repository).increment(1L, TaskDayCount.UNDATED, -1, -1);
+    }
+
+    @Test
+    void apply_scalesGroupedRowsBySign() {
+        counters.apply(List.<Object[]>of(new Object[]{1L, TODAY, 3L, 2L}), -1);
+
+        verify(repository).increment(1L, TODAY, -3, -2);
+    }
+
+    @Test
+    void stats_derivesOverdueAndDueTodayFromDateBuckets() {
+        when(repository.findByUserId(1L)).thenReturn(List.of(
+                new TaskDayCount(1L, TODAY.minusDays(2), 3, 1),
+                new TaskDayCount(1L, TODAY, 2, 0),
+                new TaskDayCount(1L, TODAY.plusDays(1), 0, 0),
+                new TaskDayCount(1L, TODAY.plusDays(3), 1, 1),
+                new TaskDayCount(1L, TaskDayCount.UNDATED, 4, 2)));
+
+        TaskStats stats = counters.stats(1L, TODAY);
+
+        assertEquals(10, stats.total());
+        assertEquals(4, stats.completed());
+        assertEquals(2, stats.overdue());
+        assertEquals(2, stats.dueToday());
+        assertEquals(List.of(
+                new TaskStats.Day(TODAY.minusDays(2), 3, 1),
+                new TaskStats.Day(TODAY, 2, 0),
+                new TaskStats.Day(TODAY.plusDays(3), 1, 1)), stats.byDate());
+    }
+}
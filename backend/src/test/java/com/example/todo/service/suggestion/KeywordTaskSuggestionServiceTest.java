@@ -0,0 +1,26 @@
+package com.example.todo.service.suggestion;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeywordTaskSuggestionServiceTest {
+
+    private final KeywordTaskSuggestionService service = new KeywordTaskSuggestionService();
+
+    @Test
+    void suggest_classifiesAndPrioritizesInOrder() {
+        List<TaskSuggestion> result = service.suggest(List.of("Buy groceries tomorrow", "URGENT: send report", "Read a book"));
+
+        assertEquals(new TaskSuggestion("shopping", 2), result.get(0));
+        assertEquals(new TaskSuggestion("work", 3), result.get(1));
+        assertEquals(new TaskSuggestion("general", 1), result.get(2));
+    }
+
+    @Test
+    void suggest_isDeterministic() {
+        assertEquals(service.suggest(List.of("Pay tax bill")), service.suggest(List.of("Pay tax bill")));
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.todo.service.suggestion;
+
+import com.example.todo.model.Task;
+import com.example.todo.model.User;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.shard.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TaskSuggestionQueueTest {
+
+    private TaskSuggestionService model;
+    private TaskRepository taskRepository;
+
+    @BeforeEach
+    void setUp() {
+        model = mock(TaskSuggestionService.class);
+        taskRepository = mock(TaskRepository.class);
+        when(taskRepository.findSameTitleIds(any(), any(), any(), any(Pageable.class))).thenReturn(List.of());
+    }
+
+    private TaskSuggestionQueue queue(int capacity, long timeoutMillis) {
+        return new TaskSuggestionQueue(model, taskRepository, mock(PlatformTransactionManager.class),
+                ShardRouter.single(), capacity, 8, 5, timeoutMillis, 100);
+    }
+
+    @Test
+    void process_coalescesBatchAndCachesRepeatTitles() throws Exception {
+        when(model.suggest(List.of("Buy milk", "Gym"))).thenReturn(
+                List.of(new TaskSuggestion("shopping", 1), new TaskSuggestion("health", 1)));
+        TaskSuggestionQueue queue = queue(10, 1000);
+
+        queue.process(List.of(
+                new TaskSuggestionQueue.Pending(1L, 1L, "Buy milk"),
+                new TaskSuggestionQueue.Pending(2L, 1L, "Gym"),
+                new TaskSuggestionQueue.Pending(3L, 1L, "  buy MILK ")));
+        queue.process(List.of(new TaskSuggestionQueue.Pending(4L, 2L, "Buy milk")));
+
+        verify(model, times(1)).suggest(any());
+        verify(taskRepository).applySuggestion(1L, "shopping", 1, null);
+        verify(taskRepository).applySuggestion(3L, "shopping", 1, null);
+        verify(taskRepository).applySuggestion(4L, "shopping", 1, null);
+    }
+
+    @Test
+    void process_marksDuplicateOfExistingTask() throws Exception {
+        when(model.suggest(any())).thenReturn(List.of(new TaskSuggestion("general", 1)));
+        when(taskRepository.findSameTitleIds(eq(1L), eq(9L), eq("read book"), any(Pageable.class)))
+                .thenReturn(List.of(5L));
+
+        queue(10, 1000).process(List.of(new TaskSuggestionQueue.Pending(9L, 1L, "Read book")));
+
+        verify(taskRepository).applySuggestion(9L, "general", 1, 5L);
+    }
+
+    @Test
+    void process_skipsBatchWhenInferenceTimesOut() throws Exception {
+        when(model.suggest(any())).thenAnswer(inv -> {
+            Thread.sleep(5_000);
+            return List.of();
+        });
+
+        queue(10, 50).process(List.of(new TaskSuggestionQueue.Pending(1L, 1L, "Slow")));
+
+        verify(taskRepository, never()).applySuggestion(any(), any(), any(), any());
+    }
+
+    @Test
+    void process_recoversWhenAHungCallIgnoresInterrupts() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(model.suggest(List.of("Hangs"))).thenAnswer(inv -> {
+            while (release.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                    // Like a blocking socket read, the call does not give up when interrupted
+                }
+            }
+            return List.of(new TaskSuggestion("general", 1));
+        });
+        when(model.suggest(List.of("Gym"))).thenReturn(List.of(new TaskSuggestion("health", 1)));
+        TaskSuggestionQueue queue = queue(10, 100);
+
+        try {
+            queue.process(List.of(new TaskSuggestionQueue.Pending(1L, 1L, "Hangs")));
+            queue.process(List.of(new TaskSuggestionQueue.Pending(2L, 1L, "Gym")));
+
+            verify(taskRepository).applySuggestion(2L, "health", 1, null);
+            assertEquals(1, queue.getAbandonedCount());
+        } finally {
+            release.countDown();
+            queue.stop();
+        }
+    }
+
+    @Test
+    void enqueue_dropsWhenQueueIsFull() {
+        TaskSuggestionQueue queue = queue(1, 1000);
+        User user = new User();
+        user.setId(1L);
+        Task first = new Task(1L, "a", false);
+        first.setUser(user);
+        Task second = new Task(2L, "b", false);
+        second.setUser(user);
+
+        assertTrue(queue.enqueue(first));
+        assertFalse(queue.enqueue(second));
+        assertEquals(1, queue.getDroppedCount());
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.todo.service.sync;
+
+import com.example.todo.dto.SyncMutation;
+import com.example.todo.dto.SyncResult;
+import com.example.todo.model.SyncReceipt;
+import com.example.todo.model.Task;
+import com.example.todo.model.User;
+import com.example.todo.repository.SyncReceiptRepository;
+import com.example.todo.service.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class SyncServiceTest {
+
+    private static final Instant NOW = Instant.now();
+
+    private TaskService taskService;
+    private SyncReceiptRepository receipts;
+    private SyncService sync;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        taskService = mock(TaskService.class);
+        receipts = mock(SyncReceiptRepository.class);
+        when(receipts.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        sync = new SyncService(taskService, receipts, Duration.ofDays(7), 500);
+        user = new User();
+        user.setId(1L);
+    }
+
+    private Task owned(Long id, String title, boolean completed) {
+        Task task = new Task(id, title, completed);
+        task.setUser(user);
+        return task;
+    }
+
+    @Test
+    void apply_resolvesClientIdsOfTasksCreatedEarlierInTheBatch() {
+        Task created = owned(10L, "Buy milk", false);
+        when(taskService.create(any(), eq(user))).thenReturn(created);
+        when(taskService.findById(10L)).thenReturn(Optional.of(created));
+        when(taskService.update(eq(10L), any())).thenAnswer(inv -> {
+            created.setCompleted(((Task) inv.getArgument(1)).isCompleted());
+            return Optional.of(created);
+        });
+
+        SyncService.SyncBatch batch = sync.apply(user, List.of(
+                new SyncMutation("k1", SyncMutation.Op.CREATE, "c1", null, "Buy milk", null, null, null, NOW),
+                new SyncMutation("k2", SyncMutation.Op.UPDATE, "c1", null, null, true, null, null, NOW)));
+
+        assertEquals(List.of(SyncResult.Status.APPLIED, SyncResult.Status.APPLIED),
+                batch.results().stream().map(SyncResult::status).toList());
+        // Both results show the task as it is after the whole batch
+        assertTrue(batch.results().get(0).task().completed());
+        assertEquals(10L, batch.results().get(1).task().id());
+        assertEquals(List.of(created), batch.created());
+        verify(taskService).update(eq(10L), argThat(patch -> patch.getTitle().equals("Buy milk") && patch.isCompleted()));
+    }
+
+    @Test
+    void apply_answersRetriedKeysFromReceiptsWithoutReapplying() {
+        Task existing = owned(10L, "Buy milk", false);
+        when(receipts.findByKeys(eq(1L), any())).thenReturn(List.of(
+                new SyncReceipt(1L, "k1", "c1", 10L, "APPLIED", LocalDateTime.now())));
+        when(taskService.findById(10L)).thenReturn(Optional.of(existing));
+
+        SyncService.SyncBatch batch = sync.apply(user, List.of(
+                new SyncMutation("k1", SyncMutation.Op.CREATE, "c1", null, "Buy milk", null, null, null, NOW)));
+
+        assertEquals(SyncResult.Status.APPLIED, batch.results().get(0).status());
+        assertEquals(10L, batch.results().get(0).task().id());
+        assertTrue(batch.created().isEmpty());
+        verify(taskService, never()).create(any(), any());
+        verify(receipts, never()).save(any());
+    }
+
+    @Test
+    void apply_doesNotTouchOtherUsersTasks() {
+        User other = new User();
+        other.setId(2L);
+        Task foreign = new Task(20L, "Theirs", false);
+        foreign.setUser(other);
+        when(taskService.findById(20L)).thenReturn(Optional.of(foreign));
+
+        SyncService.SyncBatch batch = sync.apply(user, List.of(
+                new SyncMutation("k1", SyncMutation.Op.DELETE, null, 20L, null, null, null, null, NOW),
+                new SyncMutation("k2", SyncMutation.Op.UPDATE, null, 20L, "Mine now", null, null, null, NOW)));
+
+        assertEquals(List.of(SyncResult.Status.NOT_FOUND, SyncResult.Status.NOT_FOUND),
+                batch.results().stream().map(SyncResult::status).toList());
+        verify(taskService, never()).delete(anyLong());
+        verify(taskService, never()).update(anyLong(), any());
+        // Rejections are recorded too, so a retry gets the same answer
+        verify(receipts, times(2)).save(any());
+    }
+
+    @Test
+    void apply_deletedTaskHasNoResultState() {
+        Task existing = owned(10L, "Buy milk", false);
+        when(taskService.findById(10L)).thenReturn(Optional.of(existing));
+        when(taskService.delete(10L)).thenReturn(true);
+
+        SyncService.SyncBatch batch = sync.apply(user, List.of(
+                new SyncMutation("k1", SyncMutation.Op.UPDATE, null, 10L, "Renamed", null, null, null, NOW),
+                new SyncMutation("k2", SyncMutation.Op.DELETE, null, 10L, null, null, null, null, NOW)));
+
+        assertNull(batch.results().get(0).task());
+        assertNull(batch.results().get(1).task());
+        assertEquals(List.of(10L), batch.deletedIds());
+        assertTrue(batch.saved().isEmpty());
+    }
+
+    @Test
+    void apply_rejectsCreateWithoutTitle() {
+        SyncService.SyncBatch batch = sync.apply(user, List.of(
+                new SyncMutation("k1", SyncMutation.Op.CREATE, "c1", null, " ", null, null, null, NOW)));
+
+        assertEquals(SyncResult.Status.INVALID, batch.results().get(0).status());
+        verify(taskService, never()).create(any(), any());
+    }
+
+    @Test
+    void apply_rejectsMutationsQueuedBeforeTheReceiptRetention() {
+        SyncService.SyncBatch batch = sync.apply(user, List.of(
+                new SyncMutation("k1", SyncMutation.Op.CREATE, "c1", null, "Buy milk", null, null, null,
+                        NOW.minus(Duration.ofDays(8)))));
+
+        assertEquals(SyncResult.Status.EXPIRED, batch.results().get(0).status());
+        assertNull(batch.results().get(0).task());
+        verify(taskService, never()).create(any(), any());
+        verify(receipts, never()).save(any());
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.todo.service.tree;
+
+import com.example.todo.model.Task;
+import com.example.todo.model.User;
+import com.example.todo.repository.TaskRepository;
+import com.example.todo.service.TaskService;
+import com.example.todo.service.TasksChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TaskTreeServiceTest {
+
+    private TaskRepository repository;
+    private TaskService taskService;
+    private ApplicationEventPublisher events;
+    private TaskTreeService tree;
+    private final User user = new User();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(TaskRepository.class);
+        when(repository.lockAll(anyCollection())).thenAnswer(inv -> ((Collection<Long>) inv.getArgument(0)).stream()
+                .map(repository::findById).flatMap(Optional::stream).toList());
+        taskService = mock(TaskService.class);
+        events = mock(ApplicationEventPublisher.class);
+        tree = new TaskTreeService(repository, taskService, events, 3);
+        user.setId(1L);
+    }
+
+    // A live task of the user at the given path (ids root first, the last one is the task)
+    private Task task(long... path) {
+        long id = path[path.length - 1];
+        Task task = new Task(id, "Task " + id, false);
+        task.setUser(user);
+        String materialized = TaskPath.root(path[0]);
+        for (int i = 1; i < path.length; i++) materialized = TaskPath.child(materialized, path[i]);
+        task.setPath(materialized);
+        task.setDepth(path.length - 1);
+        if (path.length > 1) task.setParentId(path[path.length - 2]);
+        when(repository.findById(id)).thenReturn(Optional.of(task));
+        return task;
+    }
+
+    @Test
+    void createSubtask_placesTheTaskBelowItsParent() {
+        Task parent = task(1, 4);
+        Task created = new Task(9L, "Child", false);
+        when(taskService.create(any(), eq(user))).thenReturn(created);
+
+        Task subtask = tree.createSubtask(4L, new Task(null, "Child", false), user).orElseThrow();
+
+        assertEquals(4L, subtask.getParentId());
+        assertEquals(TaskPath.child(parent.getPath(), 9), subtask.getPath());
+        assertEquals(2, subtask.getDepth());
+        assertTrue(TaskPath.isWithin(subtask.getPath(), TaskPath.root(1)));
+    }
+
+    @Test
+    void createSubtask_givesLegacyParentsAPath() {
+        Task legacy = new Task(5L, "Old", false);
+        legacy.setUser(user);
+        when(repository.findById(5L)).thenReturn(Optional.of(legacy));
+        when(taskService.create(any(), eq(user))).thenReturn(new Task(6L, "Child", false));
+
+        Task subtask = tree.createSubtask(5L, new Task(null, "Child", false), user).orElseThrow();
+
+        assertEquals(TaskPath.root(5), legacy.getPath());
+        assertEquals(TaskPath.child(TaskPath.root(5), 6), subtask.getPath());
+    }
+
+    @Test
+    void createSubtask_rejectsTooDeepAndForeignParents() {
+        task(1, 2, 3, 4);
+        Task foreign = new Task(8L, "Theirs", false);
+        User other = new User();
+        other.setId(2L);
+        foreign.setUser(other);
+        when(repository.findById(8L)).thenReturn(Optional.of(foreign));
+
+        assertThrows(IllegalArgumentException.class, () -> tree.createSubtask(4L, new Task(), user));
+        assertTrue(tree.createSubtask(8L, new Task(), user).isEmpty());
+        verify(taskService, never()).create(any(), any());
+    }
+
+    @Test
+    void reparent_rewritesTheWholeSubtreeInOneUpdate() {
+        Task moved = task(1, 2, 3);
+        Task target = task(7);
+        when(repository.maxSubtreeDepth(1L, moved.getPath() + "%")).thenReturn(3);
+        when(repository.findSubtreeIds(1L, moved.getPath() + "%")).thenReturn(List.of(3L, 4L));
+
+        tree.reparent(3L, 7L, user);
+
+        // Depth 2 -> 1, and the "/1/2" prefix becomes "/7"
+        verify(repository).movePaths(1L, moved.getPath() + "%", target.getPath(),
+                TaskPath.child(TaskPath.root(1), 2).length(), -1);
+        verify(repository).setParent(3L, 7L);
+        verify(events).publishEvent(new TasksChangedEvent(List.of(3L, 4L)));
+    }
+
+    @Test
+    void reparent_refusesCyclesAndExcessiveDepth() {
+        task(1, 2);
+        task(1, 2, 3);
+        task(5, 6, 7, 8);
+        when(repository.maxSubtreeDepth(eq(1L), anyString())).thenReturn(2);
+
+        assertThrows(IllegalArgumentException.class, () -> tree.reparent(2L, 3L, user));
+        assertThrows(IllegalArgumentException.class, () -> tree.reparent(2L, 2L, user));
+        // The subtree of 2 reaches depth 2; below 8 (depth 3) it would reach depth 5
+        assertThrows(IllegalArgumentException.class, () -> tree.reparent(2L, 8L, user));
+        verify(repository, never()).movePaths(anyLong(), anyString(), anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void reparent_locksBothRowsInIdOrderBeforeReadingThem() {
+        task(9);
+        task(4);
+        when(repository.findSubtreeIds(anyLong(), anyString())).thenReturn(List.of(9L));
+
+        tree.reparent(9L, 4L, user);
+
+        InOrder order = inOrder(repository);
+        order.verify(repository).lockAll(argThat(ids -> List.copyOf(ids).equals(List.of(4L, 9L))));
+        order.verify(repository).movePaths(anyLong(), anyString(), anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void progress_rollsUpTheSubtreeWithoutTheTaskItself() {
+        Task root = task(1);
+        root.setCompleted(true);
+        when(repository.countSubtree(1L, root.getPath() + "%")).thenReturn(List.<Object[]>of(new Object[]{4L, 3L}));
+
+        TaskProgress progress = tree.progress(1L, user).orElseThrow();
+
+        assertEquals(new TaskProgress(1L, 3, 2, 66), progress);
+    }
+
+    @Test
+    void forEachInSubtree_boundsTheDepthBelowTheTask() {
+        Task task = task(1, 2);
+        when(repository.streamSubtree(anyLong(), anyString(), anyInt())).thenAnswer(i -> Stream.empty());
+
+        assertTrue(tree.forEachInSubtree(2L, user, 1, row -> {}));
+        assertTrue(tree.forEachInSubtree(2L, user, 100, row -> {}));
+        assertFalse(tree.forEachInSubtree(99L, user, 1, row -> {}));
+
+        verify(repository).streamSubtree(1L, task.getPath() + "%", 2);
+        verify(repository).streamSubtree(1L, task.getPath() + "%", 4);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.todo.service.tree;
+
+import com.example.todo.dto.TaskResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskTreeWriterTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private static TaskResponse row(long id, Long parentId) {
+        return new TaskResponse(id, "Task " + id, false, 0, null, null, null, null, null, null, null, null,
+                parentId, 1L);
+    }
+
+    private JsonNode write(List<TaskResponse> rows) throws Exception {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator json = mapper.getFactory().createGenerator(out)) {
+            TaskTreeWriter tree = new TaskTreeWriter(json);
+            rows.forEach(tree);
+            tree.finish();
+        }
+        return mapper.readTree(out.toString());
+    }
+
+    @Test
+    void depthFirstRows_areNestedUnderTheirParents() throws Exception {
+        JsonNode root = write(List.of(row(1, null), row(2, 1L), row(3, 2L), row(4, 2L), row(5, 1L)));
+
+        assertEquals(1, root.get("id").asLong());
+        assertEquals(2, root.get("children").size());
+        JsonNode two = root.get("children").get(0);
+        assertEquals(List.of(3L, 4L), List.of(two.get("children").get(0).get("id").asLong(),
+                two.get("children").get(1).get("id").asLong()));
+        assertEquals(5, root.get("children").get(1).get("id").asLong());
+        assertEquals(0, root.get("children").get(1).get("children").size());
+        assertEquals(1, two.get("parentId").asLong());
+    }
+
+    @Test
+    void rowsUnderAMissingParent_areSkippedWithTheirSubtrees() throws Exception {
+        // 2 is deleted: 3 and its child 4 are unreachable, 5 still belongs to the root
+        JsonNode root = write(List.of(row(1, null), row(3, 2L), row(4, 3L), row(5, 1L)));
+
+        assertEquals(1, root.get("children").size());
+        assertEquals(5, root.get("children").get(0).get("id").asLong());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.todo.service.writebehind;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MutationLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replay_returnsAppendedUpdatesAcrossSegments() {
+        try (MutationLog log = new MutationLog(dir, true)) {
+            log.append(new PendingUpdate(1L, 7L, "Title", true, null));
+            log.seal();
+            log.append(new PendingUpdate(2L, 7L, null, null, 3));
+        }
+
+        List<PendingUpdate> replayed = new MutationLog(dir, false).replay();
+
+        assertEquals(2, replayed.size());
+        assertEquals("Title", replayed.get(0).getTitle());
+        assertEquals(true, replayed.get(0).getCompleted());
+        assertNull(replayed.get(0).getPriority());
+        assertEquals(2L, replayed.get(1).getTaskId());
+        assertEquals(3, replayed.get(1).getPriority());
+        assertNull(replayed.get(1).getCompleted());
+    }
+
+    @Test
+    void replay_ignoresTornTail() throws Exception {
+        try (MutationLog log = new MutationLog(dir, false)) {
+            log.append(new PendingUpdate(1L, 7L, "Kept", null, null));
+        }
+        try (var files = Files.list(dir)) {
+            Path segment = files.findFirst().orElseThrow();
+            Files.write(segment, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+        }
+
+        List<PendingUpdate> replayed = new MutationLog(dir, false).replay();
+
+        assertEquals(1, replayed.size());
+        assertEquals("Kept", replayed.get(0).getTitle());
+    }
+
+    @Test
+    void deadLetter_isKeptOutOfReplayAndDeletion() {
+        MutationLog log = new MutationLog(dir, true);
+        log.deadLetter(List.of(new PendingUpdate(1L, 7L, "Poison", null, null)));
+        log.deleteUpTo(log.seal());
+
+        assertTrue(log.replay().isEmpty());
+        assertEquals("Poison", log.deadLetters().get(0).getTitle());
+        log.close();
+    }
+
+    @Test
+    void deleteUpTo_removesOnlySealedSegments() {
+        MutationLog log = new MutationLog(dir, false);
+        log.append(new PendingUpdate(1L, 7L, "Flushed", null, null));
+        long sealed = log.seal();
+        log.append(new PendingUpdate(2L, 7L, "Pending", null, null));
+
+        log.deleteUpTo(sealed);
+
+        List<PendingUpdate> replayed = log.replay();
+        assertEquals(1, replayed.size());
+        assertEquals("Pending", replayed.get(0).getTitle());
+        log.close();
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.todo.service.writebehind;
+
+import com.example.todo.service.TaskService;
+import com.example.todo.shard.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class WriteBehindQueueTest {
+
+    @TempDir
+    Path dir;
+
+    private TaskService taskService;
+    private WriteBehindQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        taskService = mock(TaskService.class);
+        queue = new WriteBehindQueue(taskService, ShardRouter.single(), true, true, dir, false, 3, 0);
+        queue.start();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<PendingUpdate> flushed() {
+        ArgumentCaptor<Collection<PendingUpdate>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(taskService, atLeastOnce()).applyPending(captor.capture());
+        return new ArrayList<>(captor.getValue());
+    }
+
+    @Test
+    void flush_coalescesUpdatesPerTaskIntoOneGroupCommit() {
+        queue.submit(new PendingUpdate(1L, 7L, "A", false, null));
+        queue.submit(new PendingUpdate(1L, 7L, null, null, 4));
+        queue.submit(new PendingUpdate(1L, 7L, "A", true, null));
+        queue.submit(new PendingUpdate(2L, 7L, null, null, 0));
+
+        queue.flush();
+
+        List<PendingUpdate> updates = flushed();
+        verify(taskService, times(1)).applyPending(any());
+        assertEquals(2, updates.size());
+        PendingUpdate first = updates.get(0);
+        assertEquals(true, first.getCompleted());
+        assertEquals(4, first.getPriority());
+        assertEquals(0, queue.pendingCount());
+    }
+
+    @Test
+    void flush_failure_requeuesUnderNewerUpdates() {
+        doThrow(new IllegalStateException("db down")).doNothing().when(taskService).applyPending(any());
+        queue.submit(new PendingUpdate(1L, 7L, "Old", false, 2));
+        queue.flush();
+        queue.submit(new PendingUpdate(1L, 7L, "New", null, null));
+
+        queue.flush();
+
+        PendingUpdate update = flushed().get(0);
+        assertEquals("New", update.getTitle());
+        assertEquals(2, update.getPriority());
+    }
+
+    @Test
+    void flush_deadLettersAnUpdateThatKeepsFailing() {
+        doAnswer(invocation -> {
+            Collection<PendingUpdate> updates = invocation.getArgument(0);
+            if (updates.stream().anyMatch(u -> u.getTaskId() == 1L)) throw new IllegalStateException("bad row");
+            return null;
+        }).when(taskService).applyPending(any());
+        queue.submit(new PendingUpdate(1L, 7L, "Poison", null, null));
+        queue.submit(new PendingUpdate(2L, 7L, "Fine", null, null));
+
+        queue.flush();
+        queue.flush();
+        queue.flush();
+
+        assertEquals(0, queue.pendingCount());
+        assertEquals(1, queue.getDeadLetterCount());
+        verify(taskService).applyPending(argThat(updates -> updates.size() == 1
+                && updates.iterator().next().getTaskId() == 2L));
+        List<PendingUpdate> dead = new MutationLog(dir, false).deadLetters();
+        assertEquals(1, dead.size());
+        assertEquals("Poison", dead.get(0).getTitle());
+        assertTrue(new MutationLog(dir, false).replay().isEmpty());
+    }
+
+    @Test
+    void start_replaysAcknowledgedUpdatesAfterCrash() {
+        queue.submit(new PendingUpdate(5L, 7L, "Survives", true, null));
+        // No flush: simulate a crash and a fresh start on the same log directory
+        TaskService restarted = mock(TaskService.class);
+        new WriteBehindQueue(restarted, ShardRouter.single(), true, true, dir, false, 3, 0).start();
+
+        verify(restarted).applyPending(argThat(updates -> updates.size() == 1
+                && "Survives".equals(updates.iterator().next().getTitle())));
+    }
+
+    @Test
+    void start_deadLettersReplayedUpdatesThatCannotBeApplied() {
+        queue.submit(new PendingUpdate(5L, 7L, "Gone", null, null));
+        queue.submit(new PendingUpdate(6L, 7L, "Fine", null, null));
+        TaskService restarted = mock(TaskService.class);
+        doAnswer(invocation -> {
+            Collection<PendingUpdate> updates = invocation.getArgument(0);
+            if (updates.stream().anyMatch(u -> u.getTaskId() == 5L)) throw new IllegalStateException("no such task");
+            return null;
+        }).when(restarted).applyPending(any());
+
+        WriteBehindQueue queue = new WriteBehindQueue(restarted, ShardRouter.single(), true, true, dir, false, 3, 0);
+        queue.start();
+
+        verify(restarted).applyPending(argThat(updates -> updates.size() == 1
+                && updates.iterator().next().getTaskId() == 6L));
+        assertEquals(1, queue.getDeadLetterCount());
+        List<PendingUpdate> dead = new MutationLog(dir, false).deadLetters();
+        assertEquals(List.of(5L), dead.stream().map(PendingUpdate::getTaskId).toList());
+        assertTrue(new MutationLog(dir, false).replay().isEmpty());
+    }
+
+    @Test
+    void submit_withFsync_returnsOnlyOnceConcurrentUpdatesAreLogged() throws Exception {
+        WriteBehindQueue synced = new WriteBehindQueue(taskService, ShardRouter.single(), true, true,
+                dir.resolve("synced"), true, 3, 0);
+        synced.start();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> submits = new ArrayList<>();
+            for (long i = 0; i < 200; i++) {
+                long taskId = i;
+                submits.add(executor.submit(() -> synced.submit(new PendingUpdate(taskId, 7L, "T" + taskId, null, null))));
+            }
+            for (Future<?> submit : submits) submit.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(200, new MutationLog(dir.resolve("synced"), false).replay().size());
+        assertEquals(200, synced.pendingCount());
+    }
+
+    @Test
+    void pendingFor_returnsCopiesOfTheUsersQueuedUpdates() {
+        queue.submit(new PendingUpdate(1L, 7L, null, true, null));
+        queue.submit(new PendingUpdate(1L, 7L, "Renamed", null, null));
+        queue.submit(new PendingUpdate(2L, 8L, "Other user", null, null));
+
+        Map<Long, PendingUpdate> mine = queue.pendingFor(7L);
+
+        assertEquals(Set.of(1L), mine.keySet());
+        assertEquals("Renamed", mine.get(1L).getTitle());
+        assertEquals(true, mine.get(1L).getCompleted());
+        mine.get(1L).merge(new PendingUpdate(1L, 7L, "Changed copy", null, null));
+        assertEquals("Renamed", queue.pendingFor(7L).get(1L).getTitle());
+        assertTrue(queue.pendingFor(9L).isEmpty());
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.todo.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    private static final int USERS = 10_000;
+
+    @Test
+    void shardFor_spreadsUsersRoughlyEvenly() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("shard0", "shard1", "shard2"), 128);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (long id = 1; id <= USERS; id++) counts.merge(ring.shardFor(id), 1, Integer::sum);
+
+        assertEquals(3, counts.size());
+        counts.values().forEach(n -> assertTrue(n > USERS / 3 * 0.7 && n < USERS / 3 * 1.3, counts.toString()));
+    }
+
+    @Test
+    void addingShard_onlyMovesUsersToTheNewShard() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("shard0", "shard1", "shard2"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("shard0", "shard1", "shard2", "shard3"), 128);
+
+        int moved = 0;
+        for (long id = 1; id <= USERS; id++) {
+            String from = before.shardFor(id);
+            String to = after.shardFor(id);
+            if (!from.equals(to)) {
+                assertEquals("shard3", to);
+                moved++;
+            }
+        }
+        assertTrue(moved > USERS / 4 * 0.7 && moved < USERS / 4 * 1.3, "moved " + moved);
+    }
+
+    @Test
+    void constructor_rejectsEmptyShardList() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(List.of(), 16));
+    }
+}
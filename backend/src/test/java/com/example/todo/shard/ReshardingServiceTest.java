@@ -0,0 +1,129 @@
+package com.example.todo.shard;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReshardingServiceTest {
+
+    private JdbcTemplate primary;
+    private JdbcTemplate secondary;
+    private ShardRouter router;
+    private ReshardingService resharding;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        shards.put(ShardRouter.PRIMARY, shard());
+        shards.put("shard1", shard());
+        primary = new JdbcTemplate(shards.get(ShardRouter.PRIMARY));
+        secondary = new JdbcTemplate(shards.get("shard1"));
+        router = new ShardRouter(shards, 16, Duration.ofMinutes(5));
+        resharding = new ReshardingService(router);
+        router.assign(1L, ShardRouter.PRIMARY);
+        router.assign(2L, ShardRouter.PRIMARY);
+
+        primary.update("insert into users (id, email) values (1, 'a@example.com'), (2, 'b@example.com')");
+        for (long id = 1; id <= 5; id++) {
+            primary.update("insert into task (id, title, user_id) values (?, ?, 1)", id, "Task " + id);
+        }
+        primary.update("insert into task (id, title, user_id) values (6, 'Other', 2)");
+        primary.update("insert into task_archive (id, title, user_id) values (7, 'Old', 1)");
+        primary.update("insert into task_day_count values (1, date '9999-12-31', 5, 0)");
+        primary.update("insert into sync_receipt values (8, 1, 'k1')");
+    }
+
+    private static DataSource shard() {
+        DriverManagerDataSource ds = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        jdbc.execute("create table users (id bigint primary key, email varchar(255))");
+        jdbc.execute("create table task (id bigint primary key, title varchar(255), "
+                + "user_id bigint references users(id))");
+        jdbc.execute("create table task_archive (id bigint primary key, title varchar(255), user_id bigint)");
+        jdbc.execute("create table sync_receipt (id bigint primary key, user_id bigint, idempotency_key varchar(64))");
+        jdbc.execute("create table task_day_count (user_id bigint, task_date date, total bigint, completed bigint, "
+                + "primary key (user_id, task_date))");
+        return ds;
+    }
+
+    @Test
+    void moveUser_copiesRowsSwitchesShardAndCleansUpSource() {
+        Map<String, Integer> copied = resharding.moveUser(1L, "shard1", 2);
+
+        assertEquals(Map.of("task", 5, "task_archive", 1, "sync_receipt", 1, "task_day_count", 1), copied);
+        assertEquals("shard1", router.shardFor(1L));
+        assertEquals(5, count(secondary, "task", 1));
+        assertEquals(1, count(secondary, "task_archive", 1));
+        assertEquals("a@example.com",
+                secondary.queryForObject("select email from users where id = 1", String.class));
+        assertEquals(0, count(primary, "task", 1));
+        assertEquals(0, count(primary, "task_archive", 1));
+        assertEquals(1, count(secondary, "sync_receipt", 1));
+        assertEquals(1, count(secondary, "task_day_count", 1));
+        assertEquals(0, count(primary, "task_day_count", 1));
+        // Other users stay where they were
+        assertEquals(1, count(primary, "task", 2));
+        assertEquals(ShardRouter.PRIMARY, router.shardFor(2L));
+    }
+
+    @Test
+    void moveUser_toCurrentShardIsNoOp() {
+        assertTrue(resharding.moveUser(1L, ShardRouter.PRIMARY, 10).isEmpty());
+        assertEquals(5, count(primary, "task", 1));
+    }
+
+    @Test
+    void moveUser_rejectsUnknownShard() {
+        assertThrows(IllegalArgumentException.class, () -> resharding.moveUser(1L, "shard9", 10));
+    }
+
+    @Test
+    void routeByUser_waitsForTheCutOverAndWritesToTheNewShard() throws Exception {
+        List<String> routed = new CopyOnWriteArrayList<>();
+        Lock migration = router.lockFor(1L).writeLock();
+        migration.lock();
+        Thread writer = new Thread(() -> router.routeByUser(List.of(1L, 2L), id -> id,
+                (shard, userIds) -> routed.add(shard + userIds)));
+        writer.start();
+        writer.join(200);
+        assertTrue(routed.isEmpty());
+
+        router.assign(1L, "shard1");
+        migration.unlock();
+        writer.join(5000);
+
+        assertEquals(Set.of("shard0[2]", "shard1[1]"), Set.copyOf(routed));
+        assertEquals(1, secondary.queryForObject("select count(*) from users where id = 1", Integer.class));
+    }
+
+    @Test
+    void ensureUser_copiesTheRowAgainAfterInvalidate() {
+        router.ensureUser("shard1", 1L);
+        primary.update("update users set email = 'new@example.com' where id = 1");
+        router.ensureUser("shard1", 1L);
+        assertEquals("a@example.com", secondary.queryForObject("select email from users where id = 1", String.class));
+
+        router.invalidateUser(1L);
+        router.ensureUser("shard1", 1L);
+
+        assertEquals("new@example.com", secondary.queryForObject("select email from users where id = 1", String.class));
+    }
+
+    private static int count(JdbcTemplate jdbc, String table, long userId) {
+        return jdbc.queryForObject("select count(*) from " + table + " where user_id = ?", Integer.class, userId);
+    }
+}
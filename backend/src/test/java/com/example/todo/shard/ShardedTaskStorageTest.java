@@ -0,0 +1,100 @@
+package com.example.todo.shard;
+
+import com.example.todo.model.User;
+import com.example.todo.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Two in-memory shards behind the real routing DataSource, schema sync and request interceptor
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharded-test-shard0;DB_CLOSE_DELAY=-1",
+        "todo.sharding.enabled=true",
+        "todo.sharding.shards.shard1=jdbc:h2:mem:sharded-test-shard1;DB_CLOSE_DELAY=-1",
+        "todo.scheduling.enabled=false",
+        "todo.storage.enabled=false"
+})
+@AutoConfigureMockMvc(addFilters = false)
+class ShardedTaskStorageTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository users;
+
+    @Autowired
+    private ShardRouter router;
+
+    @DynamicPropertySource
+    static void dataDirectories(DynamicPropertyRegistry registry) throws IOException {
+        Path target = Files.createDirectories(Path.of("target"));
+        Path data = Files.createTempDirectory(target, "test-data");
+        registry.add("todo.search.dir", () -> data.resolve("search-index").toString());
+        registry.add("todo.activity.dir", () -> data.resolve("activity").toString());
+        registry.add("todo.write-behind.log.dir", () -> data.resolve("write-behind").toString());
+        registry.add("todo.profiling.dir", () -> data.resolve("jfr").toString());
+        registry.add("todo.storage.backup.dir", () -> data.resolve("backups").toString());
+    }
+
+    @Test
+    void tasksOfUsersOnDifferentShards_areStoredOnTheirShardAndReadBack() throws Exception {
+        Map<String, User> byShard = new HashMap<>();
+        for (int i = 0; byShard.size() < 2; i++) {
+            assertTrue(i < 100, "no user hashed to each shard");
+            User user = users.save(new User("pw", "1990-01-01", "shard-" + i + "@example.com",
+                    "Shard", "User " + i, "shard-user-" + i));
+            byShard.putIfAbsent(router.shardFor(user.getId()), user);
+        }
+
+        for (Map.Entry<String, User> entry : byShard.entrySet()) {
+            String shard = entry.getKey();
+            MockHttpSession session = new MockHttpSession();
+            session.setAttribute("user", entry.getValue());
+
+            JsonNode created = objectMapper.readTree(mockMvc.perform(post("/api/tasks")
+                            .session(session)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"title\":\"Task on " + shard + "\"}"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            long id = created.get("id").asLong();
+
+            // Each shard's sequences start in its own id range
+            long floor = (long) router.shardIds().indexOf(shard) << ShardSchemaSynchronizer.ID_RANGE_BITS;
+            assertTrue(id > floor && id < floor + (1L << ShardSchemaSynchronizer.ID_RANGE_BITS), shard + ": " + id);
+            for (String other : router.shardIds()) {
+                assertEquals(other.equals(shard) ? 1 : 0, new JdbcTemplate(router.dataSource(other))
+                        .queryForObject("select count(*) from task where id = ?", Integer.class, id), other);
+            }
+
+            mockMvc.perform(get("/api/tasks").session(session))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(1))
+                    .andExpect(jsonPath("$[0].id").value(id))
+                    .andExpect(jsonPath("$[0].title").value("Task on " + shard));
+        }
+    }
+}
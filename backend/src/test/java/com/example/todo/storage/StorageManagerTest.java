@@ -0,0 +1,210 @@
+package com.example.todo.storage;
+
+import com.example.todo.shard.ShardRouter;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageManagerTest {
+
+    @TempDir
+    Path dir;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-06-01T00:00:00Z"));
+
+    private JdbcDataSource database(String url) throws SQLException {
+        return database(url, "sa", "");
+    }
+
+    private JdbcDataSource database(String url, String user, String password) throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(url);
+        dataSource.setUser(user);
+        dataSource.setPassword(password);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists task (id bigint auto_increment primary key, title varchar(255))");
+        }
+        return dataSource;
+    }
+
+    private StorageManager manager(JdbcDataSource dataSource, int keep) {
+        return manager(dataSource, keep, "sa", "");
+    }
+
+    private StorageManager manager(JdbcDataSource dataSource, int keep, String user, String password) {
+        return new StorageManager(dataSource, ShardRouter.single(), dir.resolve("backups"), keep, true, user, password,
+                100, 1 << 20, clock);
+    }
+
+    private static void insert(JdbcDataSource dataSource, int rows) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (int i = 0; i < rows; i++) statement.execute("insert into task (title) values ('Task " + i + "')");
+        }
+    }
+
+    private static long count(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rows = statement.executeQuery("select count(*) from task")) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+
+    @Test
+    void backup_restoresToTheSnapshotTakenWhileTheDatabaseWasOpen() throws Exception {
+        JdbcDataSource dataSource = database("jdbc:h2:file:" + dir.resolve("db/tododb").toAbsolutePath());
+        insert(dataSource, 50);
+
+        StorageManager.BackupInfo backup = manager(dataSource, 3).backup().get(ShardRouter.PRIMARY);
+        insert(dataSource, 25);
+
+        assertNotNull(backup);
+        assertEquals(1, backup.verifiedTables());
+        assertNull(backup.verifyError());
+        assertTrue(backup.bytes() > 0);
+        Path restored = dir.resolve("restored");
+        String name = StorageManager.restore(Path.of(backup.file()), restored);
+        assertEquals("tododb", name);
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:file:" + restored.resolve(name).toAbsolutePath(), "sa", "")) {
+            assertEquals(50, count(connection));
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            assertEquals(75, count(connection));
+        }
+    }
+
+    @Test
+    void backup_keepsOnlyTheNewestBackups() throws Exception {
+        JdbcDataSource dataSource = database("jdbc:h2:file:" + dir.resolve("db/tododb").toAbsolutePath());
+        StorageManager manager = manager(dataSource, 2);
+
+        for (int i = 0; i < 4; i++) {
+            manager.backup();
+            clock.advance(Duration.ofHours(6));
+        }
+
+        Path shardDir = dir.resolve("backups").resolve(ShardRouter.PRIMARY);
+        assertEquals(2, backupFiles(shardDir));
+        Map<String, Object> status = manager.status().get(ShardRouter.PRIMARY);
+        StorageManager.BackupInfo last = (StorageManager.BackupInfo) status.get("lastBackup");
+        assertEquals(Instant.parse("2025-06-01T18:00:00Z"), last.at());
+        assertTrue(Files.exists(Path.of(last.file())));
+    }
+
+    @Test
+    void backup_verifiesWithTheConfiguredCredentials() throws Exception {
+        JdbcDataSource dataSource = database("jdbc:h2:file:" + dir.resolve("db/tododb").toAbsolutePath(), "todo", "secret");
+
+        StorageManager.BackupInfo backup = manager(dataSource, 3, "todo", "secret").backup().get(ShardRouter.PRIMARY);
+
+        assertEquals(1, backup.verifiedTables());
+        assertNull(backup.verifyError());
+    }
+
+    @Test
+    void backup_whenVerificationFails_recordsItAndStillPrunes() throws Exception {
+        JdbcDataSource dataSource = database("jdbc:h2:file:" + dir.resolve("db/tododb").toAbsolutePath(), "todo", "secret");
+        StorageManager manager = manager(dataSource, 2, "sa", "");
+
+        for (int i = 0; i < 3; i++) {
+            manager.backup();
+            clock.advance(Duration.ofHours(6));
+        }
+
+        assertEquals(2, backupFiles(dir.resolve("backups").resolve(ShardRouter.PRIMARY)));
+        StorageManager.BackupInfo last = (StorageManager.BackupInfo) manager.status().get(ShardRouter.PRIMARY).get("lastBackup");
+        assertEquals(Instant.parse("2025-06-01T12:00:00Z"), last.at());
+        assertNull(last.verifiedTables());
+        assertNotNull(last.verifyError());
+    }
+
+    @Test
+    void compact_recordsFillRatesAndStatusReportsTheFile() throws Exception {
+        JdbcDataSource dataSource = database("jdbc:h2:file:" + dir.resolve("db/tododb").toAbsolutePath() + ";DB_CLOSE_DELAY=-1");
+        try {
+            insert(dataSource, 2000);
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute("delete from task where mod(id, 4) <> 0");
+            }
+            StorageManager manager = manager(dataSource, 3);
+
+            StorageManager.CompactionInfo compaction = manager.compact().get(ShardRouter.PRIMARY);
+
+            assertNotNull(compaction);
+            assertTrue(compaction.fileSizeBefore() > 0);
+            Map<String, Object> status = manager.status().get(ShardRouter.PRIMARY);
+            assertTrue((Long) status.get("fileSize") > 0);
+            assertTrue((Integer) status.get("fillRate") > 0);
+            assertSame(compaction, status.get("lastCompaction"));
+            assertNull(status.get("lastBackup"));
+        } finally {
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute("shutdown");
+            }
+        }
+    }
+
+    @Test
+    void inMemoryDatabasesAreSkipped() throws Exception {
+        JdbcDataSource dataSource = database("jdbc:h2:mem:storage-test;DB_CLOSE_DELAY=-1");
+        StorageManager manager = manager(dataSource, 3);
+
+        assertTrue(manager.backup().isEmpty());
+        assertTrue(manager.compact().isEmpty());
+        assertTrue(manager.status().isEmpty());
+        assertFalse(Files.exists(dir.resolve("backups")));
+    }
+
+    private static long backupFiles(Path shardDir) {
+        try (Stream<Path> files = Files.list(shardDir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(StorageManager.SUFFIX)).count();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+// Writes .br and .gz next to each compressible file in build/ so the backend can
+// serve them as-is (spring.web.resources.chain.compressed) instead of compressing per request.
+const fs = require('fs');
+const path = require('path');
+const zlib = require('zlib');
+
+const BUILD_DIR = path.join(__dirname, '..', 'build');
+const COMPRESSIBLE = /\.(js|css|html|json|svg|txt|ico)$/;
+const MIN_SIZE = 1024;
+
+function walk(dir) {
+  return fs.readdirSync(dir, { withFileTypes: true }).flatMap((entry) => {
+    const full = path.join(dir, entry.name);
+    return entry.isDirectory() ? walk(full) : [full];
+  });
+}
+
+let files = 0;
+let before = 0;
+let after = 0;
+for (const file of walk(BUILD_DIR)) {
+  if (!COMPRESSIBLE.test(file)) continue;
+  const data = fs.readFileSync(file);
+  if (data.length < MIN_SIZE) continue;
+  const br = zlib.brotliCompressSync(data, {
+    params: {
+      [zlib.constants.BROTLI_PARAM_QUALITY]: zlib.constants.BROTLI_MAX_QUALITY,
+      [zlib.constants.BROTLI_PARAM_SIZE_HINT]: data.length,
+    },
+  });
+  const gz = zlib.gzipSync(data, { level: zlib.constants.Z_BEST_COMPRESSION });
+  fs.writeFileSync(file + '.br', br);
+  fs.writeFileSync(file + '.gz', gz);
+  files += 1;
+  before += data.length;
+  after += br.length;
+}
+console.log(`precompressed ${files} files: ${before} -> ${after} bytes (brotli)`);
@@ -21,12 +21,14 @@ import LogoutIcon from '@mui/icons-material/Logout';
 import SettingsIcon from '@mui/icons-material/Settings';
 import axios from 'axios'; // For API calls
 import { Task } from './models/Task';
+import * as mutationQueue from './services/mutationQueue';
 
 const App: React.FC = () => {
   const [isAuthenticated, setIsAuthenticated] = useState(false);
   const [userName, setUserName] = useState<string | null>(null); // Username fetched from the database
+  const [userId, setUserId] = useState<number | undefined>(undefined); // Owner of the offline mutation queue
   const [anchorEl, setAnchorEl] = useState<null | HTMLElement>(null); // For dropdown menu
-  const { tasks, addTask, updateTask, toggleTask, deleteTask, isLoading, refetchTasks  } = useTasks();
+  const { tasks, addTask, updateTask, toggleTask, deleteTask, isLoading, refetchTasks  } = useTasks(userId);
   const [selectedMonth, setSelectedMonth] = useState('');
   const [selectedDay, setSelectedDay] = useState('');
   const [completionFilter, setCompletionFilter] = useState('all');
@@ -39,6 +41,7 @@ const App: React.FC = () => {
         .then((response) => {
           console.log('User data:', response.data); // Debug
           setUserName(response.data.firstName + ' ' + response.data.lastName);
+          setUserId(response.data.id);
         })
         .catch((error) => {
           console.error('Error fetching user data:', error);
@@ -56,13 +59,16 @@ const App: React.FC = () => {
 
   const handleLogout = async () => {
     await axios.post('/api/auth/logout'); // Invalidate session on backend
+    await mutationQueue.clear(); // Unsent changes belong to this session only
     setIsAuthenticated(false);
     setUserName(null);
+    setUserId(undefined);
     setAnchorEl(null);
     refetchTasks();
   };
 
-  const handleLogin = () => { 
+  const handleLogin = (user?: { id: number }) => { 
+    if (typeof user?.id === 'number') setUserId(user.id);
     refetchTasks();
     setIsAuthenticated(true);
   };
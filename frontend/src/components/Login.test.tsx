@@ -7,7 +7,7 @@ import * as auth from '../services/auth';
 
 // Mock the login API
 jest.mock('../services/auth', () => ({
-  login: jest.fn(() => Promise.resolve({ success: true })),
+  login: jest.fn(() => Promise.resolve({ data: { id: 7 } })),
 }));
 
 function renderLogin(onLogin = jest.fn()) {
@@ -35,7 +35,7 @@ test('calls onLogin on valid submit', async () => {
   fireEvent.click(loginButton);
 
   await waitFor(() => {
-    expect(onLogin).toHaveBeenCalled();
+    expect(onLogin).toHaveBeenCalledWith({ id: 7 });
   });
 });
 
@@ -17,7 +17,7 @@ import VisibilityOff from '@mui/icons-material/VisibilityOff';
 import { useNavigate, Link as RouterLink } from 'react-router-dom';
 import { login } from '../services/auth';
 
-const Login: React.FC<{ onLogin: () => void }> = ({ onLogin }) => {
+const Login: React.FC<{ onLogin: (user: { id: number }) => void }> = ({ onLogin }) => {
   const [form, setForm] = useState({
     email: '',
     password: '',
@@ -34,8 +34,8 @@ const Login: React.FC<{ onLogin: () => void }> = ({ onLogin }) => {
     e.preventDefault();
     setError('');
     try {
-      await login(form.email, form.password);
-      onLogin();
+      const response = await login(form.email, form.password);
+      onLogin(response.data);
     } catch {
       setError('Invalid credentials');
     }
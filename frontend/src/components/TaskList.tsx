@@ -119,8 +119,13 @@ export const TaskList = ({
     }
   };
 
-  // Sort tasks by priority before rendering
-  const sortedTasks = [...tasks].sort((a, b) => a.priority - b.priority);
+  // Sort tasks by rank only, compared like the server does; unranked tasks (created offline) go last
+  const rankOf = (t: Task) => t.rank ?? '~';
+  const sortedTasks = [...tasks].sort((a, b) => {
+    const ra = rankOf(a);
+    const rb = rankOf(b);
+    return ra < rb ? -1 : ra > rb ? 1 : 0;
+  });
 
   // Filter tasks based on selected month and day
   let filteredTasks = sortedTasks;
@@ -145,13 +150,11 @@ export const TaskList = ({
     const [removed] = reordered.splice(result.source.index, 1);
     reordered.splice(result.destination.index, 0, removed);
 
-    // Update priorities based on new order
-    for (let i = 0; i < reordered.length; i++) {
-      reordered[i].priority = i;
-    }
-
-    // Persist the new order in the backend
-    await axios.post('/api/tasks/reorder', reordered);
+    // Persist the move; the backend only rewrites the moved task's rank
+    const after = reordered[result.destination.index - 1];
+    await axios.post(`/api/tasks/${removed.id}/move`, null, {
+      params: after ? { after: after.id } : {},
+    });
 
     // Refresh the list
     await refetchTasks();
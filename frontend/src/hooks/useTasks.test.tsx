@@ -2,10 +2,13 @@ import React from 'react';
 import { renderHook, act, waitFor } from '@testing-library/react';
 import { QueryClient, QueryClientProvider } from '@tanstack/react-query';
 import * as taskApi from '../services/api';
+import * as mutationQueue from '../services/mutationQueue';
 import { useTasks } from './useTasks';
 
 jest.mock('../services/api');
 
+const USER_ID = 7;
+
 const mockTasks = [
   { id: 1, title: 'Task 1', completed: false, priority: 0, date: '2025-06-02' },
 ];
@@ -16,49 +19,130 @@ function wrapper({ children }: React.PropsWithChildren<object>) {
   return <QueryClientProvider client={queryClient}>{children}</QueryClientProvider>;
 }
 
+// Echoes every queued mutation back as applied
+const applyAll = async (mutations: taskApi.SyncMutation[]): Promise<taskApi.SyncResult[]> =>
+  mutations.map((m) => ({
+    idempotencyKey: m.idempotencyKey,
+    clientId: m.clientId,
+    status: 'APPLIED',
+    task: m.op === 'DELETE' ? null : { ...mockTasks[0], id: m.id ?? 99, title: m.title ?? 'Task 1' },
+  }));
+
+const sentOps = () =>
+  (taskApi.syncTasks as jest.Mock).mock.calls.flatMap(([batch]) => batch.map((m: taskApi.SyncMutation) => m.op));
+
 describe('useTasks', () => {
-  beforeEach(() => {
+  beforeEach(async () => {
     jest.clearAllMocks();
+    await mutationQueue.clear();
     (taskApi.getTasks as jest.Mock).mockResolvedValue(mockTasks);
-    (taskApi.addTask as jest.Mock).mockResolvedValue({ ...mockTasks[0], id: 2 });
-    (taskApi.updateTask as jest.Mock).mockResolvedValue({ ...mockTasks[0], title: 'Updated' });
-    (taskApi.deleteTask as jest.Mock).mockResolvedValue({});
+    (taskApi.syncTasks as jest.Mock).mockImplementation(applyAll);
   });
-  
+
   it('adds a task', async () => {
-    const { result } = renderHook(() => useTasks(), { wrapper });
+    const { result } = renderHook(() => useTasks(USER_ID), { wrapper });
     await act(async () => {
-      result.current.addTask({ title: 'New', completed: false, priority: 0, date: '2025-06-03' });
+      await result.current.addTask({ title: 'New', completed: false, priority: 0, date: '2025-06-03' });
     });
-    expect(taskApi.addTask).toHaveBeenCalled();
+    await waitFor(() => expect(taskApi.syncTasks).toHaveBeenCalled());
+    const [batch] = (taskApi.syncTasks as jest.Mock).mock.calls[0];
+    expect(batch[0]).toEqual(expect.objectContaining({ op: 'CREATE', title: 'New', date: '2025-06-03' }));
+    expect(batch[0].clientId).toBeDefined();
   });
 
   it('updates a task', async () => {
-    const { result } = renderHook(() => useTasks(), { wrapper });
+    const { result } = renderHook(() => useTasks(USER_ID), { wrapper });
     await act(async () => {
-      result.current.updateTask({ ...mockTasks[0], title: 'Updated' });
+      await result.current.updateTask({ ...mockTasks[0], title: 'Updated' });
     });
-    expect(taskApi.updateTask).toHaveBeenCalled();
+    await waitFor(() => expect(sentOps()).toEqual(['UPDATE']));
   });
 
   it('toggles a task', async () => {
-    const { result } = renderHook(() => useTasks(), { wrapper });
+    const { result } = renderHook(() => useTasks(USER_ID), { wrapper });
     await act(async () => {
-      result.current.toggleTask({ ...mockTasks[0], completed: true });
+      await result.current.toggleTask({ ...mockTasks[0], completed: true });
     });
-    expect(taskApi.updateTask).toHaveBeenCalled();
+    await waitFor(() => expect(taskApi.syncTasks).toHaveBeenCalled());
+    expect((taskApi.syncTasks as jest.Mock).mock.calls[0][0][0])
+      .toEqual(expect.objectContaining({ op: 'UPDATE', id: 1, completed: true }));
   });
 
   it('deletes a task', async () => {
-    const { result } = renderHook(() => useTasks(), { wrapper });
+    const { result } = renderHook(() => useTasks(USER_ID), { wrapper });
+    await act(async () => {
+      await result.current.deleteTask(1);
+    });
+    await waitFor(() => expect(taskApi.syncTasks).toHaveBeenCalled());
+    expect((taskApi.syncTasks as jest.Mock).mock.calls[0][0][0]).toEqual(expect.objectContaining({ op: 'DELETE', id: 1 }));
+  });
+
+  it('sends a burst of mutations as one batch', async () => {
+    const { result } = renderHook(() => useTasks(USER_ID), { wrapper });
+    await act(async () => {
+      await result.current.addTask({ title: 'A', completed: false, priority: 0, date: '2025-06-03' });
+      await result.current.toggleTask({ ...mockTasks[0], completed: true });
+      await result.current.deleteTask(1);
+    });
+    await waitFor(() => expect(taskApi.syncTasks).toHaveBeenCalledTimes(1));
+    expect(sentOps()).toEqual(['CREATE', 'UPDATE', 'DELETE']);
+  });
+
+  it('shows changes before they are synced', async () => {
+    const { result } = renderHook(() => useTasks(USER_ID), { wrapper });
+    await waitFor(() => expect(result.current.tasks).toHaveLength(1));
+    (taskApi.syncTasks as jest.Mock).mockReturnValue(new Promise(() => {}));
+    await act(async () => {
+      await result.current.addTask({ title: 'Offline', completed: false, priority: 0, date: '2025-06-03' });
+    });
+    expect(result.current.tasks.map((t) => t.title)).toEqual(['Task 1', 'Offline']);
+  });
+
+  it('keeps mutations queued while offline and resends them when back online', async () => {
+    (taskApi.syncTasks as jest.Mock).mockRejectedValueOnce(new Error('Network Error'));
+    const { result } = renderHook(() => useTasks(USER_ID), { wrapper });
+    await act(async () => {
+      await result.current.deleteTask(1);
+    });
+    await waitFor(() => expect(taskApi.syncTasks).toHaveBeenCalledTimes(1));
+    expect(await mutationQueue.peek(USER_ID, 10)).toHaveLength(1);
+
+    await act(async () => {
+      window.dispatchEvent(new Event('online'));
+    });
+    await waitFor(() => expect(taskApi.syncTasks).toHaveBeenCalledTimes(2));
+    const [first] = (taskApi.syncTasks as jest.Mock).mock.calls[0][0];
+    const [retry] = (taskApi.syncTasks as jest.Mock).mock.calls[1][0];
+    expect(retry.idempotencyKey).toBe(first.idempotencyKey);
+    await waitFor(async () => expect(await mutationQueue.peek(USER_ID, 10)).toHaveLength(0));
+  });
+
+  it('drops mutations another user left queued instead of sending them', async () => {
+    await mutationQueue.enqueue(8, {
+      idempotencyKey: 'k-other', op: 'DELETE', id: 1, queuedAt: new Date().toISOString(),
+    });
+    const { result } = renderHook(() => useTasks(USER_ID), { wrapper });
+    await act(async () => {
+      await result.current.updateTask({ ...mockTasks[0], title: 'Mine' });
+    });
+
+    await waitFor(() => expect(sentOps()).toEqual(['UPDATE']));
+    expect(await mutationQueue.peek(8, 10)).toHaveLength(0);
+  });
+
+  it('stamps each mutation with the time it was queued', async () => {
+    const { result } = renderHook(() => useTasks(USER_ID), { wrapper });
     await act(async () => {
-      result.current.deleteTask(1);
+      await result.current.deleteTask(1);
     });
-    expect(taskApi.deleteTask).toHaveBeenCalledWith(1);
+    await waitFor(() => expect(taskApi.syncTasks).toHaveBeenCalled());
+    const [sent] = (taskApi.syncTasks as jest.Mock).mock.calls[0][0];
+    expect(Date.parse(sent.queuedAt)).not.toBeNaN();
+    expect(sent.userId).toBeUndefined();
   });
 
   it('isLoading is false when no mutation is pending', async () => {
-    const { result } = renderHook(() => useTasks(), { wrapper });
+    const { result } = renderHook(() => useTasks(USER_ID), { wrapper });
     expect(result.current.isLoading).toBe(false);
   });
-});
\ No newline at end of file
+});
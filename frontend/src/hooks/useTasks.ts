@@ -1,44 +1,153 @@
+import { useCallback, useEffect, useRef } from 'react';
 import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
+import axios from 'axios';
 import * as taskApi from '../services/api';
+import * as mutationQueue from '../services/mutationQueue';
 import { Task } from '../models/Task';
 
-export const useTasks = () => {
+// Mutations made within this window go to the server in one /sync request
+const FLUSH_DELAY_MS = 200;
+const BATCH_SIZE = 100;
+const RETRY_DELAY_MS = 5000;
+
+const newKey = (): string =>
+  typeof crypto !== 'undefined' && 'randomUUID' in crypto
+    ? crypto.randomUUID()
+    : `${Date.now().toString(36)}-${Math.random().toString(36).slice(2)}`;
+
+const sameTask = (a: Task, b: Task) => a.id === b.id || (!!a.clientId && a.clientId === b.clientId);
+
+/**
+ * Task list with offline-first mutations: add/update/delete change the cached list
+ * right away and are queued in IndexedDB, then sent in batches to /api/tasks/sync.
+ * A batch that fails on the network stays queued and is retried, also when the
+ * browser comes back online; the server's results replace the optimistic copies.
+ * Nothing is queued or sent until the logged-in user's id is known, and only that
+ * user's queued mutations are sent.
+ */
+export const useTasks = (userId?: number) => {
   const queryClient = useQueryClient();
-  
-  const { data: tasks = [], refetch } = useQuery<Task[]>({
+  const timer = useRef<ReturnType<typeof setTimeout> | undefined>(undefined);
+  const flushing = useRef(false);
+  const currentUser = useRef(userId);
+  currentUser.current = userId;
+
+  const { data: tasks = [] } = useQuery<Task[]>({
     queryKey: ['tasks'],
     queryFn: taskApi.getTasks
   });
 
-  // Add task mutation (accepts Task without id)
-  const addMutation = useMutation({
-    mutationFn: (task: Omit<Task, 'id'>) => taskApi.addTask(task),
-    onSuccess: () => queryClient.invalidateQueries({ queryKey: ['tasks'] })
-  });
+  const applyResults = useCallback((results: taskApi.SyncResult[]) => {
+    let stale = false;
+    queryClient.setQueryData<Task[]>(['tasks'], (current = []) => {
+      let next = current;
+      for (const result of results) {
+        if (result.status !== 'APPLIED') stale = true;
+        const optimistic = { id: result.task?.id, clientId: result.clientId } as Task;
+        if (!result.task) {
+          next = next.filter((t) => !sameTask(t, optimistic));
+        } else if (next.some((t) => sameTask(t, optimistic))) {
+          next = next.map((t) => (sameTask(t, optimistic) ? result.task! : t));
+        } else {
+          next = [...next, result.task];
+        }
+      }
+      return next;
+    });
+    // Rejected changes leave the optimistic list wrong; reload the server's copy
+    if (stale) queryClient.invalidateQueries({ queryKey: ['tasks'] });
+  }, [queryClient]);
 
-  // Update task mutation (requires full Task with id)
-  const updateMutation = useMutation({
-    mutationFn: (task: Task) => taskApi.updateTask(task),
-    onSuccess: () => queryClient.invalidateQueries({ queryKey: ['tasks'] })
-  });
+  const flushRef = useRef<() => Promise<void>>(async () => {});
+
+  const schedule = useCallback((delay: number) => {
+    clearTimeout(timer.current);
+    timer.current = setTimeout(() => { flushRef.current(); }, delay);
+  }, []);
+
+  flushRef.current = async () => {
+    const user = currentUser.current;
+    if (flushing.current || user === undefined) return;
+    flushing.current = true;
+    try {
+      for (;;) {
+        const batch = await mutationQueue.peek(user, BATCH_SIZE);
+        if (batch.length === 0) return;
+        const seqs = batch.map((m) => m.seq);
+        try {
+          applyResults(await taskApi.syncTasks(batch.map(({ seq, userId: owner, ...mutation }) => mutation)));
+        } catch (error) {
+          // A malformed batch would fail forever; anything else (offline, 5xx, 409) is retried
+          if (axios.isAxiosError(error) && error.response && [400, 413].includes(error.response.status)) {
+            await mutationQueue.remove(seqs);
+            queryClient.invalidateQueries({ queryKey: ['tasks'] });
+            continue;
+          }
+          schedule(RETRY_DELAY_MS);
+          return;
+        }
+        await mutationQueue.remove(seqs);
+      }
+    } finally {
+      flushing.current = false;
+    }
+  };
+
+  // Sends whatever this user's earlier session left queued, and retries as soon as the network is back
+  useEffect(() => {
+    const flushNow = () => { flushRef.current(); };
+    flushNow();
+    window.addEventListener('online', flushNow);
+    return () => {
+      window.removeEventListener('online', flushNow);
+      clearTimeout(timer.current);
+    };
+  }, [userId]);
+
+  const submit = useCallback(async (mutation: Omit<taskApi.SyncMutation, 'idempotencyKey' | 'queuedAt'>) => {
+    const user = currentUser.current;
+    if (user === undefined) throw new Error('Not logged in');
+    await mutationQueue.enqueue(user, { ...mutation, idempotencyKey: newKey(), queuedAt: new Date().toISOString() });
+    schedule(FLUSH_DELAY_MS);
+  }, [schedule]);
+
+  const addTask = useCallback(async (task: Omit<Task, 'id'>) => {
+    const clientId = newKey();
+    // Negative ids never clash with server ids and keep list keys stable until the create is synced
+    const optimistic: Task = { ...task, id: -Date.now(), clientId };
+    queryClient.setQueryData<Task[]>(['tasks'], (current = []) => [...current, optimistic]);
+    await submit({
+      op: 'CREATE', clientId, title: task.title, completed: task.completed,
+      priority: task.priority, date: task.date ? task.date.slice(0, 10) : undefined,
+    });
+  }, [queryClient, submit]);
+
+  const updateTask = useCallback(async (task: Task) => {
+    queryClient.setQueryData<Task[]>(['tasks'], (current = []) => current.map((t) => (sameTask(t, task) ? task : t)));
+    await submit({
+      op: 'UPDATE', id: task.id > 0 ? task.id : undefined, clientId: task.clientId,
+      title: task.title, completed: task.completed,
+    });
+  }, [queryClient, submit]);
+
+  const deleteTask = useCallback(async (id: number) => {
+    const task = queryClient.getQueryData<Task[]>(['tasks'])?.find((t) => t.id === id);
+    queryClient.setQueryData<Task[]>(['tasks'], (current = []) => current.filter((t) => t.id !== id));
+    await submit({ op: 'DELETE', id: id > 0 ? id : undefined, clientId: task?.clientId });
+  }, [queryClient, submit]);
 
-  // Delete task mutation (accepts just id)
-  const deleteMutation = useMutation({
-    mutationFn: (id: number) => taskApi.deleteTask(id),
-    onSuccess: () => queryClient.invalidateQueries({ queryKey: ['tasks'] })
-  });
   const refrech = useMutation({
     mutationFn: () => taskApi.getTasks(),
     onSuccess: () => queryClient.invalidateQueries({ queryKey: ['tasks'] })
   });
   return {
     tasks,
-    addTask: addMutation.mutate,
-    toggleTask: updateMutation.mutate,
-    deleteTask: deleteMutation.mutate,
-    updateTask: updateMutation.mutate,
+    addTask,
+    toggleTask: updateTask,
+    deleteTask,
+    updateTask,
     refetchTasks: refrech.mutate,
-    isLoading: addMutation.isPending || updateMutation.isPending || deleteMutation.isPending || refrech.isPending,
-    
+    isLoading: refrech.isPending,
+
   };
-};
\ No newline at end of file
+};
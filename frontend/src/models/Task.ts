@@ -4,5 +4,8 @@ export interface Task {
   completed: boolean;
   userId?: number; // Optional, if tasks are user-specific
   priority: number;
+  rank?: string; // Server-side ordering key; the list is sorted by it alone
   date: string; 
+  parentId?: number | null; // Set on subtasks
+  clientId?: string; // Set on tasks created offline until the server has assigned an id
 }
\ No newline at end of file
@@ -1,5 +1,5 @@
 import axios from 'axios';
-import { getTasks, addTask, updateTask, deleteTask } from './api';
+import { getTasks, addTask, updateTask, deleteTask, syncTasks } from './api';
 
 jest.mock('axios');
 const mockedAxios = axios as jest.Mocked<typeof axios>;
@@ -45,4 +45,12 @@ describe('api service', () => {
     await deleteTask(1);
     expect(mockedAxios.delete).toHaveBeenCalledWith('/api/tasks/1');
   });
-});
\ No newline at end of file
+
+  it('syncTasks posts the batch and returns the results', async () => {
+    const batch = [{ idempotencyKey: 'k1', op: 'DELETE' as const, id: 1 }];
+    const results = [{ idempotencyKey: 'k1', status: 'APPLIED', task: null }];
+    mockedAxios.post.mockResolvedValueOnce({ data: results });
+    expect(await syncTasks(batch)).toEqual(results);
+    expect(mockedAxios.post).toHaveBeenCalledWith('/api/tasks/sync', batch);
+  });
+});
@@ -26,3 +26,32 @@ export const updateTask = async (task: Task): Promise<Task> => {
 export const deleteTask = async (id: number): Promise<void> => {
   await axios.delete(`${API_PREFIX}/${id}`);
 };
+
+export type SyncOp = 'CREATE' | 'UPDATE' | 'DELETE';
+
+// One queued change; the idempotency key is reused on every retry of the same change
+export interface SyncMutation {
+  idempotencyKey: string;
+  op: SyncOp;
+  clientId?: string;
+  id?: number;
+  title?: string;
+  completed?: boolean;
+  priority?: number;
+  date?: string;
+  // When the change was made (ISO instant); the server rejects changes older than its receipt retention
+  queuedAt: string;
+}
+
+export interface SyncResult {
+  idempotencyKey: string;
+  clientId?: string;
+  status: 'APPLIED' | 'NOT_FOUND' | 'INVALID' | 'EXPIRED';
+  task: Task | null;
+}
+
+// Applies an ordered batch in one transaction; results come back in the same order
+export const syncTasks = async (mutations: SyncMutation[]): Promise<SyncResult[]> => {
+  const response = await axios.post(`${API_PREFIX}/sync`, mutations);
+  return response.data;
+};
@@ -0,0 +1,93 @@
+import { SyncMutation } from './api';
+
+// Task mutations waiting to be sent to /api/tasks/sync, oldest first. Kept in IndexedDB so
+// they survive reloads and connectivity drops; held in memory where IndexedDB is missing.
+// Each entry remembers the user who made it, and is only ever sent in that user's session.
+export interface QueuedMutation extends SyncMutation {
+  seq: number;
+  userId: number;
+}
+
+const DB_NAME = 'todo-sync';
+const STORE = 'mutations';
+
+let dbPromise: Promise<IDBDatabase> | null = null;
+
+const openDb = (): Promise<IDBDatabase> => {
+  if (!dbPromise) {
+    dbPromise = new Promise((resolve, reject) => {
+      const request = indexedDB.open(DB_NAME, 1);
+      request.onupgradeneeded = () => {
+        request.result.createObjectStore(STORE, { keyPath: 'seq', autoIncrement: true });
+      };
+      request.onsuccess = () => resolve(request.result);
+      request.onerror = () => reject(request.error);
+    });
+  }
+  return dbPromise;
+};
+
+const run = async <T>(mode: IDBTransactionMode, work: (store: IDBObjectStore) => IDBRequest<T> | void): Promise<T> => {
+  const db = await openDb();
+  return new Promise((resolve, reject) => {
+    const tx = db.transaction(STORE, mode);
+    const request = work(tx.objectStore(STORE));
+    tx.oncomplete = () => resolve(request ? request.result : (undefined as T));
+    tx.onerror = () => reject(tx.error);
+    tx.onabort = () => reject(tx.error);
+  });
+};
+
+let memory: QueuedMutation[] = [];
+let memorySeq = 0;
+const hasIndexedDb = () => typeof indexedDB !== 'undefined';
+
+export const enqueue = async (userId: number, mutation: SyncMutation): Promise<void> => {
+  if (!hasIndexedDb()) {
+    memory.push({ ...mutation, userId, seq: ++memorySeq });
+    return;
+  }
+  await run('readwrite', (store) => store.add({ ...mutation, userId }));
+};
+
+// The user's oldest mutations, in the order they were made. Entries of any other user
+// (e.g. left behind by a session that expired instead of logging out) are dropped on the way.
+export const peek = async (userId: number, limit: number): Promise<QueuedMutation[]> => {
+  if (!hasIndexedDb()) {
+    memory = memory.filter((m) => m.userId === userId);
+    return memory.slice(0, limit);
+  }
+  const mine: QueuedMutation[] = [];
+  await run('readwrite', (store) => {
+    const cursor = store.openCursor();
+    cursor.onsuccess = () => {
+      const entry = cursor.result;
+      if (!entry || mine.length === limit) return;
+      const mutation = entry.value as QueuedMutation;
+      if (mutation.userId === userId) mine.push(mutation);
+      else entry.delete();
+      entry.continue();
+    };
+  });
+  return mine;
+};
+
+export const remove = async (seqs: number[]): Promise<void> => {
+  if (!hasIndexedDb()) {
+    const done = new Set(seqs);
+    memory = memory.filter((m) => !done.has(m.seq));
+    return;
+  }
+  await run('readwrite', (store) => {
+    seqs.forEach((seq) => store.delete(seq));
+  });
+};
+
+// Dropped on logout so one user's offline changes are never sent with another user's session
+export const clear = async (): Promise<void> => {
+  if (!hasIndexedDb()) {
+    memory = [];
+    return;
+  }
+  await run('readwrite', (store) => store.clear());
+};